@@ -0,0 +1,68 @@
+import Fetching.Configuration;
+import Screening.BatchScreening;
+import Screening.Screener;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screens a customer CSV file against all lists and writes the hits to another CSV file.
+ * Entries are read from the snapshot written by {@link Fetcher}, lists are fetched only when there is none.
+ * <p>
+ * Usage: BatchScreener &lt;customers.csv&gt; &lt;hits.csv&gt; [threads]
+ * <p>
+ * The first row of customers.csv is a header. The program exits with status 1 when screening failed.
+ */
+public class BatchScreener
+{
+    public static void main(String[] args)
+    {
+        if (args.length < 2)
+        {
+            System.err.println("Usage: BatchScreener <customers.csv> <hits.csv> [threads]");
+            System.exit(1);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Properties properties = Configuration.load();
+        long start = System.nanoTime();
+        Screener screener = new Screener(Fetcher.loadEntries(properties));
+        System.out.println("Screening index: " + screener.size() + " entries in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+
+        try
+        {
+            Reader input = new BufferedReader(new InputStreamReader(new FileInputStream(args[0]), "UTF-8"));
+            Writer output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]), "UTF-8"));
+            BatchScreening.Result result;
+            try
+            {
+                result = new BatchScreening(screener, threads).run(input, output);
+            } finally
+            {
+                input.close();
+                output.close();
+            }
+            System.out.println(String.format("Screened: %d records, %d hits in %d ms on %d threads (%.0f records/s)",
+                    result.records, result.hits, result.elapsedMillis, threads, result.getRecordsPerSecond()));
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while screening " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalStateException e)
+        {
+            // Hits of the failed records are missing, the output must not be taken as complete
+            System.err.println("Screening of " + args[0] + " failed, " + args[1] + " is incomplete");
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
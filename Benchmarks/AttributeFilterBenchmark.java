@@ -0,0 +1,111 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.AttributeIndex;
+import Screening.CountryCodes;
+import Screening.DatesOfBirth;
+import Screening.Match;
+import Screening.Screener;
+import Screening.ScreeningFilter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Screening restricted by year of birth and nationality: bit sets of the attribute index applied
+ * to name candidates, against checking the strings of every match and against rescanning every entry.
+ */
+public class AttributeFilterBenchmark
+{
+    private static final int ENTRIES = 100000;
+    private static final int QUERIES = 20000;
+    private static final int ROUNDS = 3;
+    private static final ScreeningFilter FILTER = new ScreeningFilter(1968, 1972, "IR", false);
+
+    private static boolean passes(SanctionListEntry entry, ScreeningFilter filter)
+    {
+        boolean born = false;
+        for (String value : entry.datesOfBirth)
+            for (int date : DatesOfBirth.parse(value))
+                born |= DatesOfBirth.year(date) >= filter.fromYear && DatesOfBirth.year(date) <= filter.toYear;
+        boolean national = false;
+        for (String value : entry.nationalities)
+            national |= filter.nationality.equals(CountryCodes.code(value));
+        return born && national;
+    }
+
+    private static long bitsets(Screener screener, String[] queries)
+    {
+        long matches = 0;
+        for (String query : queries)
+            matches += screener.screen(query, FILTER).size();
+        return matches;
+    }
+
+    private static long matchStrings(Screener screener, String[] queries)
+    {
+        long matches = 0;
+        for (String query : queries)
+            for (Match match : screener.screen(query))
+                if (passes(match.entry, FILTER))
+                    ++matches;
+        return matches;
+    }
+
+    private static long rescan(List<SanctionListEntry> entries, int queries)
+    {
+        long passing = 0;
+        for (int q = 0; q < queries; ++q)
+            for (SanctionListEntry entry : entries)
+                if (passes(entry, FILTER))
+                    ++passing;
+        return passing / queries;
+    }
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = SyntheticNames.entries(ENTRIES, random);
+        long start = System.nanoTime();
+        Screener screener = new Screener(entries);
+        System.out.printf("indexed %d entries in %d ms%n", entries.size(), (System.nanoTime() - start) / 1000000);
+
+        List<String> names = new ArrayList<String>();
+        for (SanctionListEntry entry : entries)
+            names.addAll(entry.names);
+        String[] queries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; ++q)
+            queries[q] = SyntheticNames.misspell(names.get(random.nextInt(names.size())), random);
+
+        AttributeIndex attributes = screener.getAttributes();
+        for (int round = 0; round < ROUNDS; ++round)
+        {
+            start = System.nanoTime();
+            BitSet selected = null;
+            for (int q = 0; q < QUERIES; ++q)
+                selected = attributes.select(FILTER);
+            long select = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long filtered = bitsets(screener, queries);
+            long bitsetTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long checked = matchStrings(screener, queries);
+            long stringTime = System.nanoTime() - start;
+
+            // A full rescan per query is too slow to repeat QUERIES times
+            int scans = 20;
+            start = System.nanoTime();
+            long passing = rescan(entries, scans);
+            long scanTime = (System.nanoTime() - start) / scans;
+
+            System.out.printf("%s: %d entries pass, select %.2f us, bitset filter %.1f us/query (%d matches), "
+                            + "match strings %.1f us/query (%d matches), rescan %.0f us/query (%d entries)%n",
+                    FILTER, selected.cardinality(), select / 1e3 / QUERIES, bitsetTime / 1e3 / QUERIES, filtered,
+                    stringTime / 1e3 / QUERIES, checked, scanTime / 1e3, passing);
+        }
+    }
+}
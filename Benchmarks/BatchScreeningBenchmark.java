@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.BatchScreening;
+import Screening.Screener;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Batch screening throughput from one thread up to all available processors.
+ */
+public class BatchScreeningBenchmark
+{
+    private static final int ENTRIES = 100000;
+    private static final int RECORDS = 100000;
+
+    /**
+     * Discards the hits, so that only screening is measured.
+     */
+    private static class NullWriter extends Writer
+    {
+        @Override
+        public void write(char[] buffer, int offset, int length)
+        {
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = SyntheticNames.entries(ENTRIES, random);
+        Screener screener = new Screener(entries);
+
+        // One in ten customers is a misspelled listed name
+        StringBuilder customers = new StringBuilder("id,name\n");
+        for (int i = 0; i < RECORDS; ++i)
+        {
+            String name = i % 10 == 0
+                    ? SyntheticNames.misspell(entries.get(random.nextInt(ENTRIES)).names.iterator().next(), random)
+                    : SyntheticNames.name(random);
+            customers.append(i).append(',').append(name).append('\n');
+        }
+        String input = customers.toString();
+
+        new BatchScreening(screener, 1).run(new StringReader(input), new NullWriter());
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for (int threads = 1; threads <= processors; threads = threads == processors ? processors + 1 : Math.min(threads * 2, processors))
+        {
+            BatchScreening.Result result = new BatchScreening(screener, threads).run(new StringReader(input), new NullWriter());
+            if (threads == 1)
+                single = result.getRecordsPerSecond();
+            System.out.printf("threads=%d records=%d hits=%d time=%d ms %.0f records/s speedup=%.2f%n",
+                    threads, result.records, result.hits, result.elapsedMillis, result.getRecordsPerSecond(),
+                    result.getRecordsPerSecond() / single);
+        }
+    }
+}
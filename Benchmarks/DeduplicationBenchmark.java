@@ -0,0 +1,135 @@
+package Benchmarks;
+
+import Merging.EntryDeduplicator;
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Cross-list merge of synthetic lists where a part of the listed persons and organizations appears
+ * on several lists, spelled and formatted the way the individual lists do it. Lists leave out dates of birth
+ * and nationalities of some persons, and some different persons share a name (namesakes).
+ * <p>
+ * Wrong merges count merged entries made of different designations, missed merges entries of a designation
+ * left apart.
+ */
+public class DeduplicationBenchmark
+{
+    private static final String[] LISTS = {"BIS", "BOE", "UN", "EU", "OFAC"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final int[] SIZES = {10000, 25000, 50000};
+    /**
+     * Alpha-2, alpha-3 and English name of a country, lists spell nationalities differently.
+     */
+    private static final String[][] COUNTRIES = {{"IR", "IRN", "Iran"}, {"IQ", "IRQ", "Iraq"}, {"SY", "SYR", "Syria"},
+            {"RU", "RUS", "Russia"}, {"KP", "PRK", "Korea, North"}, {"AF", "AFG", "Afghanistan"}};
+
+    /**
+     * Number of lists a designation appears on, most are listed once.
+     */
+    private static int listings(Random random)
+    {
+        int roll = random.nextInt(100);
+        return roll < 60 ? 1 : roll < 85 ? 2 : roll < 95 ? 3 : 4;
+    }
+
+    private static String date(int year, int month, int day, int format)
+    {
+        switch (format)
+        {
+            case 0:
+                return String.format("%d-%02d-%02d", year, month, day);
+            case 1:
+                return String.format("%02d/%02d/%d", day, month, year);
+            default:
+                return day + " " + MONTHS[month - 1] + " " + year;
+        }
+    }
+
+    /**
+     * Entries of designations listed on one or more lists, shuffled.
+     */
+    private static List<SanctionListEntry> lists(int designations, Random random)
+    {
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        String first = null;
+        String last = null;
+        for (int d = 0; d < designations; ++d)
+        {
+            boolean person = random.nextInt(4) != 0;
+            // Every twentieth person is a namesake of the previous designation
+            if (!person || first == null || random.nextInt(20) != 0)
+            {
+                first = SyntheticNames.word(random);
+                last = SyntheticNames.word(random);
+            }
+            String alias = SyntheticNames.name(random);
+            String[] country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+            int year = 1940 + random.nextInt(60);
+            int month = 1 + random.nextInt(12);
+            int day = 1 + random.nextInt(28);
+
+            List<String> lists = new ArrayList<String>();
+            Collections.addAll(lists, LISTS);
+            Collections.shuffle(lists, random);
+            int count = listings(random);
+            for (int l = 0; l < count; ++l)
+            {
+                SanctionListEntry.Builder builder = new SanctionListEntry.Builder(lists.get(l));
+                if (person)
+                {
+                    builder.addName(l % 2 == 0 ? first + " " + last : last.toUpperCase() + ", " + first);
+                    if (random.nextInt(10) >= 3)
+                        builder.addDateOfBirth(date(year, month, day, random.nextInt(3)));
+                    if (random.nextBoolean())
+                        builder.addNationality(country[random.nextInt(country.length)]);
+                }
+                else
+                    builder.addName((first + " " + last + (l % 2 == 0 ? " Ltd." : " LIMITED")).toUpperCase());
+                if (random.nextBoolean())
+                    builder.addName(alias);
+                // Marks the designation, a merged entry with two marks merged different designations
+                builder.addAddress("#" + d);
+                entries.add(builder.build());
+            }
+        }
+        Collections.shuffle(entries, random);
+        return entries;
+    }
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        for (int designations : SIZES)
+        {
+            List<SanctionListEntry> entries = lists(designations, random);
+            EntryDeduplicator deduplicator = new EntryDeduplicator();
+            deduplicator.deduplicate(entries);
+
+            long start = System.nanoTime();
+            EntryDeduplicator.Result result = deduplicator.deduplicate(entries);
+            long elapsed = System.nanoTime() - start;
+            int wrong = 0;
+            Set<String> seen = new HashSet<String>();
+            int missed = 0;
+            for (SanctionListEntry entry : result.entries)
+            {
+                if (entry.addresses.size() > 1)
+                    ++wrong;
+                for (String designation : entry.addresses)
+                    if (!seen.add(designation))
+                        ++missed;
+            }
+
+            System.out.printf("entries=%d designations=%d merged into %d (%.1f %% fewer) groups=%d comparisons=%d skipped blocks=%d wrong merges=%d missed merges=%d time=%d ms%n",
+                    entries.size(), designations, result.entries.size(),
+                    100.0 * (entries.size() - result.entries.size()) / entries.size(),
+                    result.mergedGroups, result.comparisons, result.skippedBlocks, wrong, missed, elapsed / 1000000);
+        }
+    }
+}
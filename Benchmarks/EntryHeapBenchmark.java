@@ -0,0 +1,86 @@
+package Benchmarks;
+
+import Fetching.SourceLoader;
+import Parsers.SanctionListEntry;
+import Parsers.StringPool;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Heap retained by the entries of all five lists after a full collection, with the number of pooled strings.
+ * <p>
+ * Without arguments the lists are generated by {@link ParserFixtures} with about as many records as the published
+ * lists have, given a directory the downloaded lists in it are loaded instead, under the file names of
+ * {@link ParserFixtures#FILES}. Run with a fixed heap, e.g. java -Xms1g -Xmx1g Benchmarks.EntryHeapBenchmark
+ * Usage: EntryHeapBenchmark [directory of downloaded lists]
+ */
+public class EntryHeapBenchmark
+{
+    /**
+     * Generated records per list in the order of {@link ParserFixtures#FILES}.
+     */
+    private static final int[] RECORDS = {12000, 13000, 1000, 5500, 17000};
+
+    private static long usedHeap()
+    {
+        for (int i = 0; i < 4; ++i)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File generated = null;
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        if (args.length > 0)
+        {
+            for (String[] list : ParserFixtures.FILES)
+                files.put(list[0], new File(args[0], list[1]));
+        }
+        else
+        {
+            generated = Files.createTempDirectory("heap-fixtures").toFile();
+            for (int i = 0; i < ParserFixtures.FILES.length; ++i)
+                files.put(ParserFixtures.FILES[i][0], ParserFixtures.generate(ParserFixtures.FILES[i][0], RECORDS[i], generated, 42));
+        }
+
+        try
+        {
+            List<List<SanctionListEntry>> retained = new ArrayList<List<SanctionListEntry>>();
+            long total = 0;
+            long before = usedHeap();
+            for (Map.Entry<String, File> file : files.entrySet())
+            {
+                List<SanctionListEntry> entries = SourceLoader.parseStream(new FileInputStream(file.getValue()),
+                        SourceLoader.createParser(file.getKey() + "_Parser"));
+                retained.add(entries);
+                total += entries.size();
+                System.out.printf("%-5s %7d entries from %s%n", file.getKey(), entries.size(), file.getValue().getName());
+            }
+            long used = usedHeap() - before;
+            System.out.printf("%d entries retain %.1f MB, %.0f B/entry, %d pooled strings%n",
+                    total, used / 1e6, (double) used / total, StringPool.size());
+            // Keeps the entries reachable until measured
+            if (retained.size() != files.size())
+                throw new IllegalStateException();
+        } finally
+        {
+            if (generated != null)
+            {
+                for (File file : files.values())
+                    if (!file.delete())
+                        file.deleteOnExit();
+                if (!generated.delete())
+                    generated.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.FuzzyIndex;
+import Screening.NameKeys;
+import Screening.NameNormalizer;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Single thread throughput of edit distance bounded lookups in the fuzzy index,
+ * compared to computing the distance to every listed name.
+ */
+public class FuzzyIndexBenchmark
+{
+    private static final int[] SIZES = {10000, 100000};
+    private static final int QUERIES = 2000;
+    private static final int SCAN_QUERIES = 10;
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        for (int size : SIZES)
+        {
+            List<SanctionListEntry> entries = SyntheticNames.entries(size, random);
+
+            long start = System.nanoTime();
+            FuzzyIndex index = new FuzzyIndex(entries);
+            long build = System.nanoTime() - start;
+
+            String[] queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; ++i)
+                queries[i] = SyntheticNames.misspell(entries.get(random.nextInt(size)).names.iterator().next(), random);
+
+            start = System.nanoTime();
+            long scanned = 0;
+            for (int i = 0; i < SCAN_QUERIES; ++i)
+            {
+                String query = NameNormalizer.normalize(queries[i]);
+                for (SanctionListEntry entry : entries)
+                    for (String name : entry.names)
+                        if (NameKeys.distance(query, NameNormalizer.normalize(name)) <= FuzzyIndex.DEFAULT_MAX_DISTANCE)
+                            ++scanned;
+            }
+            double scan = SCAN_QUERIES / ((System.nanoTime() - start) / 1e9);
+
+            for (int maxDistance = 1; maxDistance <= FuzzyIndex.DEFAULT_MAX_DISTANCE; ++maxDistance)
+            {
+                for (int i = 0; i < QUERIES; ++i)
+                    index.search(queries[i], maxDistance);
+
+                long matches = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < QUERIES; ++i)
+                    matches += index.search(queries[i], maxDistance).size();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("names=%d keys=%d build=%d ms distance=%d %.0f queries/s/core mean matches=%.2f%n",
+                        index.size(), index.keyCount(), build / 1000000, maxDistance, QUERIES / seconds, (double) matches / QUERIES);
+            }
+            System.out.printf("names=%d scan distance=%d %.1f queries/s/core (%d matches)%n",
+                    index.size(), FuzzyIndex.DEFAULT_MAX_DISTANCE, scan, scanned);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package Benchmarks;
+
+import Screening.NameNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.Normalizer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation per normalized name of the reusable normalizer compared to the former String based one.
+ * Every operation normalizes the next name of a fixed mix of synthetic and accented or non-Latin names,
+ * allocation per operation is reported by the gc profiler:
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar NormalizerBenchmark -prof gc
+ * </pre>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class NormalizerBenchmark
+{
+    private static final int NAMES = 1 << 13;
+    private static final String[] SAMPLES = {"Saddam Hussein Al-Tikriti", "HUSSEIN, Saddam", "J\u00fcrgen Schr\u00f6der",
+            "\u042e\u043b\u0438\u044f \u0422\u0438\u043c\u043e\u0448\u0435\u043d\u043a\u043e", "AL-NASSER AIRLINES AND AIR FREIGHT AGENCY", "M\u00fcller-L\u00fcdenscheidt GmbH", "\u0645\u062d\u0645\u062f \u0627\u0644\u0633\u0639\u064a\u062f"};
+
+    private String[] names;
+    private int next = 0;
+    private final NameNormalizer normalizer = new NameNormalizer();
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(42);
+        names = new String[NAMES];
+        for (int i = 0; i < NAMES; ++i)
+            names[i] = i % 4 == 0 ? SAMPLES[random.nextInt(SAMPLES.length)] : SyntheticNames.name(random);
+    }
+
+    private String name()
+    {
+        next = (next + 1) & (NAMES - 1);
+        return names[next];
+    }
+
+    /**
+     * Normalization as done before the reusable normalizer, decomposing the whole name first.
+     */
+    private static String stringNormalize(String name)
+    {
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); ++i)
+        {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+            if (Character.isLetterOrDigit(c))
+                out.append(Character.toLowerCase(c));
+            else if (out.length() > 0 && out.charAt(out.length() - 1) != ' ')
+                out.append(' ');
+        }
+        int length = out.length();
+        if (length > 0 && out.charAt(length - 1) == ' ')
+            out.setLength(length - 1);
+        return out.toString();
+    }
+
+    @Benchmark
+    public String formerString()
+    {
+        return stringNormalize(name());
+    }
+
+    @Benchmark
+    public String normalizeToString()
+    {
+        return NameNormalizer.normalize(name());
+    }
+
+    @Benchmark
+    public int resetInPlace()
+    {
+        return normalizer.reset(name()).wordCount();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(NormalizerBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,249 @@
+package Benchmarks;
+
+import Fetching.ConcurrentFetcher;
+import Fetching.SourceLoader;
+import Parsers.IFileParser;
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput, time to first entry and allocation of every parser on the checked-in samples and on generated
+ * files of the same shape, and of the whole fetch pipeline over the generated files.
+ * <p>
+ * Allocation per operation is reported by the gc profiler. Built by the module in jmh/, run from the repository
+ * root so the fixtures are found:
+ * <pre>
+ * java -jar jmh/target/benchmarks.jar ParserBenchmark -prof gc
+ * java -jar jmh/target/benchmarks.jar ParserBenchmark -p records=100000 -prof gc
+ * </pre>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark
+{
+    /**
+     * Checked-in sample or generated file of one list.
+     */
+    @State(Scope.Benchmark)
+    public static class Input
+    {
+        @Param({"BIS", "BOE", "UN", "EU", "OFAC"})
+        public String list;
+
+        @Param({"sample", "generated"})
+        public String input;
+
+        @Param({"20000"})
+        public int records;
+
+        @Param({ParserFixtures.DIRECTORY})
+        public String fixtures;
+
+        File file;
+        private File generated;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException
+        {
+            if (input.equals("sample"))
+                file = ParserFixtures.sample(list, new File(fixtures));
+            else
+            {
+                generated = Files.createTempDirectory("parser-fixtures").toFile();
+                file = ParserFixtures.generate(list, records, generated, 42);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            if (generated == null)
+                return;
+            if (!file.delete())
+                file.deleteOnExit();
+            if (!generated.delete())
+                generated.deleteOnExit();
+        }
+    }
+
+    /**
+     * Generated file of a list whose parser splits local copies.
+     */
+    @State(Scope.Benchmark)
+    public static class MappedInput
+    {
+        @Param({"BIS"})
+        public String list;
+
+        @Param({"20000"})
+        public int records;
+
+        File file;
+        private File generated;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException
+        {
+            generated = Files.createTempDirectory("parser-fixtures").toFile();
+            file = ParserFixtures.generate(list, records, generated, 42);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            if (!file.delete())
+                file.deleteOnExit();
+            if (!generated.delete())
+                generated.deleteOnExit();
+        }
+    }
+
+    /**
+     * Generated files of all lists, fetched through file URLs as Fetcher does with the real lists.
+     */
+    @State(Scope.Benchmark)
+    public static class Pipeline
+    {
+        @Param({"20000"})
+        public int records;
+
+        final Map<String, String> sources = new LinkedHashMap<String, String>();
+        private File generated;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException
+        {
+            generated = Files.createTempDirectory("parser-fixtures").toFile();
+            for (String[] sample : ParserFixtures.FILES)
+                sources.put(sample[0], ParserFixtures.generate(sample[0], records, generated, 42).toURI().toURL().toString());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown()
+        {
+            File[] files = generated.listFiles();
+            for (File file : files == null ? new File[0] : files)
+                if (!file.delete())
+                    file.deleteOnExit();
+            if (!generated.delete())
+                generated.deleteOnExit();
+        }
+    }
+
+    private static int drain(IParser parser, Blackhole blackhole)
+    {
+        int entries = 0;
+        for (SanctionListEntry entry = parser.getNextEntry(); entry != null; entry = parser.getNextEntry())
+        {
+            blackhole.consume(entry);
+            ++entries;
+        }
+        return entries;
+    }
+
+    /**
+     * Parses of the whole file per second.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int parse(Input input, Blackhole blackhole) throws IOException
+    {
+        InputStream stream = new FileInputStream(input.file);
+        try
+        {
+            IParser parser = SourceLoader.createParser(input.list + "_Parser");
+            parser.initialize(stream);
+            return drain(parser, blackhole);
+        } finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Time from opening the file to the first parsed entry.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public SanctionListEntry firstEntry(Input input) throws IOException
+    {
+        InputStream stream = new FileInputStream(input.file);
+        try
+        {
+            IParser parser = SourceLoader.createParser(input.list + "_Parser");
+            parser.initialize(stream);
+            return parser.getNextEntry();
+        } finally
+        {
+            stream.close();
+        }
+    }
+
+    /**
+     * Parses of the whole file per second when the parser is handed the file itself.
+     * Allocation of the pool threads is not attributed to the operation by the gc profiler.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public int parseMapped(MappedInput input, Blackhole blackhole) throws IOException
+    {
+        IFileParser parser = (IFileParser) SourceLoader.createParser(input.list + "_Parser");
+        parser.initialize(input.file, ForkJoinPool.commonPool());
+        return drain(parser, blackhole);
+    }
+
+    /**
+     * Concurrent fetch and parse of all generated lists.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int pipeline(Pipeline pipeline)
+    {
+        ConcurrentLinkedQueue<SanctionListEntry> sink = new ConcurrentLinkedQueue<SanctionListEntry>();
+        List<ConcurrentFetcher.SourceResult> results = new ConcurrentFetcher(pipeline.sources.size(), 0).fetch(pipeline.sources, sink);
+        for (ConcurrentFetcher.SourceResult result : results)
+            if (result.status != ConcurrentFetcher.Status.OK)
+                throw new IllegalStateException(result.name + " " + result.status);
+        return sink.size();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(ParserBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,294 @@
+package Benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Checked-in sample files of every list format (Benchmarks/fixtures) and generated larger files of the same
+ * shape: every record gets synthetic names and aliases, dates of birth in the format of the list and
+ * the optional fields the sample records have.
+ */
+public final class ParserFixtures
+{
+    public static final String DIRECTORY = "Benchmarks/fixtures";
+
+    /**
+     * Lists in the order of Fetching.Configuration.LISTS with their sample file names.
+     */
+    public static final String[][] FILES = {{"BIS", "bis.csv"}, {"BOE", "boe.csv"}, {"UN", "un.xml"}, {"EU", "eu.xml"}, {"OFAC", "sdn.txt"}};
+
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+    private static final String[][] COUNTRIES = {{"IR", "IRN", "Iran"}, {"IQ", "IRQ", "Iraq"}, {"SY", "SYR", "Syria"},
+            {"RU", "RUS", "Russia"}, {"KP", "PRK", "Korea, North"}, {"AF", "AFG", "Afghanistan"}, {"LY", "LBY", "Libya"},
+            {"CN", "CHN", "China"}, {"YE", "YEM", "Yemen"}, {"SD", "SDN", "Sudan"}};
+
+    private ParserFixtures()
+    {
+    }
+
+    public static File sample(String list, File directory)
+    {
+        for (String[] file : FILES)
+            if (file[0].equals(list))
+                return new File(directory, file[1]);
+        throw new IllegalArgumentException("Unknown list " + list);
+    }
+
+    /**
+     * Writes a file of list with the given number of records into directory.
+     */
+    public static File generate(String list, int records, File directory, long seed) throws IOException
+    {
+        File file = new File(directory, list.toLowerCase() + "-" + records + sample(list, directory).getName().replaceAll("^[^.]*", ""));
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 1 << 16);
+        try
+        {
+            Random random = new Random(seed);
+            if (list.equals("BIS"))
+                bis(out, records, random);
+            else if (list.equals("BOE"))
+                boe(out, records, random);
+            else if (list.equals("UN"))
+                un(out, records, random);
+            else if (list.equals("EU"))
+                eu(out, records, random);
+            else
+                ofac(out, records, random);
+        } finally
+        {
+            out.close();
+        }
+        return file;
+    }
+
+    private static class Record
+    {
+        private final boolean person;
+        private final String first;
+        private final String last;
+        private final String[] aliases;
+        private final int year;
+        private final int month;
+        private final int day;
+        private final String[] country;
+        private final String city;
+        private final String street;
+
+        public Record(Random random)
+        {
+            person = random.nextInt(3) != 0;
+            first = SyntheticNames.word(random);
+            last = person ? SyntheticNames.word(random) : SyntheticNames.name(random) + (random.nextBoolean() ? " Trading Company" : " LLC");
+            aliases = new String[random.nextInt(4)];
+            for (int i = 0; i < aliases.length; ++i)
+                aliases[i] = SyntheticNames.name(random);
+            year = 1930 + random.nextInt(70);
+            month = 1 + random.nextInt(12);
+            day = 1 + random.nextInt(28);
+            country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+            city = SyntheticNames.word(random);
+            street = "No. " + (1 + random.nextInt(200)) + ", " + SyntheticNames.word(random) + " Street";
+        }
+
+        private String name()
+        {
+            return person ? first + " " + last : last;
+        }
+    }
+
+    private static String csv(String value)
+    {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String xml(String value)
+    {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static String join(String[] values, String separator)
+    {
+        StringBuilder out = new StringBuilder();
+        for (String value : values)
+            out.append(out.length() > 0 ? separator : "").append(value);
+        return out.toString();
+    }
+
+    private static void bis(Writer out, int records, Random random) throws IOException
+    {
+        out.write("source,entity_number,type,programs,name,title,addresses,federal_register_notice,start_date,end_date,"
+                + "standard_order,license_requirement,license_policy,call_sign,vessel_type,gross_tonnage,gross_registered_tonnage,"
+                + "vessel_flag,vessel_owner,remarks,source_list_url,alt_names,citizenships,dates_of_birth,nationalities,"
+                + "places_of_birth,source_information_url\n");
+        for (int r = 0; r < records; ++r)
+        {
+            Record record = new Record(random);
+            out.write(record.person ? "Denied Persons List (DPL) - Bureau of Industry and Security,,Individual,,"
+                    : "Entity List (EL) - Bureau of Industry and Security,,Entity,,");
+            out.write(csv(record.name()) + ",," + csv(record.street + ", " + record.city + ", " + record.country[0]));
+            out.write(",81 FR " + (1000 + r % 90000) + ",2016-03-08,,Y,For all items subject to the EAR.,Presumption of denial.,,,,,,,,"
+                    + "https://example.org/list," + csv(join(record.aliases, "; ")) + ",");
+            if (record.person)
+                out.write(record.country[0] + "," + String.format("%d-%02d-%02d", record.year, record.month, record.day) + ","
+                        + record.country[0] + "," + csv(record.city + ", " + record.country[2]));
+            else
+                out.write(",,,");
+            out.write(",https://example.org/info\n");
+        }
+    }
+
+    private static void boe(Writer out, int records, Random random) throws IOException
+    {
+        out.write("Last Updated,14/03/2016\n");
+        out.write("Name 6,Name 1,Name 2,Name 3,Name 4,Name 5,Title,DOB,Town of Birth,Country of Birth,Nationality,Passport Details,"
+                + "NI Number,Position,Address 1,Address 2,Address 3,Address 4,Address 5,Address 6,Post/Zip Code,Country,"
+                + "Other Information,Group Type,Alias Type,Regime,Listed On,Last Updated,Group ID\n");
+        // Group ids do not follow the order of the rows in the published file
+        int[] groups = new int[records];
+        for (int r = 0; r < records; ++r)
+            groups[r] = 10000 + r;
+        for (int r = records - 1; r > 0; --r)
+        {
+            int other = random.nextInt(r + 1);
+            int swap = groups[r];
+            groups[r] = groups[other];
+            groups[other] = swap;
+        }
+        for (int r = 0; r < records; ++r)
+        {
+            Record record = new Record(random);
+            String date = String.format("%02d/%02d/%d", record.day, record.month, record.year);
+            String tail = "," + csv(record.country[2]) + ",14/03/2016,14/03/2016," + groups[r] + "\n";
+            if (record.person)
+                out.write(csv(record.last.toUpperCase()) + "," + record.first + ",,,,,," + date + "," + record.city + ","
+                        + csv(record.country[2]) + "," + csv(record.country[2]) + ",,,,"
+                        + csv(record.street) + ",,," + record.city + ",,,," + csv(record.country[2]) + ",,Individual,Primary name" + tail);
+            else
+                out.write(csv(record.last.toUpperCase()) + ",,,,,,,,,,,,,," + csv(record.street) + ",,," + record.city + ",,,,"
+                        + csv(record.country[2]) + ",\"Other information\nover two lines\",Entity,Primary name" + tail);
+            for (String alias : record.aliases)
+                out.write(csv(alias) + ",,,,,,,,,,,,,,,,,,,,,,," + (record.person ? "Individual" : "Entity") + ",AKA" + tail);
+        }
+    }
+
+    private static void un(Writer out, int records, Random random) throws IOException
+    {
+        StringBuilder individuals = new StringBuilder();
+        StringBuilder entities = new StringBuilder();
+        for (int r = 0; r < records; ++r)
+        {
+            Record record = new Record(random);
+            StringBuilder target = record.person ? individuals : entities;
+            String element = record.person ? "INDIVIDUAL" : "ENTITY";
+            target.append('<').append(element).append(">\n<DATAID>").append(6900000 + r).append("</DATAID><VERSIONNUM>1</VERSIONNUM>\n");
+            if (record.person)
+                target.append("<FIRST_NAME>").append(xml(record.first.toUpperCase())).append("</FIRST_NAME><SECOND_NAME>")
+                        .append(xml(record.last.toUpperCase())).append("</SECOND_NAME><THIRD_NAME/>\n");
+            else
+                target.append("<FIRST_NAME>").append(xml(record.last.toUpperCase())).append("</FIRST_NAME>\n");
+            target.append("<UN_LIST_TYPE>Al-Qaida</UN_LIST_TYPE><REFERENCE_NUMBER>QDi.").append(r)
+                    .append("</REFERENCE_NUMBER><LISTED_ON>2011-05-12</LISTED_ON>\n<COMMENTS1>Listed pursuant to resolution 2161 (2014).</COMMENTS1>\n");
+            if (record.person)
+                target.append("<NATIONALITY><VALUE>").append(xml(record.country[2])).append("</VALUE></NATIONALITY>\n");
+            for (String alias : record.aliases)
+                target.append('<').append(element).append("_ALIAS><QUALITY>Good</QUALITY><ALIAS_NAME>").append(xml(alias))
+                        .append("</ALIAS_NAME></").append(element).append("_ALIAS>\n");
+            target.append('<').append(element).append("_ADDRESS><STREET>").append(xml(record.street)).append("</STREET><CITY>")
+                    .append(record.city).append("</CITY><COUNTRY>").append(xml(record.country[2])).append("</COUNTRY></")
+                    .append(element).append("_ADDRESS>\n");
+            if (record.person)
+                target.append("<INDIVIDUAL_DATE_OF_BIRTH><TYPE_OF_DATE>EXACT</TYPE_OF_DATE><DATE>")
+                        .append(String.format("%d-%02d-%02d", record.year, record.month, record.day))
+                        .append("</DATE></INDIVIDUAL_DATE_OF_BIRTH>\n<INDIVIDUAL_PLACE_OF_BIRTH><CITY>").append(record.city)
+                        .append("</CITY><COUNTRY>").append(xml(record.country[2])).append("</COUNTRY></INDIVIDUAL_PLACE_OF_BIRTH>\n");
+            target.append("</").append(element).append(">\n");
+        }
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<CONSOLIDATED_LIST dateGenerated=\"2016-03-14T10:00:00.000Z\">\n<INDIVIDUALS>\n");
+        out.write(individuals.toString());
+        out.write("</INDIVIDUALS>\n<ENTITIES>\n");
+        out.write(entities.toString());
+        out.write("</ENTITIES>\n</CONSOLIDATED_LIST>\n");
+    }
+
+    private static void eu(Writer out, int records, Random random) throws IOException
+    {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<WHOLE generationDate=\"2016-03-14T10:00:00\">\n");
+        for (int r = 0; r < records; ++r)
+        {
+            Record record = new Record(random);
+            int id = 10000 + r;
+            out.write("<ENTITY Id=\"" + id + "\" Type=\"" + (record.person ? "P" : "E") + "\" legal_basis=\"267/2012 (OJ L88)\" "
+                    + "reg_date=\"2012-03-24\" pdf_link=\"http://example.org/oj\" programme=\"" + record.country[1] + "\">\n");
+            out.write("  <NAME Id=\"" + (20000 + r) + "\" Entity_id=\"" + id + "\" programme=\"" + record.country[1] + "\">");
+            if (record.person)
+                out.write("<LASTNAME>" + xml(record.last) + "</LASTNAME><FIRSTNAME>" + xml(record.first) + "</FIRSTNAME>");
+            out.write("<WHOLENAME>" + xml(record.name()) + "</WHOLENAME>" + (record.person ? "<GENDER>M</GENDER>" : "") + "<LANGUAGE/></NAME>\n");
+            for (String alias : record.aliases)
+                out.write("  <NAME Id=\"" + (20000 + r) + "\" Entity_id=\"" + id + "\"><WHOLENAME>" + xml(alias) + "</WHOLENAME></NAME>\n");
+            out.write("  <ADDRESS Id=\"" + (5000 + r) + "\" Entity_id=\"" + id + "\"><STREET>" + xml(record.street) + "</STREET><CITY>"
+                    + record.city + "</CITY><COUNTRY>" + record.country[1] + "</COUNTRY><OTHER/></ADDRESS>\n");
+            if (record.person)
+            {
+                out.write("  <BIRTH Id=\"" + (4000 + r) + "\" Entity_id=\"" + id + "\"><DATE>"
+                        + String.format("%d-%02d-%02d", record.year, record.month, record.day) + "</DATE><PLACE>" + record.city
+                        + "</PLACE><COUNTRY>" + record.country[1] + "</COUNTRY></BIRTH>\n");
+                out.write("  <CITIZEN Id=\"" + (3000 + r) + "\" Entity_id=\"" + id + "\"><COUNTRY>" + record.country[1] + "</COUNTRY></CITIZEN>\n");
+            }
+            out.write("</ENTITY>\n");
+        }
+        out.write("</WHOLE>\n");
+    }
+
+    /**
+     * Wraps a paragraph at 75 columns like the published text file.
+     */
+    private static void wrap(Writer out, String paragraph) throws IOException
+    {
+        int start = 0;
+        while (paragraph.length() - start > 75)
+        {
+            int end = paragraph.lastIndexOf(' ', start + 75);
+            if (end <= start)
+                end = start + 75;
+            out.write(paragraph, start, end - start);
+            out.write('\n');
+            start = end + 1;
+        }
+        out.write(paragraph, start, paragraph.length() - start);
+        out.write("\n\n");
+    }
+
+    private static void ofac(Writer out, int records, Random random) throws IOException
+    {
+        out.write("\n                       SPECIALLY DESIGNATED NATIONALS LIST\n\n"
+                + "  This publication of Treasury's Office of Foreign Assets Control (\"OFAC\")\n"
+                + "is designed as a reference tool.\n\n");
+        for (int r = 0; r < records; ++r)
+        {
+            Record record = new Record(random);
+            StringBuilder paragraph = new StringBuilder();
+            paragraph.append(record.person ? record.last.toUpperCase() + ", " + record.first : record.last.toUpperCase());
+            if (record.aliases.length > 0)
+            {
+                paragraph.append(" (");
+                for (int i = 0; i < record.aliases.length; ++i)
+                    paragraph.append(i > 0 ? "; " : "").append("a.k.a. ").append(record.aliases[i].toUpperCase());
+                paragraph.append(')');
+            }
+            paragraph.append(", ").append(record.street).append(", ").append(record.city).append(", ").append(record.country[2]);
+            if (record.person)
+                paragraph.append("; DOB ").append(String.format("%02d", record.day)).append(' ').append(MONTHS[record.month - 1])
+                        .append(' ').append(record.year).append("; POB ").append(record.city).append(", ").append(record.country[2])
+                        .append("; nationality ").append(record.country[2]).append(" (individual)");
+            paragraph.append(" [SDGT].");
+            wrap(out, paragraph.toString());
+        }
+    }
+}
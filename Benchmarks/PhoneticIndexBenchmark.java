@@ -0,0 +1,57 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.NameKeys;
+import Screening.PhoneticIndex;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Key lookup in the phonetic index compared to encoding every listed name for each query.
+ */
+public class PhoneticIndexBenchmark
+{
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final int QUERIES = 20000;
+    private static final int SCAN_QUERIES = 20;
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        for (int size : SIZES)
+        {
+            List<SanctionListEntry> entries = SyntheticNames.entries(size, random);
+
+            long start = System.nanoTime();
+            PhoneticIndex index = new PhoneticIndex(entries);
+            long build = System.nanoTime() - start;
+
+            String[] queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; ++i)
+                queries[i] = entries.get(random.nextInt(size)).names.iterator().next().toUpperCase();
+
+            for (int i = 0; i < QUERIES; ++i)
+                index.search(queries[i]);
+            long matches = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; ++i)
+                matches += index.search(queries[i]).size();
+            double indexed = (System.nanoTime() - start) / 1e3 / QUERIES;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SCAN_QUERIES; ++i)
+            {
+                String key = NameKeys.phonetic(queries[i]);
+                for (SanctionListEntry entry : entries)
+                    for (String name : entry.names)
+                        if (key.equals(NameKeys.phonetic(name)))
+                            ++matches;
+            }
+            double scanned = (System.nanoTime() - start) / 1e3 / SCAN_QUERIES;
+
+            System.out.printf("names=%d build=%d ms keys=%d lookup=%.1f us scan=%.0f us%n",
+                    index.size(), build / 1000000, index.keyCount(), indexed, scanned);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package Benchmarks;
+
+import Fetching.ConcurrentFetcher;
+import Fetching.PipelinedInputStream;
+import Parsers.SanctionListEntry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end fetch time of the serial path, where the parser reads the connection itself, against
+ * the pipelined path reading ahead into a ring of buffers, per list and for all lists at once.
+ * <p>
+ * Lists are generated by {@link ParserFixtures} and fetched as local files and from a local HTTP
+ * server throttled to the given bandwidth, which stands in for the remote servers.
+ * Usage: PipelineBenchmark [records per list] [bandwidth in MB/s] [buffers]
+ */
+public class PipelineBenchmark
+{
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 5;
+    private static final int CHUNK = 16 * 1024;
+
+    /**
+     * Serves files of the directory in chunks paced to the bandwidth.
+     */
+    private static class ThrottledHandler implements HttpHandler
+    {
+        private final File directory;
+        private final double bytesPerNano;
+
+        public ThrottledHandler(File directory, double megabytesPerSecond)
+        {
+            this.directory = directory;
+            this.bytesPerNano = megabytesPerSecond * 1e6 / 1e9;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            File file = new File(directory, exchange.getRequestURI().getPath().substring(1));
+            exchange.sendResponseHeaders(200, file.length());
+            OutputStream out = exchange.getResponseBody();
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                byte[] chunk = new byte[CHUNK];
+                long start = System.nanoTime();
+                long sent = 0;
+                int read;
+                while ((read = in.read(chunk)) > 0)
+                {
+                    out.write(chunk, 0, read);
+                    out.flush();
+                    sent += read;
+                    long ahead = (long) (sent / bytesPerNano) - (System.nanoTime() - start);
+                    if (ahead > 0)
+                        Thread.sleep(ahead / 1000000, (int) (ahead % 1000000));
+                }
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            } finally
+            {
+                in.close();
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Best time of the measured rounds in milliseconds.
+     */
+    private static double measure(Map<String, String> sources, int buffers)
+    {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; ++round)
+        {
+            ConcurrentFetcher fetcher = new ConcurrentFetcher(sources.size(), 0);
+            fetcher.setPipelineBuffers(buffers);
+            ConcurrentLinkedQueue<SanctionListEntry> sink = new ConcurrentLinkedQueue<SanctionListEntry>();
+            long start = System.nanoTime();
+            for (ConcurrentFetcher.SourceResult result : fetcher.fetch(sources, sink))
+                if (result.status != ConcurrentFetcher.Status.OK)
+                    throw new IllegalStateException(result.name + " " + result.status);
+            if (round >= WARMUP_ROUNDS)
+                best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static void compare(String label, Map<String, String> sources, long bytes, int buffers)
+    {
+        double serial = measure(sources, 0);
+        double pipelined = measure(sources, buffers);
+        System.out.printf("%-24s %8.1f MB  serial %8.1f ms  pipelined %8.1f ms  %5.2fx%n",
+                label, bytes / 1e6, serial, pipelined, serial / pipelined);
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        double bandwidth = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int buffers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+        File generated = Files.createTempDirectory("pipeline-fixtures").toFile();
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+        server.createContext("/", new ThrottledHandler(generated, bandwidth));
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        try
+        {
+            for (String[] sample : ParserFixtures.FILES)
+                files.put(sample[0], ParserFixtures.generate(sample[0], records, generated, 42));
+            System.out.println(records + " records per list, HTTP throttled to " + bandwidth + " MB/s, "
+                    + buffers + " buffers of " + (PipelinedInputStream.BUFFER_SIZE >> 10) + " kB");
+
+            String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            Map<String, String> local = new LinkedHashMap<String, String>();
+            Map<String, String> remote = new LinkedHashMap<String, String>();
+            long bytes = 0;
+            for (Map.Entry<String, File> file : files.entrySet())
+            {
+                String list = file.getKey();
+                String url = file.getValue().toURI().toURL().toString();
+                long length = file.getValue().length();
+                local.put(list, url);
+                remote.put(list, base + file.getValue().getName());
+                bytes += length;
+                compare(list + " file", Collections.singletonMap(list, url), length, buffers);
+                compare(list + " http", Collections.singletonMap(list, base + file.getValue().getName()), length, buffers);
+            }
+            compare("all file", local, bytes, buffers);
+            compare("all http", remote, bytes, buffers);
+        } finally
+        {
+            server.stop(0);
+            handlers.shutdownNow();
+            for (File file : files.values())
+                if (!file.delete())
+                    file.deleteOnExit();
+            if (!generated.delete())
+                generated.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.CachingScreener;
+import Screening.IScreener;
+import Screening.Screener;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Screening throughput with and without the result cache under Zipf distributed queries.
+ */
+public class ResultCacheBenchmark
+{
+    private static final int ENTRIES = 100000;
+    private static final int CUSTOMERS = 200000;
+    private static final int QUERIES = 200000;
+    private static final int CAPACITY = 20000;
+    private static final double SKEW = 1.0;
+
+    /**
+     * Customer indexes drawn with probability proportional to 1 / rank^skew.
+     */
+    private static int[] zipf(int customers, int queries, double skew, Random random)
+    {
+        double[] cumulative = new double[customers];
+        double sum = 0;
+        for (int i = 0; i < customers; ++i)
+        {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cumulative[i] = sum;
+        }
+        int[] out = new int[queries];
+        for (int q = 0; q < queries; ++q)
+        {
+            double value = random.nextDouble() * sum;
+            int low = 0;
+            int high = customers - 1;
+            while (low < high)
+            {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            out[q] = low;
+        }
+        return out;
+    }
+
+    private static double run(IScreener screener, String[] names, int[] queries)
+    {
+        long start = System.nanoTime();
+        long matches = 0;
+        for (int query : queries)
+            matches += screener.screen(names[query]).size();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return matches < 0 ? 0 : queries.length / seconds;
+    }
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = SyntheticNames.entries(ENTRIES, random);
+        Screener screener = new Screener(entries);
+        String[] names = new String[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; ++i)
+            names[i] = SyntheticNames.name(random);
+        int[] queries = zipf(CUSTOMERS, QUERIES, SKEW, random);
+
+        run(screener, names, queries);
+        double uncached = run(screener, names, queries);
+
+        CachingScreener cache = new CachingScreener(screener, CAPACITY);
+        run(cache, names, queries);
+        double cached = run(cache, names, queries);
+        long lookups = cache.getHits() + cache.getMisses();
+
+        System.out.printf("uncached %.0f queries/s, cached %.0f queries/s, hit rate %.1f %%, evictions %d, capacity %d of %d customers%n",
+                uncached, cached, 100.0 * cache.getHits() / lookups, cache.getEvictions(), CAPACITY, CUSTOMERS);
+
+        cache.update(screener);
+        long misses = cache.getMisses();
+        cache.screen(names[queries[0]]);
+        System.out.println("after update: " + cache.getCachedCount() + " cached, first query missed: " + (cache.getMisses() > misses));
+    }
+}
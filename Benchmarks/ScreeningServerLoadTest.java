@@ -0,0 +1,134 @@
+package Benchmarks;
+
+import Metrics.LatencyHistogram;
+import Parsers.SanctionListEntry;
+import Screening.Screener;
+import Server.ScreeningServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed loop load test of the screening endpoint on localhost, every client sends its next request
+ * as soon as the previous one is answered.
+ * <p>
+ * Usage: ScreeningServerLoadTest [clients] [seconds] [base URL], without base URL an embedded server
+ * over synthetic entries is started. Run with -Dsun.net.httpserver.nodelay=true like the service itself.
+ */
+public class ScreeningServerLoadTest
+{
+    private static final int ENTRIES = 100000;
+    private static final int QUERIES = 10000;
+
+    private static byte[] get(URL url) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0)
+            body.write(buffer, 0, read);
+        in.close();
+        return body.toByteArray();
+    }
+
+    private static class Client extends Thread
+    {
+        private final String base;
+        private final String[] queries;
+        private final long deadline;
+        private final LatencyHistogram latency;
+        private final AtomicLong failures;
+        private final Random random;
+
+        public Client(String base, String[] queries, long deadline, LatencyHistogram latency, AtomicLong failures, long seed)
+        {
+            this.base = base;
+            this.queries = queries;
+            this.deadline = deadline;
+            this.latency = latency;
+            this.failures = failures;
+            this.random = new Random(seed);
+        }
+
+        @Override
+        public void run()
+        {
+            while (System.nanoTime() < deadline)
+            {
+                long start = System.nanoTime();
+                try
+                {
+                    get(new URL(base + "/screen?name=" + queries[random.nextInt(queries.length)]));
+                    latency.record(System.nanoTime() - start);
+                } catch (IOException e)
+                {
+                    failures.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = SyntheticNames.entries(ENTRIES, random);
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; ++i)
+        {
+            String name = i % 10 == 0
+                    ? SyntheticNames.misspell(entries.get(random.nextInt(ENTRIES)).names.iterator().next(), random)
+                    : SyntheticNames.name(random);
+            queries[i] = URLEncoder.encode(name, "UTF-8");
+        }
+
+        ScreeningServer server = null;
+        String base;
+        if (args.length > 2)
+            base = args[2];
+        else
+        {
+            server = new ScreeningServer(new Screener(entries), new InetSocketAddress("localhost", 0));
+            server.start();
+            base = "http://localhost:" + server.getPort();
+        }
+
+        // Warm up
+        for (int i = 0; i < 2000; ++i)
+            get(new URL(base + "/screen?name=" + queries[i % QUERIES]));
+
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        Client[] threads = new Client[clients];
+        for (int i = 0; i < clients; ++i)
+        {
+            threads[i] = new Client(base, queries, deadline, latency, failures, i);
+            threads[i].start();
+        }
+        for (Client thread : threads)
+            thread.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("clients=%d requests=%d failures=%d %.0f requests/s client p50=%d us p99=%d us%n",
+                clients, latency.getCount(), failures.get(), latency.getCount() / elapsed,
+                latency.getPercentile(0.5), latency.getPercentile(0.99));
+        System.out.println("server stats: " + new String(get(new URL(base + "/stats")), "UTF-8"));
+        if (server != null)
+            server.stop();
+    }
+}
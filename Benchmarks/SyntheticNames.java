@@ -0,0 +1,70 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of name-like strings built from random syllables, so that trigram statistics resemble real names.
+ */
+public final class SyntheticNames
+{
+    private static final String CONSONANTS = "bcdfghjklmnprstvwyz";
+    private static final String VOWELS = "aeiou";
+    private static final String CODAS = "lmnrsdhk";
+    private static final String[] COUNTRIES = {"Iran", "Iraq", "Syria", "Russia", "Cuba", "Libya", "Yemen", "Sudan"};
+
+    private SyntheticNames()
+    {
+    }
+
+    public static String word(Random random)
+    {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; ++i)
+        {
+            word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            word.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            if (random.nextInt(3) == 0)
+                word.append(CODAS.charAt(random.nextInt(CODAS.length())));
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    public static String name(Random random)
+    {
+        StringBuilder name = new StringBuilder(word(random));
+        int words = 1 + random.nextInt(3);
+        for (int i = 0; i < words; ++i)
+            name.append(' ').append(word(random));
+        return name.toString();
+    }
+
+    /**
+     * Copy of name with one character replaced.
+     */
+    public static String misspell(String name, Random random)
+    {
+        char[] chars = name.toCharArray();
+        chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+        return new String(chars);
+    }
+
+    public static List<SanctionListEntry> entries(int names, Random random)
+    {
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>(names);
+        SanctionListEntry.Builder builder = new SanctionListEntry.Builder();
+        for (int i = 0; i < names; ++i)
+        {
+            builder.addName(name(random));
+            builder.addNationality(COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            builder.addDateOfBirth(Integer.toString(1940 + random.nextInt(60)));
+            entries.add(builder.build());
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,54 @@
+package Benchmarks;
+
+import Parsers.SanctionListEntry;
+import Screening.TrigramIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Query latency of the trigram index for growing numbers of synthetic names.
+ * Run with a large heap, e.g. java -Xmx4g Benchmarks.TrigramIndexBenchmark
+ */
+public class TrigramIndexBenchmark
+{
+    private static final int[] SIZES = {10000, 100000, 1000000};
+    private static final int QUERIES = 20000;
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        for (int size : SIZES)
+        {
+            List<SanctionListEntry> entries = SyntheticNames.entries(size, random);
+
+            long start = System.nanoTime();
+            TrigramIndex index = new TrigramIndex(entries);
+            long build = System.nanoTime() - start;
+
+            String[] queries = new String[QUERIES];
+            for (int i = 0; i < QUERIES; ++i)
+                queries[i] = SyntheticNames.misspell(entries.get(random.nextInt(size)).names.iterator().next(), random);
+
+            // Warm up before measuring
+            for (int i = 0; i < QUERIES; ++i)
+                index.candidateIds(queries[i], TrigramIndex.DEFAULT_SIMILARITY);
+
+            long[] latencies = new long[QUERIES];
+            long candidates = 0;
+            for (int i = 0; i < QUERIES; ++i)
+            {
+                long t = System.nanoTime();
+                candidates += index.candidateIds(queries[i], TrigramIndex.DEFAULT_SIMILARITY).length;
+                latencies[i] = System.nanoTime() - t;
+            }
+            Arrays.sort(latencies);
+
+            System.out.printf("names=%d build=%d ms p50=%.1f us p99=%.1f us mean candidates=%.1f%n",
+                    index.nameCount(), build / 1000000, latencies[QUERIES / 2] / 1000.0,
+                    latencies[QUERIES * 99 / 100] / 1000.0, (double) candidates / QUERIES);
+        }
+    }
+}
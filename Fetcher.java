@@ -1,124 +1,177 @@
-import Parsers.IParser;
+import Fetching.ConcurrentFetcher;
+import Fetching.Configuration;
+import Fetching.DeltaTracker;
+import Fetching.DownloadCache;
+import Fetching.ISourceListener;
+import Merging.EntryDeduplicator;
+import Metrics.IngestMetrics;
+import Metrics.SourceMetrics;
 import Parsers.SanctionListEntry;
+import Storage.SnapshotReader;
+import Storage.SnapshotWriter;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
 public class Fetcher
 {
-    private static final String propertiesFile = "SankcniSeznamy.properties";
-
-    private static LinkedList<SanctionListEntry> parseStream(InputStream stream, IParser parser)
+    /**
+     * Entries of the last snapshot, when there is no usable snapshot all lists are fetched
+     * and a complete fetch is written as the new snapshot.
+     */
+    static Collection<SanctionListEntry> loadEntries(Properties properties)
     {
-        if (stream == null || parser == null)
-            return null;
+        return loadEntries(properties, null);
+    }
 
-        LinkedList<SanctionListEntry> entries = new LinkedList<SanctionListEntry>();
-        try
+    /**
+     * Same as {@link #loadEntries(Properties)}, fetches of the lists are recorded to metrics unless null.
+     */
+    static Collection<SanctionListEntry> loadEntries(Properties properties, IngestMetrics metrics)
+    {
+        File snapshot = properties.getProperty("SNAPSHOT_FILE") == null ? null : new File(properties.getProperty("SNAPSHOT_FILE"));
+        if (snapshot != null && snapshot.exists())
         {
-            parser.initialize(stream);
-
-            SanctionListEntry entry;
-            while ((entry = parser.getNextEntry()) != null)
+            try
+            {
+                return SnapshotReader.open(snapshot).asList();
+            } catch (IOException e)
             {
-                entries.add(entry);
+                System.err.println("Rejected snapshot " + snapshot + ": " + e.getMessage());
             }
-
-            stream.close();
-
-        } catch (IOException e)
-        {
-            System.err.println("IO Exception while reading data source stream: " + e.getMessage() + ", skipping");
-            return null;
         }
 
-        return entries;
+        ConcurrentLinkedQueue<SanctionListEntry> entries = new ConcurrentLinkedQueue<SanctionListEntry>();
+        boolean complete = true;
+        for (ConcurrentFetcher.SourceResult result : createFetcher(properties, metrics).fetch(Configuration.sources(properties), entries))
+            if (result.status != ConcurrentFetcher.Status.OK)
+            {
+                complete = false;
+                System.out.println(result.name + " " + result.status + " after " + result.elapsedMillis + " ms");
+            }
+        Collection<SanctionListEntry> merged = deduplicate(properties, entries);
+        if (complete)
+            writeSnapshot(snapshot, merged);
+        return merged;
     }
 
-    private static LinkedList<SanctionListEntry> parseURL(String url, String parserName)
+    /**
+     * Fetcher configured by PARALLELISM, TIMEOUT, PIPELINE_BUFFERS, PARSE_THREADS and CACHE_DIR, recording to metrics
+     * unless null.
+     */
+    static ConcurrentFetcher createFetcher(Properties properties, IngestMetrics metrics)
     {
-        IParser parser;
-        try
-        {
-            Class c = Class.forName("Parsers." + parserName + ".Parser");
-            parser =  (IParser) c.newInstance();
-        } catch (ClassNotFoundException e)
-        {
-            System.err.println("Parser " + parserName + " not found, skipping");
-            return null;
-        } catch (Exception e)
-        {
-            System.err.println("Parser " + parserName + " exception: " + e.getMessage() + ", skipping");
-            return null;
-        }
+        int parallelism = Integer.parseInt(properties.getProperty("PARALLELISM").trim());
+        long timeout = TimeUnit.SECONDS.toMillis(Long.parseLong(properties.getProperty("TIMEOUT").trim()));
+        ConcurrentFetcher fetcher = new ConcurrentFetcher(parallelism, timeout);
+        if (properties.getProperty("CACHE_DIR") != null)
+            fetcher.setCache(new DownloadCache(new File(properties.getProperty("CACHE_DIR"))));
+        fetcher.setMetrics(metrics);
+        fetcher.setPipelineBuffers(Integer.parseInt(properties.getProperty("PIPELINE_BUFFERS").trim()));
+        fetcher.setParseThreads(Integer.parseInt(properties.getProperty("PARSE_THREADS").trim()));
+        return fetcher;
+    }
 
-        URL dataSource;
-        InputStream stream;
+    /**
+     * Replaces the snapshot unless null, should only be called with entries of every list.
+     */
+    static void writeSnapshot(File snapshot, Collection<SanctionListEntry> entries)
+    {
+        if (snapshot == null)
+            return;
         try
         {
-            dataSource = new URL(url);
-            stream = dataSource.openConnection().getInputStream();
-        } catch (MalformedURLException e)
-        {
-            System.err.println("Supplied malformed URL: " + e.getMessage() + ", skipping");
-            return null;
+            SnapshotWriter.write(snapshot, entries);
+            System.out.println("Snapshot written: " + snapshot);
         } catch (IOException e)
         {
-            System.err.println("IO Exception while opening stream to data source: " + e.getMessage() + ", skipping");
-            return null;
+            System.err.println("IO Exception while writing snapshot: " + e.getMessage());
         }
+    }
 
-        return parseStream(stream, parser);
+    /**
+     * Merges entries listed by several lists unless DEDUPLICATE is false.
+     */
+    static Collection<SanctionListEntry> deduplicate(Properties properties, Collection<SanctionListEntry> entries)
+    {
+        if (!Boolean.parseBoolean(properties.getProperty("DEDUPLICATE").trim()))
+            return entries;
+        long start = System.nanoTime();
+        EntryDeduplicator.Result result = new EntryDeduplicator().deduplicate(entries);
+        System.out.println("Merged: " + entries.size() + " entries into " + result.entries.size() + " ("
+                + result.mergedGroups + " merged groups) in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return result.entries;
     }
 
     public static void main(String[] args)
     {
-        Properties defaultProps = new Properties();
-        defaultProps.setProperty("BIS_URL", "https://api.trade.gov/consolidated_screening_list/search.csv?api_key=OHZYuksFHSFao8jDXTkfiypO");
-        defaultProps.setProperty("BOE_URL", "http://hmt-sanctions.s3.amazonaws.com/sanctionsconlist.csv");
-        defaultProps.setProperty("UN_URL", "https://www.un.org/sc/suborg/sites/www.un.org.sc.suborg/files/consolidated.xml");
-        defaultProps.setProperty("OFAC_URL", "http://www.treasury.gov/ofac/downloads/sdnlist.txt");
-        defaultProps.setProperty("EU_URL", "http://ec.europa.eu/external_relations/cfsp/sanctions/list/version4/global/global.xml");
-
-
-        Properties properties = new Properties(defaultProps);
-        if (!(new File(propertiesFile)).exists())
-            System.out.println("Missing properties file, using default values");
-        else
-            try
+        Properties properties = Configuration.load();
+        File snapshot = properties.getProperty("SNAPSHOT_FILE") == null ? null : new File(properties.getProperty("SNAPSHOT_FILE"));
+        ConcurrentLinkedQueue<SanctionListEntry> entries = new ConcurrentLinkedQueue<SanctionListEntry>();
+
+        LinkedHashMap<String, String> sources = Configuration.sources(properties);
+
+        long start = System.nanoTime();
+        boolean complete = true;
+        IngestMetrics metrics = new IngestMetrics();
+        metrics.registerMBeans();
+        ConcurrentFetcher fetcher = createFetcher(properties, metrics);
+        if (properties.getProperty("DELTA_DIR") != null)
+        {
+            final DeltaTracker tracker = new DeltaTracker(new File(properties.getProperty("DELTA_DIR")));
+            fetcher.addListener(new ISourceListener()
             {
-                FileInputStream reader = new FileInputStream(propertiesFile);
-                properties.load(reader);
-            } catch (IOException e) {
-                System.err.println("Cought exception while loading properties file: " + e.getMessage());
+                @Override
+                public void sourceFetched(String name, List<SanctionListEntry> entries)
+                {
+                    DeltaTracker.Changeset changes = tracker.update(name, entries);
+                    if (changes != null)
+                        System.out.println(name + " Delta: " + changes.added.size() + " added, "
+                                + changes.changed.size() + " changed, " + changes.removed.size() + " removed");
+                }
+            });
+        }
+        for (ConcurrentFetcher.SourceResult result : fetcher.fetch(sources, entries))
+        {
+            SourceMetrics.Fetch fetch = metrics.source(result.name).getLast();
+            if (result.status == ConcurrentFetcher.Status.OK)
+                System.out.println(result.name + " Fetched: " + result.entries + " entries in " + result.elapsedMillis + " ms"
+                        + (result.modified ? "" : " (not modified)") + ", " + fetch.bytes + " bytes, download "
+                        + TimeUnit.NANOSECONDS.toMillis(fetch.downloadNanos) + " ms, parse " + TimeUnit.NANOSECONDS.toMillis(fetch.parseNanos)
+                        + " ms, " + fetch.skipped + " skipped, allocated " + fetch.allocatedBytes / 1024 + " kB");
+            else
+            {
+                complete = false;
+                System.out.println(result.name + " " + result.status + " after " + result.elapsedMillis + " ms");
             }
-        LinkedList<SanctionListEntry> entries = new LinkedList<SanctionListEntry>();
+        }
+
+        System.out.println("Fetched: " + entries.size() + " entries in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        Collection<SanctionListEntry> merged = deduplicate(properties, entries);
 
-        String[] lists = { "BIS", "BOE", "UN", "EU", "OFAC"};
-        for (String list : lists)
+        // Prometheus text for the node exporter textfile collector
+        if (properties.getProperty("METRICS_FILE") != null)
         {
-            String listUrlName = list + "_URL";
-            String listParserName = list + "_Parser";
-            if (properties.getProperty(listUrlName) != null)
+            try
             {
-                LinkedList<SanctionListEntry> e = parseURL(properties.getProperty(listUrlName), listParserName);
-                if (e != null)
-                {
-                    entries.addAll(e);
-                    System.out.println(list + " Fetched: " + e.size() + " entries");
-                }
+                metrics.writePrometheus(new File(properties.getProperty("METRICS_FILE")));
+            } catch (IOException e)
+            {
+                System.err.println("IO Exception while writing metrics: " + e.getMessage());
             }
         }
 
-        System.out.println("Fetched: " + entries.size() + " entries");
+        // Only a refresh of every list replaces the last good snapshot
+        if (complete)
+            writeSnapshot(snapshot, merged);
     }
 }
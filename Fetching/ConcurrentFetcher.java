@@ -0,0 +1,413 @@
+package Fetching;
+
+import Metrics.IngestMetrics;
+import Metrics.SourceMetrics;
+import Parsers.IFileParser;
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches and parses every source on its own task, at most parallelism sources at once.
+ */
+public class ConcurrentFetcher
+{
+    public enum Status
+    {
+        OK, FAILED, TIMED_OUT
+    }
+
+    public static class SourceResult
+    {
+        public final String name;
+        public final Status status;
+        public final int entries;
+        public final long elapsedMillis;
+        /**
+         * False when the payload was served from the download cache. Unmodified payloads are not parsed
+         * when the fetch skips them, such results are OK with no entries.
+         */
+        public final boolean modified;
+
+        public SourceResult(String name, Status status, int entries, long elapsedMillis, boolean modified)
+        {
+            this.name = name;
+            this.status = status;
+            this.entries = entries;
+            this.elapsedMillis = elapsedMillis;
+            this.modified = modified;
+        }
+    }
+
+    private final int parallelism;
+    private final long timeoutMillis;
+    private DownloadCache cache = null;
+    private IngestMetrics metrics = null;
+    private int pipelineBuffers = 0;
+    private final PipelinedInputStream.BufferPool bufferPool = new PipelinedInputStream.BufferPool();
+    private ForkJoinPool parsePool = ForkJoinPool.commonPool();
+    private final List<ISourceListener> listeners = new CopyOnWriteArrayList<ISourceListener>();
+    private ExecutorService sharedWorkers = null;
+    private ScheduledExecutorService sharedWatchdogs = null;
+
+    /**
+     * @param parallelism   maximal number of sources fetched at once
+     * @param timeoutMillis time limit of a single source counted from its start, 0 means no limit
+     */
+    public ConcurrentFetcher(int parallelism, long timeoutMillis)
+    {
+        this.parallelism = Math.max(1, parallelism);
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+    }
+
+    /**
+     * Sources are downloaded through cache when set, null disables caching.
+     */
+    public void setCache(DownloadCache cache)
+    {
+        this.cache = cache;
+    }
+
+    /**
+     * Every fetch is recorded to metrics when set, null disables recording.
+     */
+    public void setMetrics(IngestMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sources are read ahead of the parser into a ring of buffers on a separate thread, 0 disables read-ahead.
+     * The buffers are shared by successive fetches of this fetcher.
+     */
+    public void setPipelineBuffers(int buffers)
+    {
+        this.pipelineBuffers = Math.max(0, buffers);
+    }
+
+    /**
+     * Local copies are split among threads parsing them, shared by all sources, so they add to the fetching
+     * workers only while those wait for the split parse. 0 uses the common fork/join pool.
+     */
+    public void setParseThreads(int threads)
+    {
+        this.parsePool = threads > 0 ? new ForkJoinPool(threads) : ForkJoinPool.commonPool();
+    }
+
+    public void addListener(ISourceListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Keeps worker and watchdog threads between fetches until {@link #shutdown()}, for long-running callers
+     * fetching repeatedly. Parallelism then bounds the sources fetched at once across concurrent fetches.
+     * Without it every fetch starts and stops its own threads.
+     */
+    public synchronized void start()
+    {
+        if (sharedWorkers != null)
+            return;
+        sharedWorkers = Executors.newFixedThreadPool(parallelism);
+        sharedWatchdogs = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    public synchronized void shutdown()
+    {
+        if (sharedWorkers == null)
+            return;
+        sharedWorkers.shutdownNow();
+        sharedWatchdogs.shutdownNow();
+        sharedWorkers = null;
+        sharedWatchdogs = null;
+    }
+
+    /**
+     * Closes the source stream and interrupts the worker once the source runs out of time.
+     */
+    private static class Watchdog implements Runnable
+    {
+        private final Thread worker;
+        private final InputStream stream;
+        private boolean finished = false;
+        private boolean fired = false;
+
+        public Watchdog(Thread worker, InputStream stream)
+        {
+            this.worker = worker;
+            this.stream = stream;
+        }
+
+        @Override
+        public synchronized void run()
+        {
+            if (finished)
+                return;
+            fired = true;
+            worker.interrupt();
+            try
+            {
+                stream.close();
+            } catch (IOException e)
+            {
+                // Worker reports the failure
+            }
+        }
+
+        public synchronized boolean finish()
+        {
+            finished = true;
+            return fired;
+        }
+    }
+
+    private class SourceTask implements Callable<SourceResult>
+    {
+        private final String name;
+        private final String url;
+        private final Collection<SanctionListEntry> sink;
+        private final ScheduledExecutorService watchdogs;
+        private final boolean skipUnmodified;
+
+        public SourceTask(String name, String url, Collection<SanctionListEntry> sink, ScheduledExecutorService watchdogs,
+                          boolean skipUnmodified)
+        {
+            this.name = name;
+            this.url = url;
+            this.sink = sink;
+            this.watchdogs = watchdogs;
+            this.skipUnmodified = skipUnmodified;
+        }
+
+        @Override
+        public SourceResult call()
+        {
+            long start = System.nanoTime();
+            long allocated = allocatedBytes();
+            IParser parser = SourceLoader.createParser(name + "_Parser");
+            if (parser == null)
+                return new SourceResult(name, Status.FAILED, 0, elapsed(start), true);
+
+            int timeout = (int) Math.min(timeoutMillis, Integer.MAX_VALUE);
+            InputStream stream;
+            boolean modified = true;
+            if (cache == null)
+                stream = SourceLoader.openStream(url, timeout);
+            else
+            {
+                DownloadCache.Download download = cache.open(name, url, timeout);
+                stream = download == null ? null : download.stream;
+                modified = download == null || download.modified;
+            }
+            long connectNanos = System.nanoTime() - start;
+            if (stream == null)
+            {
+                record(Status.FAILED, 0, 0, parser, connectNanos, 0, allocated);
+                return new SourceResult(name, Status.FAILED, 0, elapsed(start), modified);
+            }
+            if (!modified && skipUnmodified)
+            {
+                close(stream);
+                return new SourceResult(name, Status.OK, 0, elapsed(start), false);
+            }
+
+            // Parsers able to split a local copy read the file itself instead of the stream
+            File local = parser instanceof IFileParser ? localCopy(modified) : null;
+            MeteredInputStream metered = null;
+            if (local != null)
+                close(stream);
+            else
+            {
+                if (pipelineBuffers > 0)
+                    stream = new PipelinedInputStream(stream, pipelineBuffers, bufferPool);
+                stream = metered = new MeteredInputStream(stream);
+            }
+
+            Watchdog watchdog = new Watchdog(Thread.currentThread(), stream);
+            ScheduledFuture<?> timer = null;
+            List<SanctionListEntry> entries = null;
+            long parseStart = System.nanoTime();
+            boolean timedOut;
+            try
+            {
+                if (timeoutMillis > 0)
+                    timer = watchdogs.schedule(watchdog, timeoutMillis - elapsed(start), TimeUnit.MILLISECONDS);
+                entries = local != null ? SourceLoader.parseFile(local, (IFileParser) parser, parsePool)
+                        : SourceLoader.parseStream(stream, parser);
+            } catch (RuntimeException e)
+            {
+                System.err.println("Parser of " + name + " failed");
+                e.printStackTrace();
+            } finally
+            {
+                timedOut = watchdog.finish();
+                if (timer != null)
+                    timer.cancel(false);
+                Thread.interrupted(); // Clear interrupt of the watchdog before the thread returns to the pool
+                // Stops the read-ahead thread and releases the connection or the partially downloaded file
+                if (local == null)
+                    close(stream);
+            }
+            long readNanos = metered == null ? 0 : metered.getNanos();
+            long parseNanos = System.nanoTime() - parseStart - readNanos;
+
+            Status status = timedOut ? Status.TIMED_OUT : (entries == null ? Status.FAILED : Status.OK);
+            int count = status == Status.OK ? entries.size() : 0;
+            record(status, metered == null ? local.length() : metered.getBytes(), count, parser, connectNanos + readNanos,
+                    parseNanos, allocated);
+            if (status != Status.OK)
+                return new SourceResult(name, status, 0, elapsed(start), modified);
+
+            for (ISourceListener listener : listeners)
+                listener.sourceFetched(name, entries);
+            sink.addAll(entries);
+            return new SourceResult(name, Status.OK, count, elapsed(start), modified);
+        }
+
+        /**
+         * Source url when it is a local file, otherwise the cached payload when it is current.
+         */
+        private File localCopy(boolean modified)
+        {
+            if (cache != null)
+                return modified ? null : cache.getCachedFile(name);
+            if (!url.startsWith("file:"))
+                return null;
+            try
+            {
+                return new File(new URI(url));
+            } catch (URISyntaxException e)
+            {
+                return null;
+            } catch (IllegalArgumentException e)
+            {
+                return null;
+            }
+        }
+
+        private void close(InputStream stream)
+        {
+            try
+            {
+                stream.close();
+            } catch (IOException e)
+            {
+                System.err.println("IO Exception while closing stream of " + name + ": " + e.getMessage());
+            }
+        }
+
+        private void record(Status status, long bytes, int entries, IParser parser, long downloadNanos, long parseNanos,
+                            long allocated)
+        {
+            if (metrics == null)
+                return;
+            metrics.source(name).record(new SourceMetrics.Fetch(status.name(), bytes, entries, parser.getSkippedCount(),
+                    downloadNanos, Math.max(0, parseNanos), allocatedBytes() - allocated));
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread, 0 when the JVM does not count them.
+     */
+    private static long allocatedBytes()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+
+    private static long elapsed(long start)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Fetches all sources and merges their entries into sink as each source completes.
+     *
+     * @param sources list name to url mapping, list name selects the Parsers.[name]_Parser parser
+     * @param sink    thread-safe collection receiving the entries
+     * @return results in order of completion
+     */
+    public List<SourceResult> fetch(Map<String, String> sources, Collection<SanctionListEntry> sink)
+    {
+        return fetch(sources, sink, false);
+    }
+
+    /**
+     * Same as {@link #fetch(Map, Collection)}, sources whose cached payload is still current are not parsed
+     * when skipUnmodified is set. Changes are only detected with the download cache.
+     */
+    public List<SourceResult> fetch(Map<String, String> sources, Collection<SanctionListEntry> sink, boolean skipUnmodified)
+    {
+        ExecutorService workers;
+        ScheduledExecutorService watchdogs;
+        boolean shared;
+        synchronized (this)
+        {
+            shared = sharedWorkers != null;
+            workers = shared ? sharedWorkers : Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, sources.size())));
+            watchdogs = shared ? sharedWatchdogs : Executors.newSingleThreadScheduledExecutor();
+        }
+        CompletionService<SourceResult> completion = new ExecutorCompletionService<SourceResult>(workers);
+
+        List<Future<SourceResult>> tasks = new ArrayList<Future<SourceResult>>();
+        for (Map.Entry<String, String> source : sources.entrySet())
+            tasks.add(completion.submit(new SourceTask(source.getKey(), source.getValue(), sink, watchdogs, skipUnmodified)));
+
+        List<SourceResult> results = new ArrayList<SourceResult>();
+        try
+        {
+            for (int i = 0; i < sources.size(); ++i)
+            {
+                try
+                {
+                    results.add(completion.take().get());
+                } catch (ExecutionException e)
+                {
+                    System.err.println("Source task failed: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        } finally
+        {
+            if (shared)
+            {
+                // Tasks left behind by an interrupted fetch must not hold the shared workers
+                for (Future<SourceResult> task : tasks)
+                    task.cancel(true);
+            }
+            else
+            {
+                workers.shutdownNow();
+                watchdogs.shutdownNow();
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,93 @@
+package Fetching;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings shared by the command line tools, read from {@link #FILE} over built-in defaults.
+ */
+public final class Configuration
+{
+    public static final String FILE = "SankcniSeznamy.properties";
+
+    /**
+     * Names of the supported lists, every list is parsed by Parsers.&lt;name&gt;_Parser.
+     */
+    public static final String[] LISTS = {"BIS", "BOE", "UN", "EU", "OFAC"};
+
+    private Configuration()
+    {
+    }
+
+    public static Properties load()
+    {
+        Properties defaultProps = new Properties();
+        defaultProps.setProperty("BIS_URL", "https://api.trade.gov/consolidated_screening_list/search.csv?api_key=OHZYuksFHSFao8jDXTkfiypO");
+        defaultProps.setProperty("BOE_URL", "http://hmt-sanctions.s3.amazonaws.com/sanctionsconlist.csv");
+        defaultProps.setProperty("UN_URL", "https://www.un.org/sc/suborg/sites/www.un.org.sc.suborg/files/consolidated.xml");
+        defaultProps.setProperty("OFAC_URL", "http://www.treasury.gov/ofac/downloads/sdnlist.txt");
+        defaultProps.setProperty("EU_URL", "http://ec.europa.eu/external_relations/cfsp/sanctions/list/version4/global/global.xml");
+        defaultProps.setProperty("PARALLELISM", "5");
+        defaultProps.setProperty("TIMEOUT", "300");
+        defaultProps.setProperty("DEDUPLICATE", "true");
+        defaultProps.setProperty("SERVER_PORT", "8080");
+        defaultProps.setProperty("SCREEN_CACHE_SIZE", "100000");
+        defaultProps.setProperty("REFRESH_INTERVAL", "0");
+        defaultProps.setProperty("FETCH_INTERVAL", "3600");
+        defaultProps.setProperty("FETCH_RETRY", "60");
+        defaultProps.setProperty("FETCH_JITTER", "0.1");
+        defaultProps.setProperty("PIPELINE_BUFFERS", "0");
+        // Threads parsing local copies of lists split into chunks, 0 uses the common fork/join pool
+        defaultProps.setProperty("PARSE_THREADS", "0");
+
+
+        Properties properties = new Properties(defaultProps);
+        if (!(new File(FILE)).exists())
+            System.out.println("Missing properties file, using default values");
+        else
+            try
+            {
+                FileInputStream reader = new FileInputStream(FILE);
+                properties.load(reader);
+            } catch (IOException e) {
+                System.err.println("Cought exception while loading properties file: " + e.getMessage());
+            }
+        return properties;
+    }
+
+    /**
+     * Configured list URLs keyed by list name, in the order of {@link #LISTS}.
+     */
+    public static LinkedHashMap<String, String> sources(Properties properties)
+    {
+        LinkedHashMap<String, String> sources = new LinkedHashMap<String, String>();
+        for (String list : LISTS)
+        {
+            String listUrlName = list + "_URL";
+            if (properties.getProperty(listUrlName) != null)
+                sources.put(list, properties.getProperty(listUrlName));
+        }
+        return sources;
+    }
+
+    /**
+     * Refresh interval of every configured list in milliseconds, &lt;name&gt;_FETCH_INTERVAL
+     * in seconds overrides FETCH_INTERVAL.
+     */
+    public static LinkedHashMap<String, Long> intervals(Properties properties)
+    {
+        LinkedHashMap<String, Long> intervals = new LinkedHashMap<String, Long>();
+        long interval = Long.parseLong(properties.getProperty("FETCH_INTERVAL").trim());
+        for (String list : sources(properties).keySet())
+        {
+            String value = properties.getProperty(list + "_FETCH_INTERVAL");
+            long seconds = value == null ? interval : Long.parseLong(value.trim());
+            intervals.put(list, TimeUnit.SECONDS.toMillis(Math.max(1, seconds)));
+        }
+        return intervals;
+    }
+}
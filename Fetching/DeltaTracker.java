@@ -0,0 +1,256 @@
+package Fetching;
+
+import Parsers.SanctionListEntry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares entries of a source with fingerprints persisted by the previous run.
+ * Entries are identified by the id their list assigns them, entries of lists without ids by their names.
+ * The content fingerprint covers every field.
+ */
+public class DeltaTracker
+{
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int HASH_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+
+    public static class Changeset
+    {
+        public final List<SanctionListEntry> added = new ArrayList<SanctionListEntry>();
+        public final List<SanctionListEntry> changed = new ArrayList<SanctionListEntry>();
+        /**
+         * Identity and fingerprint of removed entries separated by a space.
+         */
+        public final List<String> removed = new ArrayList<String>();
+
+        public boolean isEmpty()
+        {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    public DeltaTracker(File directory)
+    {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs())
+            System.err.println("Unable to create delta directory " + directory);
+    }
+
+    private static MessageDigest digest()
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, Collection<String> values)
+    {
+        String[] sorted = values.toArray(new String[values.size()]);
+        Arrays.sort(sorted);
+        for (String value : sorted)
+        {
+            digest.update(value.getBytes(UTF8));
+            digest.update((byte) 0);
+        }
+        digest.update((byte) 1);
+    }
+
+    private static String toHex(byte[] hash)
+    {
+        char[] out = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; ++i)
+        {
+            out[2 * i] = HEX[(hash[i] >> 4) & 0xf];
+            out[2 * i + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Stable hash of the entry id, or of the names when the entry has no id, identifies the entry between runs.
+     * Renamed entries with an id are reported as changed.
+     */
+    public static String identity(SanctionListEntry entry)
+    {
+        MessageDigest digest = digest();
+        if (entry.id != null)
+        {
+            // Keeps ids apart from names
+            digest.update((byte) 2);
+            digest.update(entry.id.getBytes(UTF8));
+        }
+        else
+            update(digest, entry.names);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Stable hash of names, addresses, nationalities, places and dates of birth.
+     */
+    public static String fingerprint(SanctionListEntry entry)
+    {
+        MessageDigest digest = digest();
+        update(digest, entry.names);
+        update(digest, entry.addresses);
+        update(digest, entry.nationalities);
+        update(digest, entry.placesOfBirth);
+        update(digest, entry.datesOfBirth);
+        return toHex(digest.digest());
+    }
+
+    private File snapshotFile(String source)
+    {
+        return new File(directory, source + ".fingerprints");
+    }
+
+    private Map<String, List<String>> load(String source) throws IOException
+    {
+        Map<String, List<String>> snapshot = new HashMap<String, List<String>>();
+        File file = snapshotFile(source);
+        if (!file.exists())
+            return snapshot;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8));
+        try
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                int separator = line.indexOf(' ');
+                if (separator < 0)
+                    continue;
+                String identity = line.substring(0, separator);
+                List<String> fingerprints = snapshot.get(identity);
+                if (fingerprints == null)
+                    snapshot.put(identity, fingerprints = new LinkedList<String>());
+                fingerprints.add(line.substring(separator + 1));
+            }
+        } finally
+        {
+            reader.close();
+        }
+        return snapshot;
+    }
+
+    private void store(String source, List<String> lines) throws IOException
+    {
+        File file = snapshotFile(source);
+        File temporary = new File(directory, source + ".fingerprints.part");
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporary), UTF8));
+        try
+        {
+            for (String line : lines)
+            {
+                writer.write(line);
+                writer.newLine();
+            }
+        } finally
+        {
+            writer.close();
+        }
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Computes changes of source since the previous call and persists fingerprints of entries.
+     * Entries with equal identity are paired by fingerprint first, the rest is reported as changed,
+     * added or removed.
+     *
+     * @return changeset, null when the previous snapshot could not be read or the new one stored
+     */
+    public Changeset update(String source, Collection<SanctionListEntry> entries)
+    {
+        Map<String, List<String>> previous;
+        try
+        {
+            previous = load(source);
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading fingerprints of " + source + ": " + e.getMessage());
+            return null;
+        }
+
+        Changeset changeset = new Changeset();
+        Map<String, List<SanctionListEntry>> unmatched = new HashMap<String, List<SanctionListEntry>>();
+        List<String> lines = new ArrayList<String>(entries.size());
+        for (SanctionListEntry entry : entries)
+        {
+            String identity = identity(entry);
+            String fingerprint = fingerprint(entry);
+            lines.add(identity + " " + fingerprint);
+
+            List<String> fingerprints = previous.get(identity);
+            if (fingerprints != null && fingerprints.remove(fingerprint))
+                continue;
+
+            List<SanctionListEntry> pending = unmatched.get(identity);
+            if (pending == null)
+                unmatched.put(identity, pending = new LinkedList<SanctionListEntry>());
+            pending.add(entry);
+        }
+
+        for (Map.Entry<String, List<SanctionListEntry>> pending : unmatched.entrySet())
+        {
+            List<String> fingerprints = previous.get(pending.getKey());
+            for (SanctionListEntry entry : pending.getValue())
+            {
+                if (fingerprints != null && !fingerprints.isEmpty())
+                {
+                    fingerprints.remove(0);
+                    changeset.changed.add(entry);
+                }
+                else
+                    changeset.added.add(entry);
+            }
+        }
+
+        for (Map.Entry<String, List<String>> rest : previous.entrySet())
+        {
+            for (String fingerprint : rest.getValue())
+                changeset.removed.add(rest.getKey() + " " + fingerprint);
+        }
+
+        try
+        {
+            store(source, lines);
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while storing fingerprints of " + source + ": " + e.getMessage());
+            return null;
+        }
+        return changeset;
+    }
+}
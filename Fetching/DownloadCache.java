@@ -0,0 +1,281 @@
+package Fetching;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local copy of the raw payload of every source, revalidated with conditional requests.
+ */
+public class DownloadCache
+{
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String URL = "URL";
+    private static final String LENGTH = "Length";
+
+    private final File directory;
+
+    public static class Download
+    {
+        public final InputStream stream;
+        /**
+         * False when the server answered 304 and the stream reads the cached copy.
+         */
+        public final boolean modified;
+
+        public Download(InputStream stream, boolean modified)
+        {
+            this.stream = stream;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * Copies the payload into a temporary file while it is read, the copy replaces
+     * the cached payload only when the whole stream was read.
+     */
+    private class CachingInputStream extends FilterInputStream
+    {
+        private final String name;
+        private final File temporary;
+        private final OutputStream copy;
+        private final Properties metadata;
+        private boolean eof = false;
+        private boolean closed = false;
+
+        public CachingInputStream(InputStream in, String name, Properties metadata) throws IOException
+        {
+            super(in);
+            this.name = name;
+            this.metadata = metadata;
+            this.temporary = File.createTempFile(name + "-", ".part", directory);
+            this.copy = new FileOutputStream(temporary);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = in.read();
+            if (b < 0)
+                eof = true;
+            else
+                copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int read = in.read(b, off, len);
+            if (read < 0)
+                eof = true;
+            else
+                copy.write(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int read = read(buffer, 0, buffer.length);
+            return read < 0 ? 0 : read;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            synchronized (this)
+            {
+                if (closed)
+                    return;
+                closed = true;
+            }
+            try
+            {
+                in.close();
+            } finally
+            {
+                copy.close();
+                if (eof)
+                    commit(name, temporary, metadata);
+                else if (!temporary.delete())
+                    temporary.deleteOnExit();
+            }
+        }
+    }
+
+    public DownloadCache(File directory)
+    {
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs())
+            System.err.println("Unable to create cache directory " + directory);
+    }
+
+    private File payloadFile(String name)
+    {
+        return new File(directory, name + ".data");
+    }
+
+    private File metadataFile(String name)
+    {
+        return new File(directory, name + ".properties");
+    }
+
+    private Properties loadMetadata(String name)
+    {
+        Properties metadata = new Properties();
+        File file = metadataFile(name);
+        if (!file.exists() || !payloadFile(name).exists())
+            return metadata;
+        try
+        {
+            FileInputStream stream = new FileInputStream(file);
+            try
+            {
+                metadata.load(stream);
+            } finally
+            {
+                stream.close();
+            }
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading cache metadata of " + name + ": " + e.getMessage());
+        }
+        return metadata;
+    }
+
+    private static void replace(File source, File target) throws IOException
+    {
+        try
+        {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Metadata of the previous payload is removed before the payload is replaced and the new metadata is
+     * renamed into place only afterwards, a crash in between leaves a payload without validators which
+     * is downloaded again instead of a payload revalidated by validators of another one.
+     */
+    private void commit(String name, File temporary, Properties metadata) throws IOException
+    {
+        File metadataFile = metadataFile(name);
+        File metadataTemporary = new File(directory, name + ".properties.part");
+        FileOutputStream stream = new FileOutputStream(metadataTemporary);
+        try
+        {
+            metadata.store(stream, name + " cache metadata");
+        } finally
+        {
+            stream.close();
+        }
+
+        Files.deleteIfExists(metadataFile.toPath());
+        replace(temporary, payloadFile(name));
+        replace(metadataTemporary, metadataFile);
+    }
+
+    /**
+     * Local copy of the last complete payload of the source, null when there is none.
+     */
+    public File getCachedFile(String name)
+    {
+        File payload = payloadFile(name);
+        return payload.exists() ? payload : null;
+    }
+
+    /**
+     * Sources without conditional requests (file:, ftp:) are revalidated by their modification time and length.
+     */
+    private Download openLocal(String name, String url, URLConnection connection) throws IOException
+    {
+        Properties cached = loadMetadata(name);
+        long lastModified = connection.getLastModified();
+        String length = Long.toString(connection.getContentLengthLong());
+        if (lastModified > 0 && url.equals(cached.getProperty(URL)) && Long.toString(lastModified).equals(cached.getProperty(LAST_MODIFIED))
+                && length.equals(cached.getProperty(LENGTH)))
+        {
+            connection.getInputStream().close();
+            return new Download(new FileInputStream(payloadFile(name)), false);
+        }
+
+        Properties metadata = new Properties();
+        metadata.setProperty(URL, url);
+        metadata.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+        metadata.setProperty(LENGTH, length);
+        return new Download(new CachingInputStream(connection.getInputStream(), name, metadata), true);
+    }
+
+    /**
+     * Opens source, the cached payload is reused when the server reports it unchanged.
+     * Timeout in milliseconds applies to connecting and to every blocking read, 0 means no timeout.
+     */
+    public Download open(String name, String url, int timeout)
+    {
+        try
+        {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            if (!(connection instanceof HttpURLConnection))
+                return openLocal(name, url, connection);
+
+            HttpURLConnection http = (HttpURLConnection) connection;
+            Properties cached = loadMetadata(name);
+            if (url.equals(cached.getProperty(URL)))
+            {
+                if (cached.getProperty(ETAG) != null)
+                    http.setRequestProperty("If-None-Match", cached.getProperty(ETAG));
+                if (cached.getProperty(LAST_MODIFIED) != null)
+                    http.setRequestProperty("If-Modified-Since", cached.getProperty(LAST_MODIFIED));
+            }
+            http.setRequestProperty("Accept-Encoding", "gzip");
+
+            if (http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && url.equals(cached.getProperty(URL)))
+            {
+                http.disconnect();
+                return new Download(new FileInputStream(payloadFile(name)), false);
+            }
+
+            InputStream body = http.getInputStream();
+            if ("gzip".equalsIgnoreCase(http.getContentEncoding()))
+                body = new GZIPInputStream(body);
+
+            Properties metadata = new Properties();
+            metadata.setProperty(URL, url);
+            if (http.getHeaderField("ETag") != null)
+                metadata.setProperty(ETAG, http.getHeaderField("ETag"));
+            if (http.getHeaderField("Last-Modified") != null)
+                metadata.setProperty(LAST_MODIFIED, http.getHeaderField("Last-Modified"));
+
+            return new Download(new CachingInputStream(body, name, metadata), true);
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while opening stream to data source: " + e.getMessage() + ", skipping");
+        }
+        return null;
+    }
+}
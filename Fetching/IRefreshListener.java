@@ -0,0 +1,11 @@
+package Fetching;
+
+public interface IRefreshListener
+{
+    /**
+     * Called on the refresh thread after every refresh attempt of source, successful or not.
+     *
+     * @param result result of the fetch, null when the fetch itself failed
+     */
+    void refreshAttempted(String name, ConcurrentFetcher.SourceResult result);
+}
@@ -0,0 +1,13 @@
+package Fetching;
+
+import Parsers.SanctionListEntry;
+
+import java.util.List;
+
+public interface ISourceListener
+{
+    /**
+     * Called on the worker thread once source was parsed completely, before its entries are merged.
+     */
+    void sourceFetched(String name, List<SanctionListEntry> entries);
+}
@@ -0,0 +1,79 @@
+package Fetching;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts bytes read from the wrapped stream and the time spent blocked in its reads.
+ */
+class MeteredInputStream extends FilterInputStream
+{
+    private long bytes = 0;
+    private long nanos = 0;
+
+    public MeteredInputStream(InputStream in)
+    {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            int b = super.read();
+            if (b >= 0)
+                ++bytes;
+            return b;
+        } finally
+        {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            int read = super.read(b, off, len);
+            if (read > 0)
+                bytes += read;
+            return read;
+        } finally
+        {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            long skipped = super.skip(n);
+            bytes += skipped;
+            return skipped;
+        } finally
+        {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Only the reading thread may call the getters.
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    public long getNanos()
+    {
+        return nanos;
+    }
+}
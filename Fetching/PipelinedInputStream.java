@@ -0,0 +1,240 @@
+package Fetching;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the source on its own thread into a bounded ring of direct buffers, so waiting for the network
+ * overlaps with parsing on the consuming thread. The reader stops once all buffers are full until the
+ * consumer catches up. Local files are read through their FileChannel.
+ * <p>
+ * Buffers come from a {@link BufferPool} and go back to it once the stream is closed and its reader stopped,
+ * so repeated fetches reuse the same direct memory.
+ */
+public class PipelinedInputStream extends InputStream
+{
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    /**
+     * Marks the end of the source in the queue of filled buffers.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * Direct buffers of {@link #BUFFER_SIZE} bytes reused by successive streams.
+     */
+    public static class BufferPool
+    {
+        private final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+        private final AtomicInteger allocated = new AtomicInteger();
+
+        private ByteBuffer take()
+        {
+            ByteBuffer buffer = buffers.poll();
+            if (buffer != null)
+                return buffer;
+            allocated.incrementAndGet();
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        private void give(ByteBuffer buffer)
+        {
+            buffers.offer(buffer);
+        }
+
+        /**
+         * Number of buffers ever allocated, the most streams open at once times their buffers.
+         */
+        public int getAllocated()
+        {
+            return allocated.get();
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final BufferPool pool;
+    private final ByteBuffer[] ring;
+    /**
+     * The reader and the consumer each hold the ring until they are done with it.
+     */
+    private final AtomicInteger holders = new AtomicInteger(2);
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread reader;
+    private volatile IOException failure = null;
+    private volatile boolean closed = false;
+    private ByteBuffer current = null;
+    private boolean eof = false;
+
+    /**
+     * @param stream  source, closed together with this stream
+     * @param buffers number of buffers of {@link #BUFFER_SIZE} bytes in the ring, at least 2
+     */
+    public PipelinedInputStream(InputStream stream, int buffers)
+    {
+        this(stream, buffers, new BufferPool());
+    }
+
+    /**
+     * @param stream  source, closed together with this stream
+     * @param buffers number of buffers of {@link #BUFFER_SIZE} bytes in the ring, at least 2
+     * @param pool    pool the buffers are taken from and returned to
+     */
+    public PipelinedInputStream(InputStream stream, int buffers, BufferPool pool)
+    {
+        this.channel = stream instanceof FileInputStream ? ((FileInputStream) stream).getChannel() : Channels.newChannel(stream);
+        this.pool = pool;
+        buffers = Math.max(2, buffers);
+        this.ring = new ByteBuffer[buffers];
+        this.free = new ArrayBlockingQueue<ByteBuffer>(buffers);
+        // One extra slot for the end marker
+        this.filled = new ArrayBlockingQueue<ByteBuffer>(buffers + 1);
+        for (int i = 0; i < buffers; ++i)
+        {
+            ring[i] = pool.take();
+            // The stream works on views, a consumer closed by another thread may still read its view of a reused buffer
+            free.add(ring[i].duplicate());
+        }
+
+        reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                fill();
+            }
+        }, "source-reader-" + THREADS.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void fill()
+    {
+        try
+        {
+            while (!closed)
+            {
+                ByteBuffer buffer = free.take();
+                buffer.clear();
+                // A single read per buffer, a slow source hands over whatever arrived
+                int read = channel.read(buffer);
+                if (read < 0)
+                    break;
+                buffer.flip();
+                if (buffer.hasRemaining())
+                    filled.put(buffer);
+                else
+                    free.put(buffer);
+            }
+        } catch (IOException e)
+        {
+            if (!closed)
+                failure = e;
+        } catch (InterruptedException e)
+        {
+            // Closed by the consumer
+        }
+        filled.offer(END);
+        release();
+    }
+
+    /**
+     * Returns the ring to the pool once neither the reader nor the consumer uses it.
+     */
+    private void release()
+    {
+        if (holders.decrementAndGet() != 0)
+            return;
+        for (ByteBuffer buffer : ring)
+            pool.give(buffer);
+    }
+
+    /**
+     * Next buffer with data, null at the end of the source.
+     */
+    private ByteBuffer next() throws IOException
+    {
+        if (current != null && current.hasRemaining())
+            return current;
+        if (eof)
+            return null;
+        if (current != null)
+            free.offer(current);
+        try
+        {
+            current = filled.take();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the source");
+        }
+        if (current == END)
+        {
+            current = null;
+            eof = true;
+            if (failure != null)
+                throw failure;
+            if (closed)
+                throw new IOException("Stream closed");
+            return null;
+        }
+        return current;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        if (closed)
+            throw new IOException("Stream closed");
+        ByteBuffer buffer = next();
+        return buffer == null ? -1 : buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (closed)
+            throw new IOException("Stream closed");
+        if (len == 0)
+            return 0;
+        ByteBuffer buffer = next();
+        if (buffer == null)
+            return -1;
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available()
+    {
+        ByteBuffer buffer = current;
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (closed)
+            return;
+        closed = true;
+        reader.interrupt();
+        try
+        {
+            channel.close();
+        } finally
+        {
+            release();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package Fetching;
+
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the entries of every source resident and refreshes each source on its own interval.
+ * <p>
+ * Next refresh is the interval of the source randomized by &plusmn;jitter, so sources with equal intervals
+ * do not hit the network together. A failed refresh is retried after the retry delay doubled with every
+ * further failure, at most after the interval, the previous entries of the source are kept meanwhile.
+ * Once a source is loaded its payload is parsed again only when the download cache reports it changed.
+ */
+public class RefreshScheduler
+{
+    private final ConcurrentFetcher fetcher;
+    private final LinkedHashMap<String, String> sources;
+    private final Map<String, Long> intervals;
+    private final long retryMillis;
+    private final double jitter;
+    private final ScheduledExecutorService executor;
+    private final ConcurrentHashMap<String, List<SanctionListEntry>> entries = new ConcurrentHashMap<String, List<SanctionListEntry>>();
+    private final ConcurrentHashMap<String, AtomicInteger> failures = new ConcurrentHashMap<String, AtomicInteger>();
+    private final List<ISourceListener> listeners = new CopyOnWriteArrayList<ISourceListener>();
+    private final List<IRefreshListener> refreshListeners = new CopyOnWriteArrayList<IRefreshListener>();
+
+    /**
+     * @param fetcher     fetcher of single sources, should download through a cache to detect unchanged payloads
+     * @param sources     list name to url mapping
+     * @param intervals   refresh interval of every source in milliseconds
+     * @param retryMillis delay before the first retry of a failed source
+     * @param jitter      fraction of the interval the next refresh is randomly moved by, 0 to 1
+     * @param parallelism maximal number of sources refreshed at once
+     */
+    public RefreshScheduler(ConcurrentFetcher fetcher, Map<String, String> sources, Map<String, Long> intervals,
+                            long retryMillis, double jitter, int parallelism)
+    {
+        this.fetcher = fetcher;
+        this.sources = new LinkedHashMap<String, String>(sources);
+        this.intervals = new LinkedHashMap<String, Long>(intervals);
+        this.retryMillis = Math.max(1, retryMillis);
+        this.jitter = Math.max(0, Math.min(1, jitter));
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, parallelism), new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                return new Thread(r, "source-refresh-" + count.incrementAndGet());
+            }
+        });
+        for (String name : this.sources.keySet())
+            failures.put(name, new AtomicInteger());
+    }
+
+    /**
+     * Listeners are called with all entries of a source whenever they were replaced.
+     */
+    public void addListener(ISourceListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Refresh listeners are called after every refresh attempt, including unchanged and failed ones.
+     */
+    public void addRefreshListener(IRefreshListener listener)
+    {
+        refreshListeners.add(listener);
+    }
+
+    /**
+     * Loads every source right away and keeps refreshing them until {@link #stop()}.
+     */
+    public void start()
+    {
+        for (String name : sources.keySet())
+            schedule(name, 0);
+    }
+
+    public void stop()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * True once every source was loaded at least once.
+     */
+    public boolean isComplete()
+    {
+        return entries.size() == sources.size();
+    }
+
+    /**
+     * Current entries of all loaded sources, in source order.
+     */
+    public List<SanctionListEntry> getEntries()
+    {
+        List<SanctionListEntry> out = new ArrayList<SanctionListEntry>();
+        for (String name : sources.keySet())
+        {
+            List<SanctionListEntry> source = entries.get(name);
+            if (source != null)
+                out.addAll(source);
+        }
+        return out;
+    }
+
+    private void schedule(final String name, long delayMillis)
+    {
+        if (executor.isShutdown())
+            return;
+        executor.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                long next;
+                try
+                {
+                    next = refresh(name);
+                } catch (RuntimeException e)
+                {
+                    e.printStackTrace();
+                    next = retryDelay(name, failures.get(name).incrementAndGet());
+                    attempted(name, null);
+                }
+                schedule(name, next);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fetches the source once, returns the delay of its next refresh.
+     */
+    private long refresh(String name)
+    {
+        boolean loaded = entries.containsKey(name);
+        ConcurrentLinkedQueue<SanctionListEntry> sink = new ConcurrentLinkedQueue<SanctionListEntry>();
+        List<ConcurrentFetcher.SourceResult> results = fetcher.fetch(Collections.singletonMap(name, sources.get(name)), sink, loaded);
+        ConcurrentFetcher.SourceResult result = results.isEmpty() ? null : results.get(0);
+        if (result == null || result.status != ConcurrentFetcher.Status.OK)
+        {
+            int failed = failures.get(name).incrementAndGet();
+            long delay = retryDelay(name, failed);
+            System.out.println(name + " " + (result == null ? "FAILED" : result.status + " after " + result.elapsedMillis + " ms")
+                    + ", retry " + failed + " in " + TimeUnit.MILLISECONDS.toSeconds(delay) + " s");
+            attempted(name, result);
+            return delay;
+        }
+
+        failures.get(name).set(0);
+        if (loaded && !result.modified)
+            System.out.println(name + " Not modified, checked in " + result.elapsedMillis + " ms");
+        else
+        {
+            List<SanctionListEntry> fetched = Collections.unmodifiableList(new ArrayList<SanctionListEntry>(sink));
+            entries.put(name, fetched);
+            System.out.println(name + " Refreshed: " + fetched.size() + " entries in " + result.elapsedMillis + " ms");
+            for (ISourceListener listener : listeners)
+                listener.sourceFetched(name, fetched);
+        }
+        attempted(name, result);
+        return jittered(intervals.get(name));
+    }
+
+    /**
+     * Failing refresh listeners must not stop the refreshes of the source.
+     */
+    private void attempted(String name, ConcurrentFetcher.SourceResult result)
+    {
+        for (IRefreshListener listener : refreshListeners)
+        {
+            try
+            {
+                listener.refreshAttempted(name, result);
+            } catch (RuntimeException e)
+            {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Delay before the next attempt of a source that failed the given number of times in a row.
+     */
+    public long retryDelay(String name, int failed)
+    {
+        long delay = retryMillis << Math.min(failed - 1, 30);
+        return jittered(Math.min(delay, intervals.get(name)));
+    }
+
+    private long jittered(long millis)
+    {
+        if (jitter == 0)
+            return millis;
+        return Math.max(0, (long) (millis * (1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1))));
+    }
+}
@@ -0,0 +1,137 @@
+package Fetching;
+
+import Parsers.IFileParser;
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class SourceLoader
+{
+    public static IParser createParser(String parserName)
+    {
+        try
+        {
+            Class c = Class.forName("Parsers." + parserName + ".Parser");
+            return (IParser) c.newInstance();
+        } catch (ClassNotFoundException e)
+        {
+            System.err.println("Parser " + parserName + " not found, skipping");
+        } catch (Exception e)
+        {
+            System.err.println("Parser " + parserName + " exception: " + e.getMessage() + ", skipping");
+        }
+        return null;
+    }
+
+    /**
+     * Opens stream to the data source, timeout in milliseconds applies to connecting
+     * and to every blocking read, 0 means no timeout.
+     */
+    public static InputStream openStream(String url, int timeout)
+    {
+        try
+        {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            return connection.getInputStream();
+        } catch (MalformedURLException e)
+        {
+            System.err.println("Supplied malformed URL: " + e.getMessage() + ", skipping");
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while opening stream to data source: " + e.getMessage() + ", skipping");
+        }
+        return null;
+    }
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Drains parser into a list, parsing stops early when the current thread is interrupted.
+     * Data left in the stream after the last entry is read out, so that caching streams see its end.
+     */
+    public static List<SanctionListEntry> parseStream(InputStream stream, IParser parser)
+    {
+        if (stream == null || parser == null)
+            return null;
+
+        ArrayList<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        try
+        {
+            parser.initialize(stream);
+
+            List<SanctionListEntry> batch;
+            while (!(batch = parser.nextBatch(BATCH_SIZE)).isEmpty())
+            {
+                if (Thread.currentThread().isInterrupted())
+                {
+                    stream.close();
+                    return null;
+                }
+                entries.addAll(batch);
+            }
+
+            try
+            {
+                byte[] rest = new byte[8192];
+                while (stream.read(rest) >= 0)
+                    ;
+            } catch (IOException e)
+            {
+                // Some parsers close the stream themselves once they reach its end
+            }
+            stream.close();
+
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading data source stream: " + e.getMessage() + ", skipping");
+            return null;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Parses a local copy of the source on pool, returns null when it cannot be read.
+     */
+    public static List<SanctionListEntry> parseFile(File file, IFileParser parser, ForkJoinPool pool)
+    {
+        ArrayList<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        try
+        {
+            parser.initialize(file, pool);
+
+            List<SanctionListEntry> batch;
+            while (!(batch = parser.nextBatch(BATCH_SIZE)).isEmpty())
+            {
+                if (Thread.currentThread().isInterrupted())
+                    return null;
+                entries.addAll(batch);
+            }
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading data source file " + file + ": " + e.getMessage() + ", skipping");
+            return null;
+        }
+        return entries;
+    }
+
+    public static List<SanctionListEntry> parseURL(String url, String parserName)
+    {
+        IParser parser = createParser(parserName);
+        if (parser == null)
+            return null;
+
+        return parseStream(openStream(url, 0), parser);
+    }
+}
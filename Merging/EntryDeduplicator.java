@@ -0,0 +1,318 @@
+package Merging;
+
+import Parsers.SanctionListEntry;
+import Screening.CountryCodes;
+import Screening.DatesOfBirth;
+import Screening.NameKeys;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges entries of different lists describing the same person or organization.
+ * <p>
+ * Entries are only compared within blocks sharing a name token and a year of birth, entries without a date
+ * of birth are added to every block of their name tokens, so the work grows with the number of entries instead
+ * of its square. Two entries are merged when any of their names reach the token similarity threshold, and only
+ * when they come from different lists. Merges are vetoed when both sides have years of birth, or both have
+ * nationalities, and these do not overlap. The merged entry keeps all values and the sources of every merged entry.
+ */
+public class EntryDeduplicator
+{
+    public static final double DEFAULT_SIMILARITY = 0.8;
+
+    /**
+     * Blocks larger than this are made of tokens too common to tell entries apart and are skipped.
+     */
+    public static final int MAX_BLOCK = 100;
+
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    /**
+     * Legal forms spelled differently by every list, they are ignored when names are compared.
+     */
+    private static final Set<String> LEGAL_FORMS = new HashSet<String>(Arrays.asList(
+            "ltd", "limited", "llc", "inc", "incorporated", "co", "company", "corp", "corporation",
+            "gmbh", "ag", "sa", "sarl", "srl", "spa", "bv", "nv", "plc", "jsc", "ojsc", "cjsc", "pjsc", "ooo", "zao", "oao"));
+
+    private static final String NO_YEAR = "-";
+    private static final Set<String> NONE = Collections.emptySet();
+
+    private final double minSimilarity;
+
+    public static class Result
+    {
+        public final List<SanctionListEntry> entries;
+        /**
+         * Number of output entries made of more than one input entry.
+         */
+        public final int mergedGroups;
+        public final long comparisons;
+        public final int skippedBlocks;
+
+        public Result(List<SanctionListEntry> entries, int mergedGroups, long comparisons, int skippedBlocks)
+        {
+            this.entries = entries;
+            this.mergedGroups = mergedGroups;
+            this.comparisons = comparisons;
+            this.skippedBlocks = skippedBlocks;
+        }
+    }
+
+    public EntryDeduplicator()
+    {
+        this(DEFAULT_SIMILARITY);
+    }
+
+    public EntryDeduplicator(double minSimilarity)
+    {
+        this.minSimilarity = minSimilarity;
+    }
+
+    /**
+     * Distinct years of birth of entry, see {@link DatesOfBirth}.
+     */
+    static Set<String> birthYears(SanctionListEntry entry)
+    {
+        if (entry.datesOfBirth.isEmpty())
+            return NONE;
+        Set<String> years = new HashSet<String>();
+        for (String date : entry.datesOfBirth)
+            for (int parsed : DatesOfBirth.parse(date))
+                years.add(Integer.toString(DatesOfBirth.year(parsed)));
+        return years;
+    }
+
+    /**
+     * Distinct country codes of nationalities of entry, unrecognized nationalities are left out.
+     */
+    static Set<String> nationalities(SanctionListEntry entry)
+    {
+        if (entry.nationalities.isEmpty())
+            return NONE;
+        Set<String> codes = new HashSet<String>();
+        for (String nationality : entry.nationalities)
+        {
+            String code = CountryCodes.code(nationality);
+            if (code != null)
+                codes.add(code);
+        }
+        return codes;
+    }
+
+    /**
+     * Sorted distinct tokens of the folded name without legal forms.
+     */
+    private static String[] tokens(String name)
+    {
+        String folded = NameKeys.folded(name);
+        if (folded.length() == 0)
+            return new String[0];
+        String[] tokens = folded.split(" ");
+        int size = 0;
+        for (String token : tokens)
+            if (!LEGAL_FORMS.contains(token) && (size == 0 || !token.equals(tokens[size - 1])))
+                tokens[size++] = token;
+        return size == tokens.length ? tokens : Arrays.copyOf(tokens, size);
+    }
+
+    private static double similarity(String[] a, String[] b)
+    {
+        if (a.length == 0 || b.length == 0)
+            return 0;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; )
+        {
+            int c = a[i].compareTo(b[j]);
+            if (c == 0)
+            {
+                ++shared;
+                ++i;
+                ++j;
+            }
+            else if (c < 0)
+                ++i;
+            else
+                ++j;
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    private static int find(int[] parent, int i)
+    {
+        while (parent[i] != i)
+        {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private boolean similar(String[][] a, String[][] b)
+    {
+        for (String[] first : a)
+            for (String[] second : b)
+                if (similarity(first, second) >= minSimilarity)
+                    return true;
+        return false;
+    }
+
+    /**
+     * Known and different, an empty set is not known.
+     */
+    private static boolean conflicting(Set<String> a, Set<String> b)
+    {
+        return !a.isEmpty() && !b.isEmpty() && disjoint(a, b);
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b)
+    {
+        if (b.isEmpty())
+            return a;
+        if (a.isEmpty())
+            return b;
+        Set<String> union = new HashSet<String>(a);
+        union.addAll(b);
+        return union;
+    }
+
+    private static void add(Map<String, List<Integer>> blocks, String key, int id)
+    {
+        List<Integer> block = blocks.get(key);
+        if (block == null)
+        {
+            block = new ArrayList<Integer>(2);
+            blocks.put(key, block);
+        }
+        block.add(id);
+    }
+
+    private static boolean disjoint(Set<String> a, Set<String> b)
+    {
+        for (String value : a)
+            if (b.contains(value))
+                return false;
+        return true;
+    }
+
+    public Result deduplicate(Collection<SanctionListEntry> input)
+    {
+        SanctionListEntry[] entries = input.toArray(new SanctionListEntry[input.size()]);
+        String[][][] names = new String[entries.length][][];
+        int[] parent = new int[entries.length];
+        List<Set<String>> groupSources = new ArrayList<Set<String>>(entries.length);
+        List<Set<String>> groupYears = new ArrayList<Set<String>>(entries.length);
+        List<Set<String>> groupNationalities = new ArrayList<Set<String>>(entries.length);
+        // Dated entries by token and year, entries without a date of birth by token and NO_YEAR
+        Map<String, List<Integer>> blocks = new HashMap<String, List<Integer>>();
+        for (int id = 0; id < entries.length; ++id)
+        {
+            names[id] = new String[entries[id].names.size()][];
+            int n = 0;
+            for (String name : entries[id].names)
+                names[id][n++] = tokens(name);
+
+            parent[id] = id;
+            groupSources.add(entries[id].sources);
+            groupYears.add(birthYears(entries[id]));
+            groupNationalities.add(nationalities(entries[id]));
+
+            Set<String> years = groupYears.get(id).isEmpty() ? Collections.singleton(NO_YEAR) : groupYears.get(id);
+            Set<String> keys = new HashSet<String>();
+            for (String[] tokens : names[id])
+                for (String token : tokens)
+                    if (token.length() >= MIN_TOKEN_LENGTH)
+                        for (String year : years)
+                            keys.add(token + '|' + year);
+            for (String key : keys)
+                add(blocks, key, id);
+        }
+
+        long comparisons = 0;
+        int skippedBlocks = 0;
+        for (Map.Entry<String, List<Integer>> keyed : blocks.entrySet())
+        {
+            List<Integer> block = keyed.getValue();
+            String key = keyed.getKey();
+            // Entries without a date of birth join every dated block of the token, among themselves they are
+            // compared in the NO_YEAR block only, pairs start in the first entries of the block
+            int first = block.size();
+            if (!key.endsWith('|' + NO_YEAR))
+            {
+                List<Integer> dateless = blocks.get(key.substring(0, key.lastIndexOf('|') + 1) + NO_YEAR);
+                // Too many to compare with every year, they still meet dated entries in blocks of other tokens
+                if (dateless != null && block.size() + dateless.size() <= MAX_BLOCK)
+                {
+                    block = new ArrayList<Integer>(block);
+                    block.addAll(dateless);
+                }
+            }
+            if (block.size() < 2)
+                continue;
+            if (block.size() > MAX_BLOCK)
+            {
+                ++skippedBlocks;
+                continue;
+            }
+            for (int i = 0; i < first; ++i)
+                for (int j = i + 1; j < block.size(); ++j)
+                {
+                    int a = find(parent, block.get(i));
+                    int b = find(parent, block.get(j));
+                    // Already merged, or the groups share a list and would merge entries of one list
+                    if (a == b || !disjoint(groupSources.get(a), groupSources.get(b)))
+                        continue;
+                    // Namesakes born in different years or of different nationalities
+                    if (conflicting(groupYears.get(a), groupYears.get(b))
+                            || conflicting(groupNationalities.get(a), groupNationalities.get(b)))
+                        continue;
+                    ++comparisons;
+                    if (!similar(names[block.get(i)], names[block.get(j)]))
+                        continue;
+                    parent[b] = a;
+                    groupSources.set(a, union(groupSources.get(a), groupSources.get(b)));
+                    groupYears.set(a, union(groupYears.get(a), groupYears.get(b)));
+                    groupNationalities.set(a, union(groupNationalities.get(a), groupNationalities.get(b)));
+                }
+        }
+
+        // Groups are emitted in the order of their first entry
+        Map<Integer, List<SanctionListEntry>> groups = new LinkedHashMap<Integer, List<SanctionListEntry>>();
+        for (int id = 0; id < entries.length; ++id)
+        {
+            int root = find(parent, id);
+            List<SanctionListEntry> group = groups.get(root);
+            if (group == null)
+            {
+                group = new ArrayList<SanctionListEntry>(1);
+                groups.put(root, group);
+            }
+            group.add(entries[id]);
+        }
+
+        List<SanctionListEntry> out = new ArrayList<SanctionListEntry>(groups.size());
+        SanctionListEntry.Builder builder = new SanctionListEntry.Builder();
+        int mergedGroups = 0;
+        for (List<SanctionListEntry> group : groups.values())
+        {
+            if (group.size() == 1)
+            {
+                out.add(group.get(0));
+                continue;
+            }
+            for (SanctionListEntry entry : group)
+                builder.addAll(entry);
+            out.add(builder.build());
+            ++mergedGroups;
+        }
+        return new Result(out, mergedGroups, comparisons, skippedBlocks);
+    }
+}
@@ -0,0 +1,222 @@
+package Metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ingest metrics of all sources, published as JMX MBeans (SanctionLists:type=Ingest,source=&lt;name&gt;)
+ * once {@link #registerMBeans()} is called, and as Prometheus text exposition.
+ */
+public class IngestMetrics
+{
+    public static final String DOMAIN = "SanctionLists";
+
+    /**
+     * Upper bounds in seconds of the Prometheus histogram buckets.
+     */
+    private static final double[] BUCKETS = {0.01, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600};
+
+    private final ConcurrentMap<String, SourceMetrics> sources = new ConcurrentHashMap<String, SourceMetrics>();
+    private volatile MBeanServer mbeans = null;
+
+    public SourceMetrics source(String name)
+    {
+        SourceMetrics metrics = sources.get(name);
+        if (metrics != null)
+            return metrics;
+        metrics = new SourceMetrics(name);
+        SourceMetrics previous = sources.putIfAbsent(name, metrics);
+        if (previous != null)
+            return previous;
+        if (mbeans != null)
+            register(mbeans, metrics);
+        return metrics;
+    }
+
+    /**
+     * Sources in name order.
+     */
+    public List<SourceMetrics> getSources()
+    {
+        List<String> names = new ArrayList<String>(sources.keySet());
+        Collections.sort(names);
+        List<SourceMetrics> out = new ArrayList<SourceMetrics>(names.size());
+        for (String name : names)
+            out.add(sources.get(name));
+        return out;
+    }
+
+    /**
+     * Registers MBeans of current and future sources with the platform MBean server.
+     */
+    public synchronized void registerMBeans()
+    {
+        if (mbeans != null)
+            return;
+        mbeans = ManagementFactory.getPlatformMBeanServer();
+        for (SourceMetrics metrics : sources.values())
+            register(mbeans, metrics);
+    }
+
+    private static void register(MBeanServer server, SourceMetrics metrics)
+    {
+        try
+        {
+            server.registerMBean(metrics, new ObjectName(DOMAIN + ":type=Ingest,source=" + ObjectName.quote(metrics.getSource())));
+        } catch (InstanceAlreadyExistsException e)
+        {
+            // Another registry of this JVM publishes the same source
+        } catch (JMException e)
+        {
+            System.err.println("Cannot register MBean of " + metrics.getSource() + ": " + e.getMessage());
+        }
+    }
+
+    private static String label(String source)
+    {
+        return "{source=\"" + source.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help)
+    {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private interface Value
+    {
+        Number get(SourceMetrics metrics);
+    }
+
+    private void metric(StringBuilder out, List<SourceMetrics> all, String name, String type, String help, Value value)
+    {
+        header(out, name, type, help);
+        for (SourceMetrics metrics : all)
+        {
+            Number number = value.get(metrics);
+            out.append(name).append(label(metrics.getSource())).append("} ")
+                    .append(number instanceof Double ? String.format(Locale.ROOT, "%.3f", number.doubleValue()) : number.toString())
+                    .append('\n');
+        }
+    }
+
+    private void histogram(StringBuilder out, List<SourceMetrics> all, String name, String help, int which)
+    {
+        header(out, name, "histogram", help);
+        for (SourceMetrics metrics : all)
+        {
+            LatencyHistogram histogram = which == 0 ? metrics.getDownloadHistogram()
+                    : which == 1 ? metrics.getParseHistogram() : metrics.getTotalHistogram();
+            String labels = label(metrics.getSource());
+            for (double bound : BUCKETS)
+                out.append(name).append("_bucket").append(labels).append(",le=\"").append(bound).append("\"} ")
+                        .append(histogram.getCountAtMost((long) (bound * 1e6))).append('\n');
+            out.append(name).append("_bucket").append(labels).append(",le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+            out.append(name).append("_sum").append(labels).append("} ")
+                    .append(String.format(Locale.ROOT, "%.6f", histogram.getSumMicros() / 1e6)).append('\n');
+            out.append(name).append("_count").append(labels).append("} ").append(histogram.getCount()).append('\n');
+        }
+    }
+
+    /**
+     * Metrics in the Prometheus text exposition format.
+     */
+    public String toPrometheus()
+    {
+        List<SourceMetrics> all = getSources();
+        StringBuilder out = new StringBuilder();
+        metric(out, all, "sanctions_ingest_fetches_total", "counter", "Fetches of the source, successful or not.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getFetchCount();
+            }
+        });
+        metric(out, all, "sanctions_ingest_failures_total", "counter", "Fetches which failed or timed out.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getFailureCount() + metrics.getTimeoutCount();
+            }
+        });
+        metric(out, all, "sanctions_ingest_bytes_total", "counter", "Bytes read from the source.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getBytesTotal();
+            }
+        });
+        metric(out, all, "sanctions_ingest_entries_total", "counter", "Entries parsed from the source.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getEntriesTotal();
+            }
+        });
+        metric(out, all, "sanctions_ingest_skipped_total", "counter", "Records skipped by the parser because of errors.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getSkippedTotal();
+            }
+        });
+        metric(out, all, "sanctions_ingest_last_entries_per_second", "gauge", "Entries per second of the last fetch.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getLastEntriesPerSecond();
+            }
+        });
+        metric(out, all, "sanctions_ingest_last_allocated_bytes", "gauge", "Bytes allocated by the fetching thread during the last fetch.", new Value()
+        {
+            @Override
+            public Number get(SourceMetrics metrics)
+            {
+                return metrics.getLastAllocatedBytes();
+            }
+        });
+        histogram(out, all, "sanctions_ingest_download_seconds", "Time spent connecting to and reading from the source.", 0);
+        histogram(out, all, "sanctions_ingest_parse_seconds", "Time spent parsing, without waiting for the source.", 1);
+        histogram(out, all, "sanctions_ingest_fetch_seconds", "Whole fetch of the source.", 2);
+        return out.toString();
+    }
+
+    /**
+     * Replaces file with the Prometheus text, e.g. for the textfile collector of the node exporter.
+     */
+    public void writePrometheus(File file) throws IOException
+    {
+        File temporary = new File(file.getPath() + ".tmp");
+        Writer out = new OutputStreamWriter(new FileOutputStream(temporary), "UTF-8");
+        try
+        {
+            out.write(toPrometheus());
+        } finally
+        {
+            out.close();
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
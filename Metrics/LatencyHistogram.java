@@ -0,0 +1,95 @@
+package Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies in microseconds. Buckets are exact below 16 us,
+ * above that every power of two is split into 8 buckets, so percentiles are accurate to 12.5 %.
+ */
+public class LatencyHistogram
+{
+    private static final int EXACT = 16;
+    private static final int SUB_BUCKETS = 8;
+    private static final int BUCKETS = EXACT + (63 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    private static int bucket(long micros)
+    {
+        if (micros < EXACT)
+            return (int) Math.max(micros, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+        return EXACT + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Largest value falling into bucket.
+     */
+    private static long upperBound(int bucket)
+    {
+        if (bucket < EXACT)
+            return bucket;
+        int exponent = (bucket - EXACT) / SUB_BUCKETS + 4;
+        int sub = (bucket - EXACT) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 3)) - 1;
+    }
+
+    public void record(long nanos)
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        counts.incrementAndGet(bucket(micros));
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public long getSumMicros()
+    {
+        return sum.get();
+    }
+
+    /**
+     * Number of recorded values not above micros, rounded down to whole buckets.
+     */
+    public long getCountAtMost(long micros)
+    {
+        long total = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= micros; ++i)
+            total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * Latency in microseconds below which the fraction quantile of recorded values falls, 0 when empty.
+     */
+    public long getPercentile(double quantile)
+    {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i)
+        {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i)
+        {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0)
+                return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,228 @@
+package Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ingest statistics of one source: totals over all fetches, values of the last fetch
+ * and histograms of download, parse and whole fetch durations.
+ * <p>
+ * Download time is the time spent connecting and blocked in reads of the source stream, parse time is
+ * the rest of the time spent draining the parser. Both overlap on the wire for streaming parsers,
+ * so their split shows which side a slow fetch waited for.
+ */
+public class SourceMetrics implements SourceMetricsMBean
+{
+    private final String source;
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final LatencyHistogram download = new LatencyHistogram();
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private volatile Fetch last;
+
+    /**
+     * Measurements of a single fetch.
+     */
+    public static class Fetch
+    {
+        public final String status;
+        public final long bytes;
+        public final long entries;
+        public final long skipped;
+        public final long downloadNanos;
+        public final long parseNanos;
+        /**
+         * Bytes allocated by the thread fetching the source, read-ahead threads are not counted.
+         */
+        public final long allocatedBytes;
+
+        public Fetch(String status, long bytes, long entries, long skipped, long downloadNanos, long parseNanos,
+                     long allocatedBytes)
+        {
+            this.status = status;
+            this.bytes = bytes;
+            this.entries = entries;
+            this.skipped = skipped;
+            this.downloadNanos = downloadNanos;
+            this.parseNanos = parseNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public double getEntriesPerSecond()
+        {
+            long nanos = downloadNanos + parseNanos;
+            return nanos == 0 ? 0 : entries * 1e9 / nanos;
+        }
+    }
+
+    public SourceMetrics(String source)
+    {
+        this.source = source;
+    }
+
+    public String getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Records a fetch, status is one of OK, FAILED and TIMED_OUT.
+     */
+    public void record(Fetch fetch)
+    {
+        fetches.incrementAndGet();
+        if (fetch.status.equals("FAILED"))
+            failures.incrementAndGet();
+        else if (fetch.status.equals("TIMED_OUT"))
+            timeouts.incrementAndGet();
+        bytes.addAndGet(fetch.bytes);
+        entries.addAndGet(fetch.entries);
+        skipped.addAndGet(fetch.skipped);
+        download.record(fetch.downloadNanos);
+        parse.record(fetch.parseNanos);
+        total.record(fetch.downloadNanos + fetch.parseNanos);
+        last = fetch;
+    }
+
+    public Fetch getLast()
+    {
+        return last;
+    }
+
+    public LatencyHistogram getDownloadHistogram()
+    {
+        return download;
+    }
+
+    public LatencyHistogram getParseHistogram()
+    {
+        return parse;
+    }
+
+    public LatencyHistogram getTotalHistogram()
+    {
+        return total;
+    }
+
+    @Override
+    public long getFetchCount()
+    {
+        return fetches.get();
+    }
+
+    @Override
+    public long getFailureCount()
+    {
+        return failures.get();
+    }
+
+    @Override
+    public long getTimeoutCount()
+    {
+        return timeouts.get();
+    }
+
+    @Override
+    public long getBytesTotal()
+    {
+        return bytes.get();
+    }
+
+    @Override
+    public long getEntriesTotal()
+    {
+        return entries.get();
+    }
+
+    @Override
+    public long getSkippedTotal()
+    {
+        return skipped.get();
+    }
+
+    @Override
+    public String getLastStatus()
+    {
+        Fetch fetch = last;
+        return fetch == null ? null : fetch.status;
+    }
+
+    @Override
+    public long getLastBytes()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : fetch.bytes;
+    }
+
+    @Override
+    public long getLastEntries()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : fetch.entries;
+    }
+
+    @Override
+    public long getLastSkipped()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : fetch.skipped;
+    }
+
+    @Override
+    public long getLastDownloadMillis()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : TimeUnit.NANOSECONDS.toMillis(fetch.downloadNanos);
+    }
+
+    @Override
+    public long getLastParseMillis()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : TimeUnit.NANOSECONDS.toMillis(fetch.parseNanos);
+    }
+
+    @Override
+    public double getLastEntriesPerSecond()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : fetch.getEntriesPerSecond();
+    }
+
+    @Override
+    public long getLastAllocatedBytes()
+    {
+        Fetch fetch = last;
+        return fetch == null ? 0 : fetch.allocatedBytes;
+    }
+
+    @Override
+    public long getDownloadMillisP50()
+    {
+        return download.getPercentile(0.5) / 1000;
+    }
+
+    @Override
+    public long getDownloadMillisP99()
+    {
+        return download.getPercentile(0.99) / 1000;
+    }
+
+    @Override
+    public long getParseMillisP50()
+    {
+        return parse.getPercentile(0.5) / 1000;
+    }
+
+    @Override
+    public long getParseMillisP99()
+    {
+        return parse.getPercentile(0.99) / 1000;
+    }
+}
@@ -0,0 +1,43 @@
+package Metrics;
+
+/**
+ * JMX view of {@link SourceMetrics}, durations in milliseconds.
+ */
+public interface SourceMetricsMBean
+{
+    long getFetchCount();
+
+    long getFailureCount();
+
+    long getTimeoutCount();
+
+    long getBytesTotal();
+
+    long getEntriesTotal();
+
+    long getSkippedTotal();
+
+    String getLastStatus();
+
+    long getLastBytes();
+
+    long getLastEntries();
+
+    long getLastSkipped();
+
+    long getLastDownloadMillis();
+
+    long getLastParseMillis();
+
+    double getLastEntriesPerSecond();
+
+    long getLastAllocatedBytes();
+
+    long getDownloadMillisP50();
+
+    long getDownloadMillisP99();
+
+    long getParseMillisP50();
+
+    long getParseMillisP99();
+}
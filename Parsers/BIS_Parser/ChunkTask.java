@@ -0,0 +1,140 @@
+package Parsers.BIS_Parser;
+
+import Parsers.SanctionListEntry;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses chunks [from, to) of a mapped file, halves of the range are parsed in parallel.
+ * Entries of every chunk are stored at its index, so they are read in file order without copying.
+ */
+class ChunkTask extends RecursiveAction
+{
+    // ForkJoinTask is Serializable, chunks of a mapped file cannot be
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Reads a slice of the mapped file.
+     */
+    private static class BufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        public BufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+
+    private final ByteBuffer map;
+    private final int[] boundaries;
+    private final List<List<SanctionListEntry>> entries;
+    private final int[] skipped;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param entries list of nulls, one for every chunk, receiving the entries of the chunk
+     * @param skipped receives the number of skipped rows of every chunk
+     */
+    ChunkTask(ByteBuffer map, int[] boundaries, List<List<SanctionListEntry>> entries, int[] skipped, int from, int to)
+    {
+        this.map = map;
+        this.boundaries = boundaries;
+        this.entries = entries;
+        this.skipped = skipped;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Offsets of chunks of roughly equal size, every chunk but the last ends with a line break outside of quotes.
+     * Quotes are tracked the way CSVReader does: doubled quotes and quotes escaped by backslash inside a quoted
+     * field do not end it, so a line break within a quoted field never splits a record.
+     *
+     * @return chunks + 1 offsets at most, starting with 0 and ending with the size of map
+     */
+    static int[] split(ByteBuffer map, int chunks)
+    {
+        int size = map.limit();
+        int[] boundaries = new int[chunks + 1];
+        int count = 1;
+        long target = (long) size / chunks;
+        boolean quoted = false;
+        for (int i = 0; i < size && count < chunks; ++i)
+        {
+            byte b = map.get(i);
+            if (b == '"')
+                quoted = !quoted;
+            else if (b == '\\' && quoted && i + 1 < size && (map.get(i + 1) == '"' || map.get(i + 1) == '\\'))
+                ++i;
+            else if (b == '\n' && !quoted && i + 1 >= target)
+            {
+                boundaries[count] = i + 1;
+                target = (long) size * ++count / chunks;
+            }
+        }
+        if (count > 1 && boundaries[count - 1] == size)
+            --count;
+        boundaries[count] = size;
+        int[] out = new int[count + 1];
+        System.arraycopy(boundaries, 0, out, 0, count + 1);
+        return out;
+    }
+
+    private void parse(int chunk)
+    {
+        ByteBuffer slice = map.duplicate();
+        slice.limit(boundaries[chunk + 1]);
+        slice.position(boundaries[chunk]);
+        Parser parser = new Parser();
+        parser.initialize(new BufferInputStream(slice.slice()), chunk == 0);
+        List<SanctionListEntry> parsed = new ArrayList<SanctionListEntry>();
+        SanctionListEntry entry;
+        while ((entry = parser.getNextEntry()) != null)
+            parsed.add(entry);
+        entries.set(chunk, parsed);
+        skipped[chunk] = parser.getSkippedCount();
+    }
+
+    @Override
+    protected void compute()
+    {
+        if (to - from == 1)
+        {
+            parse(from);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunkTask(map, boundaries, entries, skipped, from, middle),
+                new ChunkTask(map, boundaries, entries, skipped, middle, to));
+    }
+}
@@ -1,21 +1,52 @@
 package Parsers.BIS_Parser;
 
-import Parsers.IParser;
+import Parsers.IFileParser;
 import Parsers.SanctionListEntry;
 import com.opencsv.CSVReader;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
+ * Local copies are memory-mapped, split into chunks at record boundaries and parsed on the fork/join pool
+ * given by the fetcher, entries are returned in file order.
+ *
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
-public class Parser implements IParser
+public class Parser implements IFileParser
 {
-    private CSVReader reader;
+    /**
+     * Files are split into chunks of at least this many bytes.
+     */
+    public static final int MIN_CHUNK = 1 << 18;
+    /**
+     * Chunks per thread, smaller chunks even out rows of different length.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
 
+    private CSVReader reader;
+    private InputStream file = null;
+    private List<List<SanctionListEntry>> chunks = null;
+    private int chunk = 0;
+    private int position = 0;
+    private int skipped = 0;
+    private final SanctionListEntry.Builder builder = new SanctionListEntry.Builder("BIS");
+
+    private static final int ENTITY_NUMBER = 1;
     private static final int NAME = 4;
     private static final int ADDRESS = 6;
     private static final int ALIASES = 21;
@@ -25,59 +56,166 @@ public class Parser implements IParser
     private static final int NATIONATLITY = 24;
     private static final int PLACE_OF_BIRTH = 25;
 
-
-
     @Override
     public void initialize(InputStream stream)
     {
+        initialize(stream, true);
+    }
+
+    /**
+     * Chunks other than the first one start without the header.
+     */
+    void initialize(InputStream stream, boolean header)
+    {
+        closeFile();
+        chunks = null;
+        skipped = 0;
         try
         {
             this.reader = new CSVReader(new BufferedReader(new InputStreamReader(stream, "UTF-8")));
-            reader.readNext(); // Drop Header
+            if (header)
+                reader.readNext(); // Drop Header
         } catch (IOException e)
         {
             e.printStackTrace();
         }
     }
 
+    /**
+     * A pool of a single thread streams the file on the calling thread, one chunk would be parsed whole
+     * before the first entry is returned.
+     */
+    @Override
+    public void initialize(File file, ForkJoinPool pool) throws IOException
+    {
+        int parallelism = pool.getParallelism();
+        if (parallelism == 1)
+        {
+            InputStream stream = new FileInputStream(file);
+            initialize(stream);
+            this.file = stream;
+            return;
+        }
+
+        MappedByteBuffer map;
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("File " + file + " is too large to map");
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally
+        {
+            channel.close();
+        }
+
+        int[] boundaries = ChunkTask.split(map, (int) Math.max(1, Math.min((long) parallelism * CHUNKS_PER_THREAD, map.capacity() / MIN_CHUNK)));
+        int count = boundaries.length - 1;
+        List<List<SanctionListEntry>> parsed = new ArrayList<List<SanctionListEntry>>(Collections.<List<SanctionListEntry>>nCopies(count, null));
+        int[] skippedRows = new int[count];
+        ForkJoinTask<Void> task = pool.submit(new ChunkTask(map, boundaries, parsed, skippedRows, 0, count));
+        try
+        {
+            task.get();
+        } catch (InterruptedException e)
+        {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing " + file);
+        } catch (ExecutionException e)
+        {
+            throw new IOException("Parsing of " + file + " failed", e.getCause());
+        }
+
+        reader = null;
+        chunks = parsed;
+        chunk = 0;
+        position = 0;
+        skipped = 0;
+        for (int rows : skippedRows)
+            skipped += rows;
+    }
+
     @Override
     public SanctionListEntry getNextEntry()
     {
+        if (chunks != null)
+        {
+            while (chunk < chunks.size())
+            {
+                List<SanctionListEntry> entries = chunks.get(chunk);
+                if (position < entries.size())
+                    return entries.get(position++);
+                // Parsed chunks are released as soon as they are read
+                chunks.set(chunk++, null);
+                position = 0;
+            }
+            return null;
+        }
+        if (reader == null)
+            return null;
+
         String[] line;
         try
         {
-            line = reader.readNext();
+            while ((line = reader.readNext()) != null && line.length <= PLACE_OF_BIRTH)
+            {
+                System.err.println("Malformed BIS row with " + line.length + " columns, skipping");
+                ++skipped;
+            }
         } catch (IOException e)
         {
             System.err.println("IO Exception while reading csv line: " + e.getMessage());
+            reader = null;
+            closeFile();
             return null;
         }
         if (line == null)
+        {
+            // Entries are requested again after the end of a streamed file, its reader is closed by then
+            reader = null;
+            closeFile();
             return null;
+        }
 
-        SanctionListEntry e = new SanctionListEntry();
-        e.names.add(line[NAME]);
+        builder.setId(line[ENTITY_NUMBER]);
+        builder.addName(line[NAME]);
 
         for (String address : line[ADDRESS].split(";"))
-            if (address.trim().length() > 0)
-                e.addresses.add(address.trim());
+            builder.addAddress(address);
 
         for (String alias : line[ALIASES].split(";"))
-            if (alias.trim().length() > 0)
-                e.names.add(alias.trim());
+            builder.addName(alias);
 
         for (String dob : line[DATE_OF_BIRTH].split(";"))
-            if (dob.trim().length() > 0)
-                e.datesOfBirth.add(dob.trim());
+            builder.addDateOfBirth(dob);
 
         for (String pob : line[PLACE_OF_BIRTH].split(";"))
-            if (pob.trim().length() > 0)
-                e.placesOfBirth.add(pob.trim());
+            builder.addPlaceOfBirth(pob);
 
         for (String nationality : line[NATIONATLITY].split(";"))
-            if (nationality.trim().length() > 0)
-                e.nationalities.add(nationality.trim());
+            builder.addNationality(nationality);
+
+        return builder.build();
+    }
 
-        return e;
+    private void closeFile()
+    {
+        if (file == null)
+            return;
+        try
+        {
+            file.close();
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while closing BIS file: " + e.getMessage());
+        }
+        file = null;
+    }
+
+    @Override
+    public int getSkippedCount()
+    {
+        return skipped;
     }
 }
@@ -3,19 +3,38 @@ package Parsers.BOE_Parser;
 import Parsers.IParser;
 import Parsers.SanctionListEntry;
 import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Stack;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
 
 /**
+ * Rows of the HMT list are sorted by name, so rows of a group are spread over the whole file and a group is
+ * complete only once the input ends. Rows are sorted by group id in runs of at most rowBudget rows, full runs
+ * are spilled to temporary files, and the runs are merged so every group is returned as a single entry once
+ * its last row is merged. Memory is bounded by the row budget instead of the size of the list.
+ *
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
 public class Parser implements IParser
 {
-    private CSVReader reader;
-    private final Stack<SanctionListEntry> list = new Stack<SanctionListEntry>();
+    /**
+     * Number of rows kept in memory before a sorted run is spilled to disk,
+     * can be overridden with the BOE_Parser.rowBudget system property.
+     */
+    public static final int DEFAULT_ROW_BUDGET = 50000;
+
+    private final int rowBudget;
+    private CSVReader reader = null;
+    private final ArrayList<Row> rows = new ArrayList<Row>();
+    private int runIndex = 0;
+    private PriorityQueue<Run> runs;
+    private int skipped = 0;
+    private final SanctionListEntry.Builder builder = new SanctionListEntry.Builder("BOE");
 
     private static final int NAME_START = 0;
     private static final int NAME_END = 6;
@@ -28,16 +47,121 @@ public class Parser implements IParser
     // private static final int PASSPORT = 11;
     private static final int GROUP_ID = 28;
 
+    private static class Row
+    {
+        protected final int groupId;
+        protected final String[] fields;
+
+        public Row(int groupId, String[] fields)
+        {
+            this.groupId = groupId;
+            this.fields = fields;
+        }
+    }
+
+    private static class RowComparator implements Comparator<Row>
+    {
+        @Override
+        public int compare(Row o1, Row o2)
+        {
+            return o1.groupId < o2.groupId ? -1 : (o1.groupId == o2.groupId ? 0 : 1);
+        }
+    }
+
+    /**
+     * Sorted sequence of rows, either held in memory or spilled to a temporary file.
+     */
+    private static abstract class Run
+    {
+        protected final int index;
+        protected Row current;
+
+        protected Run(int index)
+        {
+            this.index = index;
+        }
+
+        protected abstract boolean advance() throws IOException;
+
+        protected void close()
+        {
+        }
+    }
+
+    private static class MemoryRun extends Run
+    {
+        private final Iterator<Row> rows;
+
+        public MemoryRun(int index, List<Row> rows)
+        {
+            super(index);
+            this.rows = rows.iterator();
+        }
+
+        @Override
+        protected boolean advance()
+        {
+            current = rows.hasNext() ? rows.next() : null;
+            return current != null;
+        }
+    }
+
+    private static class FileRun extends Run
+    {
+        private final File file;
+        private final CSVReader reader;
+
+        public FileRun(int index, File file) throws IOException
+        {
+            super(index);
+            this.file = file;
+            this.reader = new CSVReader(new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8")));
+        }
 
-    private static class RowComparator implements Comparator<String []>, Serializable
+        @Override
+        protected boolean advance() throws IOException
+        {
+            String[] fields = reader.readNext();
+            current = fields == null ? null : new Row(Integer.parseInt(fields[GROUP_ID].trim()), fields);
+            return current != null;
+        }
+
+        @Override
+        protected void close()
+        {
+            try
+            {
+                reader.close();
+            } catch (IOException e)
+            {
+                System.err.println("IO Exception while closing run file: " + e.getMessage());
+            }
+            if (!file.delete())
+                System.err.println("Unable to delete run file " + file);
+        }
+    }
+
+    private static class RunComparator implements Comparator<Run>
     {
         @Override
-        public int compare(String[] o1, String[] o2)
+        public int compare(Run o1, Run o2)
         {
-            return Integer.parseInt(o1[GROUP_ID]) - Integer.parseInt(o2[GROUP_ID]);
+            if (o1.current.groupId != o2.current.groupId)
+                return o1.current.groupId < o2.current.groupId ? -1 : 1;
+            return o1.index - o2.index;
         }
     }
 
+    public Parser()
+    {
+        this(Integer.getInteger("BOE_Parser.rowBudget", DEFAULT_ROW_BUDGET));
+    }
+
+    public Parser(int rowBudget)
+    {
+        this.rowBudget = Math.max(1, rowBudget);
+    }
+
     private static String concatenateFields(String[] row, int start, int end)
     {
         StringBuilder tmp = new StringBuilder();
@@ -53,65 +177,191 @@ public class Parser implements IParser
         return tmp.length() == 0 ? null : tmp.toString();
     }
 
+    /**
+     * Writes rows to a temporary file, deleted by {@link FileRun#close()} once the run is merged.
+     */
+    private static File spill(List<Row> rows) throws IOException
+    {
+        File file = File.createTempFile("boe-run-", ".csv");
+        boolean written = false;
+        try
+        {
+            CSVWriter writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")));
+            try
+            {
+                for (Row row : rows)
+                    writer.writeNext(row.fields);
+            } finally
+            {
+                writer.close();
+            }
+            written = true;
+        } finally
+        {
+            if (!written && !file.delete())
+                System.err.println("Unable to delete run file " + file);
+        }
+        return file;
+    }
+
+    private void addRun(Run run) throws IOException
+    {
+        boolean added = false;
+        try
+        {
+            added = run.advance();
+        } finally
+        {
+            if (added)
+                runs.add(run);
+            else
+                run.close();
+        }
+    }
+
+    private Row nextRow() throws IOException
+    {
+        Run run = runs.poll();
+        if (run == null)
+            return null;
+        Row row = run.current;
+        addRun(run);
+        return row;
+    }
+
+    private static void addRow(SanctionListEntry.Builder e, String[] row)
+    {
+        e.addName(concatenateFields(row, NAME_START, NAME_END));
+        e.addAddress(concatenateFields(row, ADDRESS_START, ADDRESS_END));
+        e.addPlaceOfBirth(concatenateFields(row, PLACE_OF_BIRTH_START, PLACE_OF_BIRTH_END));
+        e.addNationality(row[NATIONATLITY]);
+        e.addDateOfBirth(row[DATE_OF_BIRTH]);
+    }
+
     @Override
     public void initialize(InputStream stream)
     {
+        close();
+        runs = new PriorityQueue<Run>(16, new RunComparator());
+        skipped = 0;
         try
         {
-            this.reader = new CSVReader(new BufferedReader(new InputStreamReader(stream, "UTF-8")));
-            ArrayList<String[]> rows;
+            reader = new CSVReader(new BufferedReader(new InputStreamReader(stream, "UTF-8")));
             reader.readNext(); // Drop Header
             reader.readNext(); // Drop Header
+        } catch (IOException e)
+        {
+            e.printStackTrace();
+            reader = null;
+        }
+    }
 
-            rows = (ArrayList<String[]>) reader.readAll();
-                rows.sort(new RowComparator());
-
-            SanctionListEntry e = null;
-            int previousGroupId = -1;
-            for (String[] row : rows)
+    /**
+     * Next row of the input with a valid group id, null at its end.
+     */
+    private Row readRow() throws IOException
+    {
+        String[] fields;
+        while ((fields = reader.readNext()) != null)
+        {
+            try
             {
-                int groupId = Integer.parseInt(row[GROUP_ID]);
-                if (groupId != previousGroupId && e != null)
-                {
-                    list.push(e);
-                    e = null;
-                }
-                previousGroupId = groupId;
-                if (e == null)
-                    e = new SanctionListEntry();
-
-                String name = concatenateFields(row, NAME_START, NAME_END);
-                if (name != null && name.trim().length() > 0)
-                    e.names.add(name.trim());
-
-                String address = concatenateFields(row, ADDRESS_START, ADDRESS_END);
-                if (address != null && address.trim().length() > 0)
-                    e.addresses.add(address.trim());
-
-
-                String place_of_birth = concatenateFields(row, PLACE_OF_BIRTH_START, PLACE_OF_BIRTH_END);
-                if (place_of_birth != null && place_of_birth.trim().length() > 0)
-                    e.placesOfBirth.add(place_of_birth.trim());
-
-                String nationality = row[NATIONATLITY];
-                if (nationality != null && nationality.trim().length() > 0)
-                    e.nationalities.add(nationality.trim());
-
-                String dob = row[DATE_OF_BIRTH].trim();
-                if (dob.length() > 0)
-                    e.datesOfBirth.add(dob);
+                return new Row(Integer.parseInt(fields[GROUP_ID].trim()), fields);
+            } catch (RuntimeException e)
+            {
+                System.err.println("Malformed BOE row, skipping: " + e.getMessage());
+                ++skipped;
             }
+        }
+        return null;
+    }
+
+    /**
+     * Sorts the rows read so far and spills them as a run.
+     */
+    private void spillRows() throws IOException
+    {
+        rows.sort(new RowComparator());
+        File file = spill(rows);
+        rows.clear();
+        FileRun run;
+        try
+        {
+            run = new FileRun(runIndex++, file);
         } catch (IOException e)
         {
-            e.printStackTrace();
+            if (!file.delete())
+                System.err.println("Unable to delete run file " + file);
+            throw e;
         }
+        addRun(run);
+    }
+
+    /**
+     * Reads the whole input into sorted runs, the rows left in memory form the last run.
+     */
+    private void sortRuns() throws IOException
+    {
+        Row row;
+        while ((row = readRow()) != null)
+        {
+            rows.add(row);
+            if (rows.size() >= rowBudget)
+                spillRows();
+        }
+        reader = null;
+        rows.sort(new RowComparator());
+        addRun(new MemoryRun(runIndex++, new ArrayList<Row>(rows)));
+        rows.clear();
     }
 
     @Override
     public SanctionListEntry getNextEntry()
     {
-        if (list.size() == 0)
-            return null;
-        return list.pop();
+        try
+        {
+            if (reader != null)
+                sortRuns();
+            if (runs == null || runs.isEmpty())
+                return null;
+
+            Row row = nextRow();
+            builder.setId(Integer.toString(row.groupId));
+            addRow(builder, row.fields);
+            while (!runs.isEmpty() && runs.peek().current.groupId == row.groupId)
+                addRow(builder, nextRow().fields);
+            return builder.build();
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading BOE rows: " + e.getMessage());
+        } catch (RuntimeException e)
+        {
+            System.err.println("Malformed spilled row: " + e.getMessage());
+        }
+
+        builder.clear();
+        close();
+        return null;
+    }
+
+    /**
+     * Deletes spilled runs and drops the state of the previous input.
+     */
+    private void close()
+    {
+        reader = null;
+        rows.clear();
+        runIndex = 0;
+        if (runs == null)
+            return;
+        for (Run run : runs)
+            run.close();
+        runs.clear();
+    }
+
+    @Override
+    public int getSkippedCount()
+    {
+        return skipped;
     }
 }
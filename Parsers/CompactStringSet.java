@@ -0,0 +1,85 @@
+package Parsers;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable set of strings stored as a sorted array.
+ */
+final class CompactStringSet extends AbstractSet<String>
+{
+    private final String[] values;
+
+    private CompactStringSet(String[] values)
+    {
+        this.values = values;
+    }
+
+    /**
+     * Empty and single element sets use the shared JDK representations, which need no array.
+     */
+    static Set<String> of(Collection<String> values)
+    {
+        if (values.isEmpty())
+            return Collections.emptySet();
+        if (values.size() == 1)
+            return Collections.singleton(values.iterator().next());
+
+        String[] sorted = values.toArray(new String[values.size()]);
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int i = 1; i < sorted.length; ++i)
+            if (!sorted[i].equals(sorted[size - 1]))
+                sorted[size++] = sorted[i];
+
+        if (size == 1)
+            return Collections.singleton(sorted[0]);
+        return new CompactStringSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return o instanceof String && Arrays.binarySearch(values, o) >= 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return values.length;
+    }
+
+    @Override
+    public Iterator<String> iterator()
+    {
+        return new Iterator<String>()
+        {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return position < values.length;
+            }
+
+            @Override
+            public String next()
+            {
+                if (position >= values.length)
+                    throw new NoSuchElementException();
+                return values[position++];
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -2,32 +2,24 @@ package Parsers.EU_Parser;
 
 import Parsers.IParser;
 import Parsers.SanctionListEntry;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
+import Parsers.XMLStreamUtils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.util.Stack;
+
+import static Parsers.XMLStreamUtils.nextChild;
+import static Parsers.XMLStreamUtils.readText;
+import static Parsers.XMLStreamUtils.skipElement;
 
 /**
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
 public class Parser implements IParser
 {
-    private Document document = null;
-    private XPath selector;
-    private NodeList entities;
-
-    private final Stack<SanctionListEntry> list = new Stack<SanctionListEntry>();
+    private XMLStreamReader reader;
+    private final SanctionListEntry.Builder builder = new SanctionListEntry.Builder("EU");
 
     private static class Tuple<A, B>
     {
@@ -51,36 +43,35 @@ public class Parser implements IParser
         }
     }
 
-    protected String parseNameNode(Node node)
+    protected String parseNameNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
-        for (int i = 0; i < childs.getLength(); ++i)
+        String name = null;
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("wholename") == 0)
-                return child.getNodeValue();
+            if (reader.getLocalName().equalsIgnoreCase("wholename"))
+                name = readText(reader);
+            else
+                skipElement(reader);
         }
-        return null;
+        return name;
     }
 
-    protected String parseAddressNode(Node node)
+    protected String parseAddressNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
         String street = null;
         String city = null;
         String country = null;
-        for (int i = 0; i < childs.getLength(); ++i)
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("street") == 0)
-                street = child.getNodeValue();
-            else if (childName.compareTo("city") == 0)
-                city = child.getNodeValue();
-            else if (childName.compareTo("country") == 0)
-                country = child.getNodeValue();
-
+            String childName = reader.getLocalName();
+            if (childName.equalsIgnoreCase("street"))
+                street = readText(reader);
+            else if (childName.equalsIgnoreCase("city"))
+                city = readText(reader);
+            else if (childName.equalsIgnoreCase("country"))
+                country = readText(reader);
+            else
+                skipElement(reader);
         }
         String place = street;
         if (city != null)
@@ -96,30 +87,29 @@ public class Parser implements IParser
             if (place == null)
                 place = country;
             else
-                place = place + " " + city;
+                place = place + " " + country;
             place = place.trim();
         }
 
         return place;
     }
 
-    protected Tuple<String, String> parseBirthNode(Node node)
+    protected Tuple<String, String> parseBirthNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
         String date = null;
         String country = null;
         String place = null;
-        for (int i = 0; i < childs.getLength(); ++i)
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("date") == 0)
-                date = child.getNodeValue();
-            else if (childName.compareTo("place") == 0)
-                place = child.getNodeValue();
-            else if (childName.compareTo("country") == 0)
-                country = child.getNodeValue();
-
+            String childName = reader.getLocalName();
+            if (childName.equalsIgnoreCase("date"))
+                date = readText(reader);
+            else if (childName.equalsIgnoreCase("place"))
+                place = readText(reader);
+            else if (childName.equalsIgnoreCase("country"))
+                country = readText(reader);
+            else
+                skipElement(reader);
         }
         if (country != null)
         {
@@ -131,88 +121,50 @@ public class Parser implements IParser
         return new Tuple<String, String>(place, date);
     }
 
-    protected String parseCitizenNode(Node node)
+    protected String parseCitizenNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
-        for (int i = 0; i < childs.getLength(); ++i)
+        String country = null;
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("country") == 0)
-                return child.getNodeValue();
+            if (reader.getLocalName().equalsIgnoreCase("country"))
+                country = readText(reader);
+            else
+                skipElement(reader);
         }
-        return null;
+        return country;
     }
 
-    @Override
-    public void initialize(InputStream stream)
+    protected SanctionListEntry parseEntityNode(XMLStreamReader reader) throws XMLStreamException
     {
-        try
+        while (nextChild(reader))
         {
-            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            document = builder.parse(stream);
-            selector = XPathFactory.newInstance().newXPath();
-            entities = (NodeList) selector.compile("//ENTITY").evaluate(document, XPathConstants.NODESET);
-
-            for (int i = 0; i < entities.getLength(); ++i)
+            String nodeName = reader.getLocalName();
+            if (nodeName.equalsIgnoreCase("name"))
+                builder.addName(parseNameNode(reader));
+            else if (nodeName.equalsIgnoreCase("birth"))
             {
-                Node node = entities.item(i);
-
-                SanctionListEntry entry = new SanctionListEntry();
-
-                NodeList childs = node.getChildNodes();
-                for (int j = 0; j < childs.getLength(); ++j)
-                {
-                    Node child = childs.item(j);
-                    String nodeName = child.getNodeName().toLowerCase();
-                    if (nodeName.compareTo("name") == 0)
-                    {
-                        String name = parseNameNode(child);
-                        if (name != null && name.trim().length() > 0)
-                            entry.names.add(name.trim());
-
-                    }
-                    else if (nodeName.compareTo("birth") == 0)
-                    {
-                        Tuple<String, String>  birth = parseBirthNode(child);
-
-                        String pob = birth.getFirst();
-                        String dob = birth.getSecond();
-
-                        if (pob != null && pob.trim().length() > 0)
-                            entry.placesOfBirth.add(pob.trim());
-
-                        if (pob != null && dob.trim().length() > 0)
-                            entry.datesOfBirth.add(dob.trim());
-                    }
-                    else if (nodeName.compareTo("citizen") == 0)
-                    {
-                        String nationality = parseCitizenNode(child);
-                        if (nationality != null && nationality.trim().length() > 0)
-                            entry.nationalities.add(nationality);
-                    }
-                    else if (nodeName.compareTo("address") == 0)
-                    {
-                        String address = parseAddressNode(child);
-                        if (address != null && address.trim().length() > 0)
-                            entry.addresses.add(address);
-                    }
-                }
-
-                list.push(entry);
+                Tuple<String, String> birth = parseBirthNode(reader);
+                builder.addPlaceOfBirth(birth.getFirst());
+                builder.addDateOfBirth(birth.getSecond());
             }
+            else if (nodeName.equalsIgnoreCase("citizen"))
+                builder.addNationality(parseCitizenNode(reader));
+            else if (nodeName.equalsIgnoreCase("address"))
+                builder.addAddress(parseAddressNode(reader));
+            else
+                skipElement(reader);
+        }
 
+        return builder.build();
+    }
 
-        } catch (ParserConfigurationException e)
-        {
-            e.printStackTrace();
-        }  catch (SAXException e)
-        {
-            e.printStackTrace();
-        } catch (IOException e)
+    @Override
+    public void initialize(InputStream stream)
+    {
+        try
         {
-            e.printStackTrace();
-        } catch (XPathExpressionException e)
+            reader = XMLStreamUtils.createReader(stream);
+        } catch (XMLStreamException e)
         {
             e.printStackTrace();
         }
@@ -221,8 +173,27 @@ public class Parser implements IParser
     @Override
     public SanctionListEntry getNextEntry()
     {
-        if (list.size() == 0)
+        if (reader == null)
             return null;
-        return list.pop();
+        try
+        {
+            while (reader.hasNext())
+            {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equalsIgnoreCase("entity"))
+                {
+                    // Version 4 of the list calls the identifier Id, later versions logicalId
+                    String id = reader.getAttributeValue(null, "logicalId");
+                    builder.setId(id != null ? id : reader.getAttributeValue(null, "Id"));
+                    return parseEntityNode(reader);
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e)
+        {
+            System.err.println("XML Exception while reading entity: " + e.getMessage());
+            builder.clear();
+        }
+        reader = null;
+        return null;
     }
 }
@@ -0,0 +1,18 @@
+package Parsers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parser able to read a local copy of its source directly, e.g. to split it among several threads.
+ */
+public interface IFileParser extends IParser
+{
+    /**
+     * Alternative to {@link #initialize(java.io.InputStream)}, entries of file are returned by getNextEntry.
+     *
+     * @param pool pool shared by the parsers of all sources, its parallelism bounds the threads parsing file
+     */
+    void initialize(File file, ForkJoinPool pool) throws IOException;
+}
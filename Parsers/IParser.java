@@ -2,6 +2,10 @@ package Parsers;
 
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Peter Babics <babicpe1@fit.cvut.cz>
@@ -11,4 +15,33 @@ public interface IParser
     void initialize(InputStream stream);
 
     SanctionListEntry getNextEntry();
+
+    /**
+     * Number of malformed records skipped so far.
+     */
+    default int getSkippedCount()
+    {
+        return 0;
+    }
+
+    /**
+     * Returns at most size next entries, empty list once the parser is exhausted.
+     */
+    default List<SanctionListEntry> nextBatch(int size)
+    {
+        List<SanctionListEntry> batch = new ArrayList<SanctionListEntry>(size);
+        SanctionListEntry entry;
+        while (batch.size() < size && (entry = getNextEntry()) != null)
+            batch.add(entry);
+        return batch;
+    }
+
+    /**
+     * Lazy view of the remaining entries, entries are parsed as the stream is consumed.
+     * Parallel streams split off batches of parsed entries.
+     */
+    default Stream<SanctionListEntry> stream()
+    {
+        return StreamSupport.stream(new ParserSpliterator(this), false);
+    }
 }
@@ -0,0 +1,286 @@
+package Parsers.OFAC_Parser;
+
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser of the SDN list in text format, records are paragraphs separated by blank lines:
+ * NAME (a.k.a. ALIAS; ...), address; address; DOB ...; POB ...; nationality ...; (individual) [PROGRAM].
+ */
+public class Parser implements IParser
+{
+    private BufferedReader reader;
+    private final SanctionListEntry.Builder builder = new SanctionListEntry.Builder("OFAC");
+    private final StringBuilder record = new StringBuilder(1024);
+    private int skipped = 0;
+
+    private static final String[] ALIAS_PREFIXES = {"a.k.a.", "f.k.a.", "n.k.a."};
+    private static final String[] DOB_PREFIXES = {"DOB ", "alt. DOB "};
+    private static final String[] POB_PREFIXES = {"POB ", "alt. POB "};
+    private static final String[] NATIONALITY_PREFIXES = {"nationality ", "alt. nationality "};
+
+    /**
+     * Parts starting with these labels end the address section of a record.
+     */
+    private static final String[] LABEL_PREFIXES = {
+            "alt. ", "citizen ", "Passport", "National ID", "Cedula", "SSN", "Website", "Email", "Telephone",
+            "Phone", "Fax", "Gender", "Tax ID", "Registration", "Business Registration", "Company Number",
+            "Vessel", "Former Vessel", "Previous", "Aircraft", "Additional Sanctions", "Secondary sanctions",
+            "Linked To", "Title", "D-U-N-S", "Identification Number", "Organization", "Digital Currency",
+            "Residency", "Birth Certificate", "Executive Order", "Transactions Prohibited", "C.U.R.P.", "R.F.C.",
+            "NIT #", "RUC #", "Matricula", "Refugee ID", "Driver's License", "Electoral Registry",
+            "Trade License", "Personal ID", "Legal Entity Number", "SWIFT/BIC", "IFCA", "CAATSA",
+            "Nationality of Registration", "Target Type", "MMSI", "IMO", "Manufacture Date", "Serial Number"};
+
+    /**
+     * Second comma separated token of entity names kept as part of the name.
+     */
+    private static final String[] NAME_SUFFIXES = {
+            "INC", "INC.", "LTD", "LTD.", "LLC", "L.L.C.", "S.A.", "SA", "CO.", "CO", "CORP.", "CORP", "LIMITED",
+            "GMBH", "PLC", "C.A.", "S.L.", "S.R.L.", "JSC", "OJSC", "PJSC", "LLP", "B.V.", "N.V.", "AG", "S.A.S."};
+
+    private static String startsWithAny(String value, String[] prefixes)
+    {
+        for (String prefix : prefixes)
+            if (value.startsWith(prefix))
+                return prefix;
+        return null;
+    }
+
+    private static boolean isNameSuffix(String token)
+    {
+        for (String suffix : NAME_SUFFIXES)
+            if (token.equalsIgnoreCase(suffix))
+                return true;
+        return false;
+    }
+
+    /**
+     * Reads lines up to the next blank line into record, returns false at the end of the stream.
+     */
+    private boolean readRecord() throws IOException
+    {
+        record.setLength(0);
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            if (line.trim().length() == 0)
+            {
+                if (record.length() > 0)
+                    return true;
+                continue;
+            }
+            if (record.length() > 0)
+                record.append(' ');
+            record.append(line.trim());
+        }
+        return record.length() > 0;
+    }
+
+    /**
+     * Splits value on semicolons outside of parentheses.
+     */
+    private static List<String> split(String value)
+    {
+        List<String> parts = new ArrayList<String>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < value.length(); ++i)
+        {
+            char c = value.charAt(i);
+            if (c == '(')
+                ++depth;
+            else if (c == ')' && depth > 0)
+                --depth;
+            else if (c == ';' && depth == 0)
+            {
+                parts.add(value.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start).trim());
+        return parts;
+    }
+
+    private static String stripQuotes(String value)
+    {
+        if (value.length() >= 2 && value.charAt(0) == '\'' && value.charAt(value.length() - 1) == '\'')
+            return value.substring(1, value.length() - 1).trim();
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"')
+            return value.substring(1, value.length() - 1).trim();
+        return value;
+    }
+
+    private void parseGroup(String group)
+    {
+        for (String part : split(group))
+        {
+            String prefix = startsWithAny(part, ALIAS_PREFIXES);
+            if (prefix != null)
+                builder.addName(stripQuotes(part.substring(prefix.length()).trim()));
+        }
+    }
+
+    /**
+     * Copies record without parenthesized groups and program tags into body, collapsing spaces.
+     * Aliases found in groups are added to builder. Returns true when the record is marked as an individual.
+     */
+    private boolean extractGroups(StringBuilder body)
+    {
+        boolean individual = false;
+        StringBuilder group = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < record.length(); ++i)
+        {
+            char c = record.charAt(i);
+            if (c == '(' || c == '[')
+            {
+                if (depth++ > 0)
+                    group.append(c);
+            }
+            else if ((c == ')' || c == ']') && depth > 0)
+            {
+                if (--depth > 0)
+                    group.append(c);
+                else
+                {
+                    String content = group.toString().trim();
+                    if (content.equalsIgnoreCase("individual"))
+                        individual = true;
+                    else if (c == ')')
+                        parseGroup(content);
+                    group.setLength(0);
+                }
+            }
+            else if (depth > 0)
+                group.append(c);
+            else if (c != ' ' || (body.length() > 0 && body.charAt(body.length() - 1) != ' '))
+                body.append(c);
+        }
+        return individual;
+    }
+
+    private void parseName(String part, boolean individual)
+    {
+        String[] tokens = part.split(",");
+        int nameTokens = 1;
+        if (tokens.length > 1 && (individual || isNameSuffix(tokens[1].trim())))
+            nameTokens = 2;
+
+        StringBuilder name = new StringBuilder(tokens[0].trim());
+        for (int i = 1; i < nameTokens; ++i)
+            name.append(", ").append(tokens[i].trim());
+        builder.addName(name.toString());
+
+        StringBuilder address = new StringBuilder();
+        for (int i = nameTokens; i < tokens.length; ++i)
+        {
+            String token = tokens[i].trim();
+            if (token.length() == 0)
+                continue;
+            if (address.length() > 0)
+                address.append(", ");
+            address.append(token);
+        }
+        builder.addAddress(address.toString());
+    }
+
+    /**
+     * Entry of the record in record, null when the record has no name.
+     */
+    private SanctionListEntry parseRecord()
+    {
+        StringBuilder body = new StringBuilder(record.length());
+        boolean individual = extractGroups(body);
+
+        // Drop the terminating period and whitespace left by removed groups
+        int end = body.length();
+        while (end > 0 && (body.charAt(end - 1) == '.' || Character.isWhitespace(body.charAt(end - 1))))
+            --end;
+        body.setLength(end);
+
+        List<String> parts = split(body.toString());
+        if (parts.get(0).split(",")[0].trim().length() == 0)
+        {
+            builder.clear();
+            return null;
+        }
+        parseName(parts.get(0), individual);
+
+        boolean addresses = true;
+        for (int i = 1; i < parts.size(); ++i)
+        {
+            String part = parts.get(i);
+            if (part.length() == 0 || part.equals("-0-"))
+                continue;
+
+            String prefix;
+            if ((prefix = startsWithAny(part, DOB_PREFIXES)) != null)
+                builder.addDateOfBirth(part.substring(prefix.length()));
+            else if ((prefix = startsWithAny(part, POB_PREFIXES)) != null)
+                builder.addPlaceOfBirth(part.substring(prefix.length()));
+            else if ((prefix = startsWithAny(part, NATIONALITY_PREFIXES)) != null)
+                builder.addNationality(part.substring(prefix.length()));
+            else if (addresses && startsWithAny(part, LABEL_PREFIXES) == null)
+            {
+                builder.addAddress(part);
+                continue;
+            }
+            addresses = false;
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public void initialize(InputStream stream)
+    {
+        try
+        {
+            this.reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"), 1 << 16);
+            skipped = 0;
+        } catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public SanctionListEntry getNextEntry()
+    {
+        if (reader == null)
+            return null;
+        try
+        {
+            while (readRecord())
+            {
+                // Every SDN record ends with its program tags, other paragraphs are the preamble
+                if (record.indexOf("[") < 0 || record.charAt(0) == '-')
+                    continue;
+                SanctionListEntry entry = parseRecord();
+                if (entry != null)
+                    return entry;
+                System.err.println("Malformed SDN record without a name, skipping");
+                ++skipped;
+            }
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while reading SDN record: " + e.getMessage());
+        }
+        reader = null;
+        return null;
+    }
+
+    @Override
+    public int getSkippedCount()
+    {
+        return skipped;
+    }
+}
@@ -0,0 +1,81 @@
+package Parsers;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator pulling entries from a parser, splits hand over batches of growing size
+ * so that downstream work can run in parallel with parsing.
+ */
+public class ParserSpliterator implements Spliterator<SanctionListEntry>
+{
+    private static final int BATCH_UNIT = 256;
+    private static final int MAX_BATCH = 1 << 14;
+    private static final int CHARACTERISTICS = ORDERED | NONNULL | IMMUTABLE;
+
+    private final IParser parser;
+    private int batch = 0;
+    private boolean exhausted = false;
+
+    public ParserSpliterator(IParser parser)
+    {
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SanctionListEntry> action)
+    {
+        if (exhausted)
+            return false;
+        SanctionListEntry entry = parser.getNextEntry();
+        if (entry == null)
+        {
+            exhausted = true;
+            return false;
+        }
+        action.accept(entry);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super SanctionListEntry> action)
+    {
+        if (exhausted)
+            return;
+        SanctionListEntry entry;
+        while ((entry = parser.getNextEntry()) != null)
+            action.accept(entry);
+        exhausted = true;
+    }
+
+    @Override
+    public Spliterator<SanctionListEntry> trySplit()
+    {
+        if (exhausted)
+            return null;
+        batch = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+        SanctionListEntry[] entries = new SanctionListEntry[batch];
+        int size = 0;
+        SanctionListEntry entry;
+        while (size < batch && (entry = parser.getNextEntry()) != null)
+            entries[size++] = entry;
+        if (size < batch)
+            exhausted = true;
+        if (size == 0)
+            return null;
+        return Spliterators.spliterator(entries, 0, size, CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize()
+    {
+        return exhausted ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics()
+    {
+        return CHARACTERISTICS;
+    }
+}
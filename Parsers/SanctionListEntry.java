@@ -1,17 +1,151 @@
 package Parsers;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Set;
 
 /**
+ * Immutable entry, fields are read only sets created by {@link Builder}.
+ *
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
 public class SanctionListEntry
 {
-    public final HashSet<String> names = new HashSet<String>();
-    public final HashSet<String> addresses = new HashSet<String>();
-    public final HashSet<String> nationalities = new HashSet<String>();
-    public final HashSet<String> placesOfBirth = new HashSet<String>();
-    public final HashSet<String> datesOfBirth = new HashSet<String>();
+    public final Set<String> names;
+    public final Set<String> addresses;
+    public final Set<String> nationalities;
+    public final Set<String> placesOfBirth;
+    public final Set<String> datesOfBirth;
+    /**
+     * Lists the entry comes from, e.g. UN or EU.
+     */
+    public final Set<String> sources;
+    /**
+     * Identifier of the entry within its list (EU logical id, UN DATAID, BOE group id, BIS entity number),
+     * null when the list has none or the entry was merged from several entries.
+     */
+    public final String id;
 
+    private SanctionListEntry(Builder builder)
+    {
+        this.names = CompactStringSet.of(builder.names);
+        this.addresses = CompactStringSet.of(builder.addresses);
+        this.nationalities = CompactStringSet.of(builder.nationalities);
+        this.placesOfBirth = CompactStringSet.of(builder.placesOfBirth);
+        this.datesOfBirth = CompactStringSet.of(builder.datesOfBirth);
+        if (builder.source != null)
+            builder.sources.add(builder.source);
+        this.sources = CompactStringSet.of(builder.sources);
+        this.id = builder.id;
+    }
 
+    /**
+     * Collects values of a single entry, values are trimmed, empty ones dropped and values other than names
+     * and addresses deduplicated through {@link StringPool}. Builder is reset by {@link #build()} and can be reused,
+     * the source given to the constructor is added to every built entry.
+     */
+    public static class Builder
+    {
+        private final String source;
+        private final ArrayList<String> names = new ArrayList<String>(4);
+        private final ArrayList<String> addresses = new ArrayList<String>(4);
+        private final ArrayList<String> nationalities = new ArrayList<String>(4);
+        private final ArrayList<String> placesOfBirth = new ArrayList<String>(4);
+        private final ArrayList<String> datesOfBirth = new ArrayList<String>(4);
+        private final ArrayList<String> sources = new ArrayList<String>(2);
+        private String id = null;
+
+        public Builder()
+        {
+            this(null);
+        }
+
+        public Builder(String source)
+        {
+            this.source = source == null ? null : StringPool.intern(source);
+        }
+
+        private static void add(ArrayList<String> values, String value, boolean pooled)
+        {
+            if (value == null)
+                return;
+            value = value.trim();
+            if (value.length() > 0)
+                values.add(pooled ? StringPool.intern(value) : value);
+        }
+
+        public Builder addName(String name)
+        {
+            add(names, name, false);
+            return this;
+        }
+
+        public Builder addAddress(String address)
+        {
+            add(addresses, address, false);
+            return this;
+        }
+
+        public Builder addNationality(String nationality)
+        {
+            add(nationalities, nationality, true);
+            return this;
+        }
+
+        public Builder addPlaceOfBirth(String placeOfBirth)
+        {
+            add(placesOfBirth, placeOfBirth, true);
+            return this;
+        }
+
+        public Builder addDateOfBirth(String dateOfBirth)
+        {
+            add(datesOfBirth, dateOfBirth, true);
+            return this;
+        }
+
+        public Builder addSource(String source)
+        {
+            add(sources, source, true);
+            return this;
+        }
+
+        public Builder setId(String id)
+        {
+            id = id == null ? null : id.trim();
+            this.id = id == null || id.length() == 0 ? null : id;
+            return this;
+        }
+
+        /**
+         * Adds every value of entry to this builder, except for its id.
+         */
+        public Builder addAll(SanctionListEntry entry)
+        {
+            names.addAll(entry.names);
+            addresses.addAll(entry.addresses);
+            nationalities.addAll(entry.nationalities);
+            placesOfBirth.addAll(entry.placesOfBirth);
+            datesOfBirth.addAll(entry.datesOfBirth);
+            sources.addAll(entry.sources);
+            return this;
+        }
+
+        public SanctionListEntry build()
+        {
+            SanctionListEntry entry = new SanctionListEntry(this);
+            clear();
+            return entry;
+        }
+
+        public void clear()
+        {
+            names.clear();
+            addresses.clear();
+            nationalities.clear();
+            placesOfBirth.clear();
+            datesOfBirth.clear();
+            sources.clear();
+            id = null;
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package Parsers;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances of frequently repeated strings shared by entries of all parsers: nationalities, places
+ * and dates of birth and list names. Names and addresses are mostly unique and are not pooled.
+ * <p>
+ * The pool lives as long as the process, so it is bounded; once full further values are returned as they are.
+ */
+public final class StringPool
+{
+    public static final int MAX_SIZE = 1 << 16;
+
+    private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<String, String>(1 << 12);
+
+    private StringPool()
+    {
+    }
+
+    public static String intern(String value)
+    {
+        String pooled = pool.get(value);
+        if (pooled != null)
+            return pooled;
+        if (pool.size() >= MAX_SIZE)
+            return value;
+        pooled = pool.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+    public static int size()
+    {
+        return pool.size();
+    }
+}
@@ -2,221 +2,182 @@ package Parsers.UN_Parser;
 
 import Parsers.IParser;
 import Parsers.SanctionListEntry;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import Parsers.XMLStreamUtils;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
-import java.io.IOException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.util.HashSet;
-import java.util.Stack;
+
+import static Parsers.XMLStreamUtils.nextChild;
+import static Parsers.XMLStreamUtils.readText;
+import static Parsers.XMLStreamUtils.skipElement;
 
 /**
  * @author Peter Babics <babicpe1@fit.cvut.cz>
  */
 public class Parser implements IParser
 {
-    private Document document = null;
-    private XPath selector;
-    private NodeList entities;
+    private XMLStreamReader reader;
+    private final SanctionListEntry.Builder builder = new SanctionListEntry.Builder("UN");
+
+    private static final String INDIVIDUAL_PREFIX = "individual_";
+    private static final String ENTITY_PREFIX = "entity_";
 
-    private final Stack<SanctionListEntry> list = new Stack<SanctionListEntry>();
+    private static final String[] NAME_ELEMENTS = {"first_name", "second_name", "third_name", "fourth_name", "fifth_name"};
 
-    private HashSet<String> parseAliasNode(Node node)
+    /**
+     * Compares element name with prefix + suffix without building the concatenated string.
+     */
+    private static boolean matches(String name, String prefix, String suffix)
     {
-        NodeList childs = node.getChildNodes();
-        String aliasses = null;
-        for (int i = 0; i < childs.getLength(); ++i)
+        return name.length() == prefix.length() + suffix.length()
+                && name.regionMatches(true, 0, prefix, 0, prefix.length())
+                && name.regionMatches(true, prefix.length(), suffix, 0, suffix.length());
+    }
+
+    private static String join(String first, String second)
+    {
+        if (second == null || second.trim().length() == 0)
+            return first;
+        if (first == null)
+            return second.trim();
+        return first + " " + second.trim();
+    }
+
+    private void parseAliasNode(XMLStreamReader reader) throws XMLStreamException
+    {
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("alias_name") == 0)
+            if (reader.getLocalName().equalsIgnoreCase("alias_name"))
             {
-                aliasses = child.getNodeValue();
-                break;
+                String aliases = readText(reader);
+                if (aliases == null)
+                    continue;
+                for (String alias : aliases.split(";"))
+                    builder.addName(alias);
             }
+            else
+                skipElement(reader);
         }
-
-        if (aliasses != null)
-        {
-            HashSet<String> out = new HashSet<String>();
-            String[] t = aliasses.split(";");
-            for (String s : t)
-                out.add(s.trim());
-            return out;
-        }
-
-        return null;
     }
 
-    protected String parseAddressNode(Node node)
+    protected String parseAddressNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
         String street = null;
         String city = null;
         String country = null;
-        for (int i = 0; i < childs.getLength(); ++i)
-        {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("street") == 0)
-                street = child.getNodeValue();
-            else if (childName.compareTo("city") == 0)
-                city = child.getNodeValue();
-            else if (childName.compareTo("country") == 0)
-                country = child.getNodeValue();
-
-        }
-        String place = street;
-        if (city != null)
-        {
-            if (place == null)
-                place = city;
-            else
-                place = place + " " + city;
-            place = place.trim();
-        }
-        if (country != null)
+        while (nextChild(reader))
         {
-            if (place == null)
-                place = country;
+            String childName = reader.getLocalName();
+            if (childName.equalsIgnoreCase("street"))
+                street = readText(reader);
+            else if (childName.equalsIgnoreCase("city"))
+                city = readText(reader);
+            else if (childName.equalsIgnoreCase("country"))
+                country = readText(reader);
             else
-                place = place + " " + city;
-            place = place.trim();
+                skipElement(reader);
         }
-
-        return place;
+        return join(join(street == null ? null : street.trim(), city), country);
     }
 
-    protected String parseBirthDateNode(Node node)
+    /**
+     * Exact date or year, a range of years (TYPE_OF_DATE BETWEEN) as "1974 to 1975".
+     */
+    protected String parseBirthDateNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
         String date = null;
-        for (int i = 0; i < childs.getLength(); ++i)
+        String year = null;
+        String fromYear = null;
+        String toYear = null;
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("YEAR") == 0)
-                date = child.getNodeValue();
+            String childName = reader.getLocalName();
+            if (childName.equalsIgnoreCase("date"))
+                date = readText(reader);
+            else if (childName.equalsIgnoreCase("year"))
+                year = readText(reader);
+            else if (childName.equalsIgnoreCase("from_year"))
+                fromYear = readText(reader);
+            else if (childName.equalsIgnoreCase("to_year"))
+                toYear = readText(reader);
+            else
+                skipElement(reader);
         }
-        return date;
+        if (date != null)
+            return date;
+        if (year != null)
+            return year;
+        if (fromYear != null && toYear != null)
+            return fromYear.trim() + " to " + toYear.trim();
+        return fromYear != null ? fromYear : toYear;
     }
 
-    protected String parseBirthPlaceNode(Node node)
+    protected String parseBirthPlaceNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
         String city = null;
         String country = null;
-        for (int i = 0; i < childs.getLength(); ++i)
-        {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("city") == 0)
-                city = child.getNodeValue();
-            else if (childName.compareTo("country") == 0)
-                country = child.getNodeValue();
-        }
-
-        String place = city;
-        if (country != null)
+        while (nextChild(reader))
         {
-            if (place == null)
-                place = country;
+            String childName = reader.getLocalName();
+            if (childName.equalsIgnoreCase("city"))
+                city = readText(reader);
+            else if (childName.equalsIgnoreCase("country"))
+                country = readText(reader);
             else
-                place = place + " " + city;
-            place = place.trim();
+                skipElement(reader);
         }
-
-        return place;
+        return join(city == null ? null : city.trim(), country);
     }
 
-    protected String parseNationalityNode(Node node)
+    protected void parseNationalityNode(XMLStreamReader reader) throws XMLStreamException
     {
-        NodeList childs = node.getChildNodes();
-        for (int i = 0; i < childs.getLength(); ++i)
+        while (nextChild(reader))
         {
-            Node child = childs.item(i);
-            String childName = child.getNodeName().toLowerCase().trim();
-            if (childName.compareTo("value") == 0)
-                return child.getNodeValue();
+            if (reader.getLocalName().equalsIgnoreCase("value"))
+                builder.addNationality(readText(reader));
+            else
+                skipElement(reader);
         }
-        return null;
     }
 
-    protected void parseEntityNodeList(NodeList entities, String prefix)
+    protected SanctionListEntry parseEntityNode(XMLStreamReader reader, String prefix) throws XMLStreamException
     {
-        for (int i = 0; i < entities.getLength(); ++i)
-        {
-            Node node = entities.item(i);
-
-            SanctionListEntry entry = new SanctionListEntry();
+        String[] names = new String[NAME_ELEMENTS.length];
 
-            NodeList childs = node.getChildNodes();
-            String[] names = new String[5];
-
-            for (int j = 0; j < childs.getLength(); ++j)
-            {
-                Node child = childs.item(j);
-                String nodeName = child.getNodeName().toLowerCase();
-                if (nodeName.compareTo("first_name") == 0)
-                    names[0] = child.getNodeValue();
-                else if (nodeName.compareTo("second_name") == 0)
-                    names[1] = child.getNodeValue();
-                else if (nodeName.compareTo("third_name") == 0)
-                    names[2] = child.getNodeValue();
-                else if (nodeName.compareTo("fourth_name") == 0)
-                    names[3] = child.getNodeValue();
-                else if (nodeName.compareTo("fifth)name") == 0)
-                    names[4] = child.getNodeValue();
-                else if (nodeName.compareTo("first_name") == 0)
-                {
-                    HashSet<String> aliases = parseAliasNode(child);
-                    if (aliases != null && aliases.size() > 0)
-                        entry.names.addAll(aliases);
-                } else if (nodeName.compareTo(prefix + "date_of_brith") == 0)
-                {
-                    String birth = parseBirthDateNode(child);
-                    if (birth != null && birth.trim().length() > 0)
-                        entry.datesOfBirth.add(birth.trim());
-                } else if (nodeName.compareTo(prefix + "place_of_brith") == 0)
-                {
-                    String birth = parseBirthPlaceNode(child);
-                    if (birth != null && birth.trim().length() > 0)
-                        entry.placesOfBirth.add(birth.trim());
-                } else if (nodeName.compareTo("nationality") == 0)
-                {
-                    String nationality = parseNationalityNode(child);
-                    if (nationality != null && nationality.trim().length() > 0)
-                        entry.nationalities.add(nationality.trim());
-                } else if (nodeName.compareTo(prefix + "address") == 0)
-                {
-                    String address = parseAddressNode(child);
-                    if (address != null && address.trim().length() > 0)
-                        entry.addresses.add(address.trim());
-                }
-            }
+        while (nextChild(reader))
+        {
+            String nodeName = reader.getLocalName();
+            int nameIndex = -1;
+            for (int n = 0; n < NAME_ELEMENTS.length; ++n)
+                if (nodeName.equalsIgnoreCase(NAME_ELEMENTS[n]))
+                    nameIndex = n;
+
+            if (nameIndex >= 0)
+                names[nameIndex] = readText(reader);
+            else if (nodeName.equalsIgnoreCase("dataid"))
+                builder.setId(readText(reader));
+            else if (matches(nodeName, prefix, "alias"))
+                parseAliasNode(reader);
+            else if (matches(nodeName, prefix, "date_of_birth"))
+                builder.addDateOfBirth(parseBirthDateNode(reader));
+            else if (matches(nodeName, prefix, "place_of_birth"))
+                builder.addPlaceOfBirth(parseBirthPlaceNode(reader));
+            else if (nodeName.equalsIgnoreCase("nationality"))
+                parseNationalityNode(reader);
+            else if (matches(nodeName, prefix, "address"))
+                builder.addAddress(parseAddressNode(reader));
+            else
+                skipElement(reader);
+        }
 
-            String name = names[0];
-            for (int n = 1; n < 5; ++n)
-                if (names[n] != null)
-                {
-                    if (name == null)
-                        name = names[n];
-                    else
-                        name = name + " " + names[n];
-                }
-            entry.names.add(name);
+        String name = null;
+        for (String n : names)
+            name = join(name, n);
+        builder.addName(name);
 
-            list.push(entry);
-        }
+        return builder.build();
     }
 
     @Override
@@ -224,24 +185,8 @@ public class Parser implements IParser
     {
         try
         {
-            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-            document = builder.parse(stream);
-            selector = XPathFactory.newInstance().newXPath();
-            entities = (NodeList) selector.compile("//INDIVIDUALS/INDIVIDUAL").evaluate(document, XPathConstants.NODESET);
-            parseEntityNodeList(entities, "individual_");
-            entities = (NodeList) selector.compile("//ENTITIES/ENTITY").evaluate(document, XPathConstants.NODESET);
-            parseEntityNodeList(entities, "entity_");
-
-        } catch (ParserConfigurationException e)
-        {
-            e.printStackTrace();
-        }  catch (SAXException e)
-        {
-            e.printStackTrace();
-        } catch (IOException e)
-        {
-            e.printStackTrace();
-        } catch (XPathExpressionException e)
+            reader = XMLStreamUtils.createReader(stream);
+        } catch (XMLStreamException e)
         {
             e.printStackTrace();
         }
@@ -250,8 +195,27 @@ public class Parser implements IParser
     @Override
     public SanctionListEntry getNextEntry()
     {
-        if (list.size() == 0)
+        if (reader == null)
             return null;
-        return list.pop();
+        try
+        {
+            while (reader.hasNext())
+            {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT)
+                    continue;
+                String nodeName = reader.getLocalName();
+                if (nodeName.equalsIgnoreCase("individual"))
+                    return parseEntityNode(reader, INDIVIDUAL_PREFIX);
+                if (nodeName.equalsIgnoreCase("entity"))
+                    return parseEntityNode(reader, ENTITY_PREFIX);
+            }
+            reader.close();
+        } catch (XMLStreamException e)
+        {
+            System.err.println("XML Exception while reading entity: " + e.getMessage());
+            builder.clear();
+        }
+        reader = null;
+        return null;
     }
 }
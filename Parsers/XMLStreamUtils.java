@@ -0,0 +1,81 @@
+package Parsers;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Navigation of StAX readers shared by the XML parsers, every method starts at the start tag of an element.
+ */
+public final class XMLStreamUtils
+{
+    private XMLStreamUtils()
+    {
+    }
+
+    /**
+     * Reader of stream with DTDs and external entities disabled.
+     */
+    public static XMLStreamReader createReader(InputStream stream) throws XMLStreamException
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(stream);
+    }
+
+    /**
+     * Advances reader to the next child element of the current element.
+     * Returns false once the end tag of the current element is reached.
+     */
+    public static boolean nextChild(XMLStreamReader reader) throws XMLStreamException
+    {
+        while (reader.hasNext())
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+                return true;
+            if (event == XMLStreamConstants.END_ELEMENT)
+                return false;
+        }
+        return false;
+    }
+
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException
+    {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext())
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+                ++depth;
+            else if (event == XMLStreamConstants.END_ELEMENT)
+                --depth;
+        }
+    }
+
+    /**
+     * Reads text content of the current element, nested elements are skipped.
+     */
+    public static String readText(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringBuilder text = null;
+        while (reader.hasNext())
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+            {
+                if (text == null)
+                    text = new StringBuilder();
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+            else if (event == XMLStreamConstants.START_ELEMENT)
+                skipElement(reader);
+            else if (event == XMLStreamConstants.END_ELEMENT)
+                break;
+        }
+        return text == null ? null : text.toString();
+    }
+}
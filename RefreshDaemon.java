@@ -0,0 +1,124 @@
+import Fetching.ConcurrentFetcher;
+import Fetching.Configuration;
+import Fetching.DeltaTracker;
+import Fetching.IRefreshListener;
+import Fetching.ISourceListener;
+import Fetching.RefreshScheduler;
+import Metrics.IngestMetrics;
+import Parsers.SanctionListEntry;
+import Storage.SnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running replacement of periodic {@link Fetcher} runs, parsers and entries stay resident between refreshes.
+ * <p>
+ * Every list is refreshed every FETCH_INTERVAL seconds or &lt;name&gt;_FETCH_INTERVAL when set, randomized by
+ * FETCH_JITTER, failed lists are retried after FETCH_RETRY seconds with exponential backoff. Unchanged payloads
+ * are detected by the download cache in CACHE_DIR and not parsed again. The snapshot is rewritten whenever a list
+ * changed, once every list was loaded. METRICS_FILE is rewritten after every refresh attempt.
+ */
+public class RefreshDaemon
+{
+    private static final Object PUBLISH_LOCK = new Object();
+
+    public static void main(String[] args)
+    {
+        final Properties properties = Configuration.load();
+        final File snapshot = properties.getProperty("SNAPSHOT_FILE") == null ? null : new File(properties.getProperty("SNAPSHOT_FILE"));
+
+        int parallelism = Integer.parseInt(properties.getProperty("PARALLELISM").trim());
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.registerMBeans();
+        // Workers are shared by the refreshes of all lists, parallelism bounds the lists fetched at once
+        ConcurrentFetcher fetcher = Fetcher.createFetcher(properties, metrics);
+        fetcher.start();
+        if (properties.getProperty("CACHE_DIR") == null)
+            System.out.println("Missing CACHE_DIR, every refresh parses the lists again");
+
+        final RefreshScheduler scheduler = new RefreshScheduler(fetcher, Configuration.sources(properties),
+                Configuration.intervals(properties), TimeUnit.SECONDS.toMillis(Long.parseLong(properties.getProperty("FETCH_RETRY").trim())),
+                Double.parseDouble(properties.getProperty("FETCH_JITTER").trim()), parallelism);
+        if (properties.getProperty("DELTA_DIR") != null)
+        {
+            final DeltaTracker tracker = new DeltaTracker(new File(properties.getProperty("DELTA_DIR")));
+            scheduler.addListener(new ISourceListener()
+            {
+                @Override
+                public void sourceFetched(String name, List<SanctionListEntry> entries)
+                {
+                    DeltaTracker.Changeset changes = tracker.update(name, entries);
+                    if (changes != null)
+                        System.out.println(name + " Delta: " + changes.added.size() + " added, "
+                                + changes.changed.size() + " changed, " + changes.removed.size() + " removed");
+                }
+            });
+        }
+        scheduler.addListener(new ISourceListener()
+        {
+            @Override
+            public void sourceFetched(String name, List<SanctionListEntry> entries)
+            {
+                publish(properties, scheduler, snapshot);
+            }
+        });
+        scheduler.addRefreshListener(new IRefreshListener()
+        {
+            @Override
+            public void refreshAttempted(String name, ConcurrentFetcher.SourceResult result)
+            {
+                writeMetrics(properties, metrics);
+            }
+        });
+        scheduler.start();
+    }
+
+    /**
+     * Rewrites METRICS_FILE, after every refresh attempt so that failures and unchanged lists show up as well.
+     */
+    private static void writeMetrics(Properties properties, IngestMetrics metrics)
+    {
+        if (properties.getProperty("METRICS_FILE") == null)
+            return;
+        // Not under PUBLISH_LOCK, a snapshot being written must not hold back the metrics
+        synchronized (metrics)
+        {
+            try
+            {
+                metrics.writePrometheus(new File(properties.getProperty("METRICS_FILE")));
+            } catch (IOException e)
+            {
+                System.err.println("IO Exception while writing metrics: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rewrites the snapshot from the resident entries, only a complete set of lists replaces it.
+     */
+    private static void publish(Properties properties, RefreshScheduler scheduler, File snapshot)
+    {
+        synchronized (PUBLISH_LOCK)
+        {
+            if (snapshot == null || !scheduler.isComplete())
+                return;
+
+            long start = System.nanoTime();
+            Collection<SanctionListEntry> merged = Fetcher.deduplicate(properties, scheduler.getEntries());
+            try
+            {
+                SnapshotWriter.write(snapshot, merged);
+                System.out.println("Snapshot written: " + merged.size() + " entries in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            } catch (IOException e)
+            {
+                System.err.println("IO Exception while writing snapshot: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package Screening;
+
+import Parsers.SanctionListEntry;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes of entries by year of birth and nationality. Dates of birth are parsed into packed dates
+ * (see {@link DatesOfBirth}) and nationalities into country codes once, when the index is built;
+ * a filter is then evaluated by OR-ing and AND-ing bit sets of entry ids instead of reading the entries.
+ * <p>
+ * Entry ids are positions in the list the index was built from.
+ */
+public class AttributeIndex
+{
+    private static final int[] NO_DATES = new int[0];
+    private static final String[] NO_COUNTRIES = new String[0];
+
+    private final int size;
+    private final int[][] dates;
+    private final String[][] countries;
+    private final BitSet[] byYear = new BitSet[DatesOfBirth.MAX_YEAR - DatesOfBirth.MIN_YEAR + 1];
+    private final BitSet[] byCountry = new BitSet[26 * 26];
+    private final BitSet withoutYear = new BitSet();
+    private final BitSet withoutCountry = new BitSet();
+
+    public AttributeIndex(List<SanctionListEntry> entries)
+    {
+        size = entries.size();
+        dates = new int[size][];
+        countries = new String[size][];
+        Map<String, Integer> unrecognized = new TreeMap<String, Integer>();
+        for (int id = 0; id < size; ++id)
+        {
+            SanctionListEntry entry = entries.get(id);
+            dates[id] = parseDates(entry);
+            for (int date : dates[id])
+                set(byYear, DatesOfBirth.year(date) - DatesOfBirth.MIN_YEAR, id);
+            if (dates[id].length == 0)
+                withoutYear.set(id);
+
+            countries[id] = parseCountries(entry, unrecognized);
+            for (String country : countries[id])
+                set(byCountry, CountryCodes.index(country), id);
+            if (countries[id].length == 0)
+                withoutCountry.set(id);
+        }
+        // Entries without a recognized nationality pass every nationality filter, report the values to add to CountryCodes
+        for (Map.Entry<String, Integer> value : unrecognized.entrySet())
+            System.err.println("Unrecognized nationality \"" + value.getKey() + "\" of " + value.getValue() + " entries");
+    }
+
+    private static int[] parseDates(SanctionListEntry entry)
+    {
+        if (entry.datesOfBirth.isEmpty())
+            return NO_DATES;
+        int[] out = NO_DATES;
+        for (String value : entry.datesOfBirth)
+        {
+            int[] parsed = DatesOfBirth.parse(value);
+            if (out.length == 0)
+                out = parsed;
+            else if (parsed.length > 0)
+            {
+                int length = out.length;
+                out = Arrays.copyOf(out, length + parsed.length);
+                System.arraycopy(parsed, 0, out, length, parsed.length);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Country codes of the nationalities of entry, values without a code are counted in unrecognized.
+     */
+    private static String[] parseCountries(SanctionListEntry entry, Map<String, Integer> unrecognized)
+    {
+        if (entry.nationalities.isEmpty())
+            return NO_COUNTRIES;
+        String[] out = new String[entry.nationalities.size()];
+        int count = 0;
+        for (String value : entry.nationalities)
+        {
+            String code = CountryCodes.code(value);
+            if (code == null || CountryCodes.index(code) < 0)
+            {
+                Integer counted = unrecognized.get(value);
+                unrecognized.put(value, counted == null ? 1 : counted + 1);
+                continue;
+            }
+            boolean seen = false;
+            for (int i = 0; i < count && !seen; ++i)
+                seen = out[i].equals(code);
+            if (!seen)
+                out[count++] = code;
+        }
+        if (count == 0)
+            return NO_COUNTRIES;
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    private static void set(BitSet[] index, int key, int id)
+    {
+        if (key < 0 || key >= index.length)
+            return;
+        if (index[key] == null)
+            index[key] = new BitSet();
+        index[key].set(id);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Packed dates of birth of an entry.
+     */
+    public int[] getDatesOfBirth(int id)
+    {
+        return dates[id];
+    }
+
+    /**
+     * Country codes of nationalities of an entry.
+     */
+    public String[] getNationalities(int id)
+    {
+        return countries[id];
+    }
+
+    /**
+     * Ids of entries passing filter, null when the filter does not restrict anything.
+     */
+    public BitSet select(ScreeningFilter filter)
+    {
+        if (filter == null || (!filter.restrictsYear() && !filter.restrictsNationality()))
+            return null;
+
+        BitSet selected = null;
+        if (filter.restrictsYear())
+        {
+            selected = new BitSet(size);
+            // ANY_YEAR on either side leaves that side of the range open
+            int from = filter.fromYear == ScreeningFilter.ANY_YEAR ? 0
+                    : Math.max(filter.fromYear, DatesOfBirth.MIN_YEAR) - DatesOfBirth.MIN_YEAR;
+            int to = filter.toYear == ScreeningFilter.ANY_YEAR ? byYear.length - 1
+                    : Math.min(filter.toYear, DatesOfBirth.MAX_YEAR) - DatesOfBirth.MIN_YEAR;
+            for (int year = from; year <= to; ++year)
+                if (byYear[year] != null)
+                    selected.or(byYear[year]);
+            if (filter.includeUnknown)
+                selected.or(withoutYear);
+        }
+
+        if (filter.restrictsNationality())
+        {
+            BitSet nationals = new BitSet(size);
+            int country = CountryCodes.index(filter.nationality);
+            if (country >= 0 && byCountry[country] != null)
+                nationals.or(byCountry[country]);
+            if (filter.includeUnknown)
+                nationals.or(withoutCountry);
+            if (selected == null)
+                selected = nationals;
+            else
+                selected.and(nationals);
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,192 @@
+package Screening;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screens a stream of customer records in parallel. Records are read in chunks which are screened on a fixed pool,
+ * at most two chunks per thread are in flight, so memory does not depend on the size of the input.
+ * <p>
+ * Input rows are "id,name", a row with a single column is a name identified by its record number. The first row
+ * is a header unless disabled, it is not screened. Every hit is written as "id,name,matched name,sources,score"
+ * once its chunk is screened. A chunk failing to screen fails the whole run, no further chunks are started.
+ */
+public class BatchScreening
+{
+    public static final int CHUNK_SIZE = 512;
+
+    private final IScreener screener;
+    private final int threads;
+    private final boolean header;
+
+    public static class Result
+    {
+        public final long records;
+        public final long hits;
+        public final long elapsedMillis;
+
+        public Result(long records, long hits, long elapsedMillis)
+        {
+            this.records = records;
+            this.hits = hits;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getRecordsPerSecond()
+        {
+            return elapsedMillis == 0 ? records * 1000.0 : records * 1000.0 / elapsedMillis;
+        }
+    }
+
+    public BatchScreening(IScreener screener, int threads)
+    {
+        this(screener, threads, true);
+    }
+
+    /**
+     * @param header whether the first input row is a header
+     */
+    public BatchScreening(IScreener screener, int threads, boolean header)
+    {
+        this.screener = screener;
+        this.threads = threads;
+        this.header = header;
+    }
+
+    private class ChunkTask implements Runnable
+    {
+        private final List<String[]> rows;
+        private final long firstRecord;
+        private final CSVWriter writer;
+        private final AtomicLong hits;
+        private final Semaphore inFlight;
+        private final AtomicReference<RuntimeException> failure;
+
+        public ChunkTask(List<String[]> rows, long firstRecord, CSVWriter writer, AtomicLong hits, Semaphore inFlight,
+                         AtomicReference<RuntimeException> failure)
+        {
+            this.rows = rows;
+            this.firstRecord = firstRecord;
+            this.writer = writer;
+            this.hits = hits;
+            this.inFlight = inFlight;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                List<String[]> out = new ArrayList<String[]>();
+                for (int i = 0; i < rows.size(); ++i)
+                {
+                    String[] row = rows.get(i);
+                    String id = row.length > 1 ? row[0] : Long.toString(firstRecord + i + 1);
+                    String name = row.length > 1 ? row[1] : row[0];
+                    for (Match match : screener.screen(name))
+                        out.add(new String[]{id, name, match.matchedName, join(match.getSources()),
+                                String.format(Locale.ROOT, "%.3f", match.score)});
+                }
+                if (out.isEmpty())
+                    return;
+                hits.addAndGet(out.size());
+                synchronized (writer)
+                {
+                    for (String[] hit : out)
+                        writer.writeNext(hit);
+                }
+            } catch (RuntimeException e)
+            {
+                failure.compareAndSet(null, new IllegalStateException("Screening of records " + (firstRecord + 1) + " to "
+                        + (firstRecord + rows.size()) + " failed", e));
+            } finally
+            {
+                inFlight.release();
+            }
+        }
+    }
+
+    private static String join(Iterable<String> values)
+    {
+        StringBuilder out = new StringBuilder();
+        for (String value : values)
+        {
+            if (out.length() > 0)
+                out.append(';');
+            out.append(value);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Screens every record of input and writes hits to output, returns once all records are screened.
+     * Neither stream is closed.
+     *
+     * @throws IllegalStateException when screening of a chunk failed, the output then misses hits
+     */
+    public Result run(Reader input, Writer output) throws IOException
+    {
+        long start = System.nanoTime();
+        CSVReader reader = new CSVReader(input);
+        CSVWriter writer = new CSVWriter(output);
+        AtomicLong hits = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<RuntimeException>();
+        Semaphore inFlight = new Semaphore(threads * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long records = 0;
+        try
+        {
+            List<String[]> chunk = new ArrayList<String[]>(CHUNK_SIZE);
+            long firstRecord = 0;
+            String[] row;
+            if (header)
+                reader.readNext();
+            while (failure.get() == null && (row = reader.readNext()) != null)
+            {
+                if (row.length == 0 || row[row.length > 1 ? 1 : 0].trim().length() == 0)
+                    continue;
+                chunk.add(row);
+                ++records;
+                if (chunk.size() == CHUNK_SIZE)
+                {
+                    inFlight.acquire();
+                    executor.execute(new ChunkTask(chunk, firstRecord, writer, hits, inFlight, failure));
+                    chunk = new ArrayList<String[]>(CHUNK_SIZE);
+                    firstRecord = records;
+                }
+            }
+            if (!chunk.isEmpty() && failure.get() == null)
+            {
+                inFlight.acquire();
+                executor.execute(new ChunkTask(chunk, firstRecord, writer, hits, inFlight, failure));
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e)
+        {
+            System.err.println("Batch screening interrupted after " + records + " records");
+            Thread.currentThread().interrupt();
+        } finally
+        {
+            executor.shutdownNow();
+        }
+        writer.flush();
+        if (failure.get() != null)
+            throw failure.get();
+        return new Result(records, hits.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
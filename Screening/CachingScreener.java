@@ -0,0 +1,205 @@
+package Screening;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded LRU cache of screening results in front of a {@link SwappableScreener}, keyed by the threshold
+ * and the normalized query. The cache is split into independently locked segments,
+ * each evicting its least recently used results.
+ * <p>
+ * Segments belong to one generation of the screener. The first query which sees a newly published
+ * screener swaps in empty segments, results of older generations are never returned and the swap
+ * does not wait for any lock.
+ */
+public class CachingScreener implements IScreener
+{
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    private static final int SEGMENTS = 16;
+
+    private final SwappableScreener source;
+    private final int segmentCapacity;
+    private final AtomicReference<Generation> generation;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Cached results of one generation of the screener.
+     */
+    private static class Generation
+    {
+        private final long number;
+        private final Segment[] segments = new Segment[SEGMENTS];
+
+        public Generation(long number, int segmentCapacity, AtomicLong evictions)
+        {
+            this.number = number;
+            for (int i = 0; i < SEGMENTS; ++i)
+                segments[i] = new Segment(segmentCapacity, evictions);
+        }
+
+        private Segment segment(String key)
+        {
+            int hash = key.hashCode();
+            return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        }
+    }
+
+    private static class Segment extends LinkedHashMap<String, List<Match>>
+    {
+        // Serializable through LinkedHashMap only, segments are never serialized
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final AtomicLong evictions;
+
+        public Segment(int capacity, AtomicLong evictions)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Match>> eldest)
+        {
+            if (size() <= capacity)
+                return false;
+            evictions.incrementAndGet();
+            return true;
+        }
+    }
+
+    public CachingScreener(Screener screener)
+    {
+        this(screener, DEFAULT_CAPACITY);
+    }
+
+    public CachingScreener(Screener screener, int capacity)
+    {
+        this(new SwappableScreener(screener), capacity);
+    }
+
+    public CachingScreener(SwappableScreener source, int capacity)
+    {
+        this.source = source;
+        this.segmentCapacity = Math.max(1, capacity / SEGMENTS);
+        generation = new AtomicReference<Generation>(new Generation(source.snapshot().generation, segmentCapacity, evictions));
+    }
+
+    /**
+     * Publishes screener to the underlying {@link SwappableScreener}, cached results of the previous one are dropped.
+     */
+    public void update(Screener screener)
+    {
+        source.publish(screener);
+    }
+
+    public Screener getScreener()
+    {
+        return source.getScreener();
+    }
+
+    public SwappableScreener getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Cache of the generation of snapshot, null when a newer generation is already cached.
+     */
+    private Generation generation(SwappableScreener.Snapshot snapshot)
+    {
+        while (true)
+        {
+            Generation cached = generation.get();
+            if (cached.number == snapshot.generation)
+                return cached;
+            if (cached.number > snapshot.generation)
+                return null;
+            if (generation.compareAndSet(cached, new Generation(snapshot.generation, segmentCapacity, evictions)))
+                return generation.get();
+        }
+    }
+
+    @Override
+    public List<Match> screen(String name)
+    {
+        SwappableScreener.Snapshot snapshot = source.snapshot();
+        Generation cache = generation(snapshot);
+        if (cache == null)
+        {
+            // Started before a newer screener was published, its result must not be cached
+            misses.incrementAndGet();
+            return snapshot.screener.screen(name);
+        }
+
+        String key = snapshot.screener.getThreshold() + "\u0000" + NameNormalizer.normalize(name);
+        Segment segment = cache.segment(key);
+        List<Match> matches;
+        synchronized (segment)
+        {
+            matches = segment.get(key);
+        }
+        if (matches != null)
+        {
+            hits.incrementAndGet();
+            return matches;
+        }
+
+        misses.incrementAndGet();
+        matches = Collections.unmodifiableList(snapshot.screener.screen(name));
+        synchronized (segment)
+        {
+            segment.put(key, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Filtered queries are not cached, they are answered by the current screener.
+     */
+    @Override
+    public List<Match> screen(String name, ScreeningFilter filter)
+    {
+        return source.screen(name, filter);
+    }
+
+    @Override
+    public int size()
+    {
+        return source.size();
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    public int getCachedCount()
+    {
+        int count = 0;
+        for (Segment segment : generation.get().segments)
+            synchronized (segment)
+            {
+                count += segment.size();
+            }
+        return count;
+    }
+}
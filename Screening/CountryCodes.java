@@ -0,0 +1,120 @@
+package Screening;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+/**
+ * Maps nationalities and countries as written by the lists ("IR", "IRN", "Iran", "Iran (Islamic Republic of)",
+ * "Iranian") to ISO 3166 alpha-2 codes.
+ */
+public final class CountryCodes
+{
+    private static final Map<String, String> CODES = new HashMap<String, String>();
+
+    /**
+     * Official and common names used by the lists which differ from the English names of the JDK (these vary
+     * between JDK versions), OFAC names with the qualification after a comma ("Korea, North"), followed by the
+     * demonyms of frequently listed nationalities.
+     */
+    private static final String[][] ALIASES = {
+            {"iran islamic republic of", "IR"}, {"syrian arab republic", "SY"}, {"russian federation", "RU"},
+            {"korea democratic people s republic of", "KP"}, {"democratic people s republic of korea", "KP"},
+            {"dprk", "KP"}, {"north korea", "KP"}, {"korea north", "KP"},
+            {"korea republic of", "KR"}, {"republic of korea", "KR"}, {"south korea", "KR"}, {"korea south", "KR"},
+            {"lao people s democratic republic", "LA"}, {"laos", "LA"}, {"libyan arab jamahiriya", "LY"},
+            {"venezuela bolivarian republic of", "VE"}, {"bolivia plurinational state of", "BO"},
+            {"tanzania united republic of", "TZ"}, {"moldova republic of", "MD"}, {"viet nam", "VN"}, {"vietnam", "VN"},
+            {"congo democratic republic of the", "CD"}, {"democratic republic of the congo", "CD"},
+            {"congo kinshasa", "CD"}, {"congo republic of the", "CG"}, {"republic of the congo", "CG"},
+            {"congo brazzaville", "CG"}, {"burma", "MM"}, {"myanmar", "MM"}, {"ivory coast", "CI"},
+            {"cote d ivoire", "CI"}, {"palestine state of", "PS"}, {"palestinian territories", "PS"},
+            {"west bank", "PS"}, {"gaza", "PS"}, {"hong kong", "HK"}, {"macau", "MO"}, {"macao", "MO"},
+            {"bahamas the", "BS"}, {"the bahamas", "BS"}, {"gambia the", "GM"}, {"the gambia", "GM"},
+            {"micronesia federated states of", "FM"}, {"federated states of micronesia", "FM"},
+            {"bosnia and herzegovina", "BA"}, {"trinidad and tobago", "TT"}, {"antigua and barbuda", "AG"},
+            {"saint kitts and nevis", "KN"}, {"saint lucia", "LC"}, {"saint vincent and the grenadines", "VC"},
+            {"sao tome and principe", "ST"}, {"cabo verde", "CV"}, {"cape verde", "CV"}, {"eswatini", "SZ"},
+            {"swaziland", "SZ"}, {"holy see", "VA"}, {"vatican city", "VA"}, {"timor leste", "TL"},
+            {"east timor", "TL"}, {"brunei", "BN"}, {"brunei darussalam", "BN"},
+            {"united kingdom of great britain and northern ireland", "GB"}, {"great britain", "GB"}, {"uk", "GB"},
+            {"united states of america", "US"}, {"usa", "US"}, {"turkiye", "TR"}, {"czechia", "CZ"},
+            {"czech republic", "CZ"}, {"slovak republic", "SK"}, {"kyrgyz republic", "KG"},
+            {"the former yugoslav republic of macedonia", "MK"}, {"macedonia the former yugoslav republic of", "MK"},
+            {"macedonia", "MK"}, {"north macedonia", "MK"}, {"kosovo", "XK"},
+            {"afghan", "AF"}, {"algerian", "DZ"}, {"american", "US"}, {"belarusian", "BY"}, {"british", "GB"},
+            {"burmese", "MM"}, {"chinese", "CN"}, {"congolese", "CD"}, {"cuban", "CU"}, {"egyptian", "EG"},
+            {"emirati", "AE"}, {"eritrean", "ER"}, {"indian", "IN"}, {"indonesian", "ID"}, {"iranian", "IR"},
+            {"iraqi", "IQ"}, {"jordanian", "JO"}, {"kuwaiti", "KW"}, {"lebanese", "LB"}, {"libyan", "LY"},
+            {"malian", "ML"}, {"moroccan", "MA"}, {"nigerian", "NG"}, {"north korean", "KP"}, {"pakistani", "PK"},
+            {"palestinian", "PS"}, {"qatari", "QA"}, {"russian", "RU"}, {"saudi", "SA"}, {"saudi arabian", "SA"},
+            {"somali", "SO"}, {"sudanese", "SD"}, {"syrian", "SY"}, {"tunisian", "TN"}, {"turkish", "TR"},
+            {"ukrainian", "UA"}, {"venezuelan", "VE"}, {"yemeni", "YE"}, {"zimbabwean", "ZW"}};
+
+    static
+    {
+        for (String code : Locale.getISOCountries())
+        {
+            Locale locale = new Locale("", code);
+            CODES.put(code.toLowerCase(Locale.ROOT), code);
+            CODES.put(NameNormalizer.normalize(locale.getDisplayCountry(Locale.ENGLISH)), code);
+            try
+            {
+                CODES.put(locale.getISO3Country().toLowerCase(Locale.ROOT), code);
+            } catch (MissingResourceException e)
+            {
+                // No alpha-3 code
+            }
+        }
+        for (String[] alias : ALIASES)
+            CODES.put(alias[0], alias[1]);
+    }
+
+    private CountryCodes()
+    {
+    }
+
+    /**
+     * ISO 3166 alpha-2 code of value, null when it is not recognized.
+     */
+    public static String code(String value)
+    {
+        if (value == null)
+            return null;
+        String normalized = NameNormalizer.normalize(value);
+        String code = CODES.get(normalized);
+        if (code != null)
+            return code;
+        // "Iran (Islamic Republic of)" without the qualification
+        int parenthesis = value.indexOf('(');
+        if (parenthesis > 0)
+        {
+            code = CODES.get(NameNormalizer.normalize(value.substring(0, parenthesis)));
+            if (code != null)
+                return code;
+        }
+        // "Tehran, Iran" and "Pyongyang, Korea, North" by their longest known suffix
+        for (int comma = value.indexOf(','); comma >= 0; comma = value.indexOf(',', comma + 1))
+        {
+            code = CODES.get(NameNormalizer.normalize(value.substring(comma + 1)));
+            if (code != null)
+                return code;
+        }
+        return null;
+    }
+
+    /**
+     * Index of a two letter code in 0 .. 26 * 26 - 1, -1 for anything else.
+     */
+    public static int index(String code)
+    {
+        if (code == null || code.length() != 2)
+            return -1;
+        int first = code.charAt(0) - 'A';
+        int second = code.charAt(1) - 'A';
+        if (first < 0 || first >= 26 || second < 0 || second >= 26)
+            return -1;
+        return first * 26 + second;
+    }
+}
@@ -0,0 +1,201 @@
+package Screening;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Parses free-form dates of birth as written by the lists ("1962-01-31", "31/01/1962", "31 Jan 1962",
+ * "Jan 31, 1962", "circa 1962") into packed dates year * 10000 + month * 100 + day, unknown month and day are 0.
+ * Ranges ("1960 to 1962", "Between 1974 and 1975", "1960-1962") give a date for every year of the range.
+ */
+public final class DatesOfBirth
+{
+    public static final int MIN_YEAR = 1800;
+    public static final int MAX_YEAR = 2099;
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    private static final String[] RANGE_WORDS = {"to", "and", "till", "until", "through"};
+    private static final int[] NONE = new int[0];
+    /**
+     * Token of the words joining the two ends of a range.
+     */
+    private static final int RANGE = Integer.MIN_VALUE;
+    /**
+     * Longer ranges are not expanded, only their ends are kept.
+     */
+    private static final int MAX_RANGE = 100;
+    private static final Pattern YEAR_RANGE = Pattern.compile("\\b(\\d{4})\\s*-\\s*(\\d{4})\\b");
+
+    /**
+     * Numbers are kept as tokens as they are, month names as negative month numbers.
+     */
+    private static boolean isMonth(int token)
+    {
+        return token < 0 && token >= -12;
+    }
+
+    private DatesOfBirth()
+    {
+    }
+
+    public static int year(int date)
+    {
+        return date / 10000;
+    }
+
+    public static int month(int date)
+    {
+        return date / 100 % 100;
+    }
+
+    public static int day(int date)
+    {
+        return date % 100;
+    }
+
+    private static boolean isYear(int token)
+    {
+        return token >= MIN_YEAR && token <= MAX_YEAR;
+    }
+
+    private static int monthOf(int token)
+    {
+        if (isMonth(token))
+            return -token;
+        return token >= 1 && token <= 12 ? token : 0;
+    }
+
+    private static boolean isDay(int token)
+    {
+        return token >= 1 && token <= 31;
+    }
+
+    private static boolean isRangeWord(char[] buffer, int start, int end)
+    {
+        for (String word : RANGE_WORDS)
+        {
+            if (word.length() != end - start)
+                continue;
+            int i = 0;
+            while (i < word.length() && buffer[start + i] == word.charAt(i))
+                ++i;
+            if (i == word.length())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Numbers and month names of value in order, words joining a range as {@link #RANGE}, other words are skipped.
+     */
+    private static int[] tokens(String value)
+    {
+        int[] tokens = new int[8];
+        int count = 0;
+        // "1960-1962" is a range, unlike "1962-01-31" the hyphen does not separate a month
+        value = YEAR_RANGE.matcher(value).replaceAll("$1 to $2");
+        NameNormalizer normalized = NameNormalizer.local().reset(value);
+        char[] buffer = normalized.buffer();
+        for (int w = 0; w < normalized.wordCount(); ++w)
+        {
+            int start = normalized.wordStart(w);
+            int end = normalized.wordEnd(w);
+            int token = 0;
+            if (Character.isDigit(buffer[start]))
+            {
+                for (int i = start; i < end && token < 100000; ++i)
+                {
+                    if (!Character.isDigit(buffer[i]))
+                        break;
+                    token = token * 10 + Character.digit(buffer[i], 10);
+                }
+            }
+            else if (isRangeWord(buffer, start, end))
+                token = RANGE;
+            else if (end - start >= 3)
+            {
+                for (int m = 0; m < MONTHS.length; ++m)
+                    if (buffer[start] == MONTHS[m].charAt(0) && buffer[start + 1] == MONTHS[m].charAt(1)
+                            && buffer[start + 2] == MONTHS[m].charAt(2))
+                        token = -(m + 1);
+                if (token == 0)
+                    continue;
+            }
+            else
+                continue;
+            if (count == tokens.length)
+                tokens = Arrays.copyOf(tokens, count * 2);
+            tokens[count++] = token;
+        }
+        return Arrays.copyOf(tokens, count);
+    }
+
+    /**
+     * Dates found in value, every year between MIN_YEAR and MAX_YEAR gives one date, years inside
+     * of a range give dates without month and day.
+     */
+    public static int[] parse(String value)
+    {
+        if (value == null)
+            return NONE;
+        int[] tokens = tokens(value);
+        int[] dates = new int[tokens.length];
+        int count = 0;
+        // Tokens before free were already used by the previous date
+        int free = 0;
+        for (int k = 0; k < tokens.length; ++k)
+        {
+            if (!isYear(tokens[k]))
+                continue;
+            int month = 0;
+            int day = 0;
+            int first = k;
+            int next = k + 1;
+            if (k - 2 >= free && isDay(tokens[k - 2]) && !isMonth(tokens[k - 2]) && monthOf(tokens[k - 1]) > 0)
+            {
+                // 31/01/1962 or 31 Jan 1962
+                day = tokens[k - 2];
+                month = monthOf(tokens[k - 1]);
+                first = k - 2;
+            }
+            else if (k - 2 >= free && isMonth(tokens[k - 2]) && isDay(tokens[k - 1]))
+            {
+                // Jan 31, 1962
+                month = monthOf(tokens[k - 2]);
+                day = tokens[k - 1];
+                first = k - 2;
+            }
+            else if (k + 2 < tokens.length && monthOf(tokens[k + 1]) > 0 && isDay(tokens[k + 2]) && !isMonth(tokens[k + 2]))
+            {
+                // 1962-01-31
+                month = monthOf(tokens[k + 1]);
+                day = tokens[k + 2];
+                next = k + 3;
+            }
+            else if (k - 1 >= free && isMonth(tokens[k - 1]))
+            {
+                month = monthOf(tokens[k - 1]);
+                first = k - 1;
+            }
+
+            if (count > 0 && first > 0 && tokens[first - 1] == RANGE)
+            {
+                // Years strictly inside of the range, its ends are dates of their own
+                int from = year(dates[count - 1]) + 1;
+                if (tokens[k] - from < MAX_RANGE)
+                {
+                    if (count + tokens[k] - from + 1 > dates.length)
+                        dates = Arrays.copyOf(dates, count + tokens[k] - from + 1);
+                    for (int year = from; year < tokens[k]; ++year)
+                        dates[count++] = year * 10000;
+                }
+            }
+            if (count == dates.length)
+                dates = Arrays.copyOf(dates, count + 1);
+            dates[count++] = tokens[k] * 10000 + month * 100 + day;
+            free = next;
+            k = next - 1;
+        }
+        return Arrays.copyOf(dates, count);
+    }
+}
@@ -0,0 +1,294 @@
+package Screening;
+
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletion index (SymSpell) over distinct normalized names, finds names within a Levenshtein distance of the query.
+ * <p>
+ * Two names within distance d reach a common string by at most d deletions each, and so do their prefixes of
+ * {@link #PREFIX} characters. Every name is indexed under the hashes of all deletions of its prefix, a query looks
+ * up the deletions of its own prefix and verifies the candidates with the bounded distance. The number of keys per
+ * name depends only on the prefix length and d, not on the length of the name.
+ */
+public class FuzzyIndex
+{
+    public static final int DEFAULT_MAX_DISTANCE = 2;
+    /**
+     * Longer prefixes select fewer false candidates for more keys per name.
+     */
+    static final int PREFIX = 7;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int maxDistance;
+    private final SanctionListEntry[] entries;
+    private final String[] terms;
+    private final int[][] termNames;
+    private final int[] nameEntries;
+    private final String[] names;
+    private final LongIntHashMap keySlots;
+    private final int[][] postings;
+
+    /**
+     * Hashes of the deletions of a prefix, duplicates removed.
+     */
+    private static class Deletions
+    {
+        long[] keys = new long[32];
+        int size = 0;
+
+        Deletions generate(String term, int maxDistance)
+        {
+            size = 0;
+            char[] prefix = term.substring(0, Math.min(term.length(), PREFIX)).toCharArray();
+            generate(prefix, prefix.length, 0, maxDistance);
+            Arrays.sort(keys, 0, size);
+            int distinct = size == 0 ? 0 : 1;
+            for (int i = 1; i < size; ++i)
+                if (keys[i] != keys[distinct - 1])
+                    keys[distinct++] = keys[i];
+            size = distinct;
+            return this;
+        }
+
+        /**
+         * Deletes characters at or after from, so every set of deleted positions is visited once.
+         */
+        private void generate(char[] word, int length, int from, int left)
+        {
+            if (size == keys.length)
+                keys = Arrays.copyOf(keys, size * 2);
+            keys[size++] = hash(word, length);
+            if (left == 0 || length == 0)
+                return;
+            char[] shorter = new char[length - 1];
+            for (int i = from; i < length; ++i)
+            {
+                System.arraycopy(word, 0, shorter, 0, i);
+                System.arraycopy(word, i + 1, shorter, i, length - i - 1);
+                generate(shorter, length - 1, i, left - 1);
+            }
+        }
+
+        private static long hash(char[] word, int length)
+        {
+            // FNV-1a, colliding deletions only add candidates which fail verification
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < length; ++i)
+            {
+                hash ^= word[i];
+                hash *= 0x100000001b3L;
+            }
+            return hash ^ length;
+        }
+    }
+
+    public FuzzyIndex(Collection<SanctionListEntry> entries)
+    {
+        this(entries, DEFAULT_MAX_DISTANCE);
+    }
+
+    /**
+     * @param maxDistance largest distance searches may ask for, the index grows with it
+     */
+    public FuzzyIndex(Collection<SanctionListEntry> entries, int maxDistance)
+    {
+        this.maxDistance = Math.max(0, maxDistance);
+        this.entries = entries.toArray(new SanctionListEntry[entries.size()]);
+
+        Map<String, Integer> termIds = new HashMap<String, Integer>();
+        List<String> termList = new ArrayList<String>();
+        List<int[]> termNameList = new ArrayList<int[]>();
+        List<Integer> nameEntryList = new ArrayList<Integer>();
+        List<String> nameList = new ArrayList<String>();
+        for (int entryId = 0; entryId < this.entries.length; ++entryId)
+            for (String name : this.entries[entryId].names)
+            {
+                String term = NameNormalizer.normalize(name);
+                if (term.length() == 0)
+                    continue;
+                int nameId = nameList.size();
+                nameList.add(name);
+                nameEntryList.add(entryId);
+
+                Integer termId = termIds.get(term);
+                if (termId == null)
+                {
+                    termIds.put(term, termList.size());
+                    termList.add(term);
+                    termNameList.add(new int[]{nameId});
+                }
+                else
+                {
+                    int[] ids = termNameList.get(termId);
+                    ids = Arrays.copyOf(ids, ids.length + 1);
+                    ids[ids.length - 1] = nameId;
+                    termNameList.set(termId, ids);
+                }
+            }
+        terms = termList.toArray(new String[termList.size()]);
+        termNames = termNameList.toArray(new int[termNameList.size()][]);
+        names = nameList.toArray(new String[nameList.size()]);
+        nameEntries = new int[names.length];
+        for (int nameId = 0; nameId < names.length; ++nameId)
+            nameEntries[nameId] = nameEntryList.get(nameId);
+
+        // First pass assigns key slots and sizes the posting lists, the second fills them with ascending term ids
+        keySlots = new LongIntHashMap(terms.length * 4);
+        int[] counts = new int[1 << 14];
+        int slots = 0;
+        Deletions deletions = new Deletions();
+        for (String term : terms)
+        {
+            deletions.generate(term, this.maxDistance);
+            for (int i = 0; i < deletions.size; ++i)
+            {
+                int slot = keySlots.get(deletions.keys[i]);
+                if (slot == LongIntHashMap.MISSING)
+                {
+                    slot = slots++;
+                    keySlots.put(deletions.keys[i], slot);
+                    if (slot == counts.length)
+                        counts = Arrays.copyOf(counts, counts.length * 2);
+                }
+                ++counts[slot];
+            }
+        }
+        postings = new int[slots][];
+        for (int slot = 0; slot < slots; ++slot)
+            postings[slot] = new int[counts[slot]];
+        Arrays.fill(counts, 0);
+        for (int termId = 0; termId < terms.length; ++termId)
+        {
+            deletions.generate(terms[termId], this.maxDistance);
+            for (int i = 0; i < deletions.size; ++i)
+            {
+                int slot = keySlots.get(deletions.keys[i]);
+                postings[slot][counts[slot]++] = termId;
+            }
+        }
+    }
+
+    /**
+     * Levenshtein distance, any distance above limit is reported as limit + 1.
+     */
+    static int distance(String a, String b, int limit)
+    {
+        int n = b.length();
+        if (Math.abs(a.length() - n) > limit)
+            return limit + 1;
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; ++j)
+            previous[j] = j;
+        for (int i = 1; i <= a.length(); ++i)
+        {
+            current[0] = i;
+            int rowMin = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= n; ++j)
+            {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (current[j] < rowMin)
+                    rowMin = current[j];
+            }
+            if (rowMin > limit)
+                return limit + 1;
+            int[] t = previous;
+            previous = current;
+            current = t;
+        }
+        return Math.min(previous[n], limit + 1);
+    }
+
+    public int size()
+    {
+        return names.length;
+    }
+
+    public int keyCount()
+    {
+        return postings.length;
+    }
+
+    public int getMaxDistance()
+    {
+        return maxDistance;
+    }
+
+    /**
+     * Entries having a name within maxDistance edits of name after normalization, best score first.
+     * Score is 1 - distance / length of the longer of both names.
+     */
+    public List<Match> search(String name, int maxDistance)
+    {
+        return search(name, maxDistance, null);
+    }
+
+    /**
+     * Like {@link #search(String, int)}, restricted to entries whose ids are set in allowed.
+     * A null allowed set does not restrict anything.
+     *
+     * @throws IllegalArgumentException when maxDistance exceeds the distance the index was built for
+     */
+    public List<Match> search(String name, int maxDistance, BitSet allowed)
+    {
+        if (maxDistance > this.maxDistance)
+            throw new IllegalArgumentException("Index built for distance " + this.maxDistance + ", not " + maxDistance);
+        String query = NameNormalizer.normalize(name);
+        if (query.length() == 0 || terms.length == 0)
+            return Collections.emptyList();
+
+        // Terms reached through several deletions are verified once
+        Deletions deletions = new Deletions().generate(query, maxDistance);
+        int[] candidates = new int[64];
+        int size = 0;
+        for (int i = 0; i < deletions.size; ++i)
+        {
+            int slot = keySlots.get(deletions.keys[i]);
+            int[] list = slot == LongIntHashMap.MISSING ? EMPTY : postings[slot];
+            if (size + list.length > candidates.length)
+                candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, size + list.length));
+            System.arraycopy(list, 0, candidates, size, list.length);
+            size += list.length;
+        }
+        Arrays.sort(candidates, 0, size);
+
+        Map<SanctionListEntry, Match> best = new IdentityHashMap<SanctionListEntry, Match>();
+        for (int i = 0; i < size; ++i)
+        {
+            int termId = candidates[i];
+            if (i > 0 && termId == candidates[i - 1])
+                continue;
+            String term = terms[termId];
+            int d = distance(query, term, maxDistance);
+            if (d > maxDistance)
+                continue;
+            double score = 1.0 - (double) d / Math.max(query.length(), term.length());
+            for (int nameId : termNames[termId])
+            {
+                if (allowed != null && !allowed.get(nameEntries[nameId]))
+                    continue;
+                SanctionListEntry entry = entries[nameEntries[nameId]];
+                Match current = best.get(entry);
+                if (current == null || current.score < score)
+                    best.put(entry, new Match(entry, names[nameId], score));
+            }
+        }
+
+        List<Match> matches = new ArrayList<Match>(best.values());
+        Collections.sort(matches, Match.BY_SCORE);
+        return matches;
+    }
+}
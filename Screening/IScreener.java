@@ -0,0 +1,21 @@
+package Screening;
+
+import java.util.List;
+
+public interface IScreener
+{
+    /**
+     * Matches of name, best score first.
+     */
+    List<Match> screen(String name);
+
+    /**
+     * Matches of name among entries passing filter, best score first.
+     */
+    List<Match> screen(String name, ScreeningFilter filter);
+
+    /**
+     * Number of screened entries.
+     */
+    int size();
+}
@@ -0,0 +1,83 @@
+package Screening;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long keys to non negative int values.
+ */
+final class LongIntHashMap
+{
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    LongIntHashMap(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    private static int hash(long key)
+    {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    int get(long key)
+    {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+        {
+            if (values[slot] == MISSING)
+                return MISSING;
+            if (keys[slot] == key)
+                return values[slot];
+        }
+    }
+
+    void put(long key, int value)
+    {
+        if (2 * (size + 1) > keys.length)
+            resize();
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask)
+        {
+            if (values[slot] == MISSING)
+            {
+                keys[slot] = key;
+                values[slot] = value;
+                ++size;
+                return;
+            }
+            if (keys[slot] == key)
+            {
+                values[slot] = value;
+                return;
+            }
+        }
+    }
+
+    private void resize()
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(values, MISSING);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; ++i)
+            if (oldValues[i] != MISSING)
+                put(oldKeys[i], oldValues[i]);
+    }
+
+    int size()
+    {
+        return size;
+    }
+}
@@ -0,0 +1,46 @@
+package Screening;
+
+import Parsers.SanctionListEntry;
+
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * Entry found for a screened name, score is 1 for an exact match of normalized names.
+ */
+public class Match
+{
+    public final SanctionListEntry entry;
+    public final String matchedName;
+    public final double score;
+
+    /**
+     * Orders matches by descending score.
+     */
+    public static final Comparator<Match> BY_SCORE = new Comparator<Match>()
+    {
+        @Override
+        public int compare(Match o1, Match o2)
+        {
+            return Double.compare(o2.score, o1.score);
+        }
+    };
+
+    public Match(SanctionListEntry entry, String matchedName, double score)
+    {
+        this.entry = entry;
+        this.matchedName = matchedName;
+        this.score = score;
+    }
+
+    public Set<String> getSources()
+    {
+        return entry.sources;
+    }
+
+    @Override
+    public String toString()
+    {
+        return matchedName + " " + entry.sources + " " + String.format("%.3f", score);
+    }
+}
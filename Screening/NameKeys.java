@@ -0,0 +1,240 @@
+package Screening;
+
+import java.util.Arrays;
+
+/**
+ * Lookup keys of names. Both keys are independent of word order, words are sorted before joining.
+ * <ul>
+ * <li>folded key - normalized name transliterated to Latin letters</li>
+ * <li>phonetic key - consonant skeleton of every word in the spirit of Metaphone, so that
+ * Mohammed, Muhammad, Mohamad and the Arabic &#1605;&#1581;&#1605;&#1583; share the key</li>
+ * </ul>
+ */
+public final class NameKeys
+{
+    private NameKeys()
+    {
+    }
+
+    public static String folded(String name)
+    {
+        NameNormalizer normalized = NameNormalizer.local().reset(name);
+        String[] words = new String[normalized.wordCount()];
+        int count = 0;
+        for (int i = 0; i < words.length; ++i)
+        {
+            String word = Transliteration.toLatin(new String(normalized.buffer(), normalized.wordStart(i),
+                    normalized.wordEnd(i) - normalized.wordStart(i)));
+            if (word.length() > 0)
+                words[count++] = word;
+        }
+        if (count == 0)
+            return "";
+        return join(count == words.length ? words : Arrays.copyOf(words, count));
+    }
+
+    public static String phonetic(String name)
+    {
+        String folded = folded(name);
+        if (folded.length() == 0)
+            return folded;
+        String[] words = folded.split(" ");
+        int count = 0;
+        for (String word : words)
+        {
+            String code = encode(word);
+            if (code.length() > 0)
+                words[count++] = code;
+        }
+        return join(Arrays.copyOf(words, count));
+    }
+
+    /**
+     * Levenshtein distance of two keys.
+     */
+    public static int distance(String a, String b)
+    {
+        int n = b.length();
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int j = 0; j <= n; ++j)
+            previous[j] = j;
+        for (int i = 1; i <= a.length(); ++i)
+        {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= n; ++j)
+            {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] t = previous;
+            previous = current;
+            current = t;
+        }
+        return previous[n];
+    }
+
+    private static String join(String[] words)
+    {
+        if (words.length == 1)
+            return words[0];
+        Arrays.sort(words);
+        StringBuilder out = new StringBuilder();
+        for (String word : words)
+        {
+            if (out.length() > 0)
+                out.append(' ');
+            out.append(word);
+        }
+        return out.toString();
+    }
+
+    private static boolean isVowel(char c)
+    {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y' || c == 'w';
+    }
+
+    private static char at(String word, int i)
+    {
+        return i < word.length() ? word.charAt(i) : 0;
+    }
+
+    /**
+     * Phonetic code of a single folded word. Vowels and semivowels are dropped except the leading one,
+     * which is coded as A, similar sounding consonants share a code and repeated codes are collapsed.
+     */
+    public static String encode(String word)
+    {
+        StringBuilder code = new StringBuilder(word.length());
+        char previous = 0;
+        for (int i = 0; i < word.length(); ++i)
+        {
+            char c = word.charAt(i);
+            char next = at(word, i + 1);
+            char out;
+            if (isVowel(c))
+            {
+                if (i == 0)
+                    code.append('A');
+                previous = 0;
+                continue;
+            }
+            switch (c)
+            {
+                case 'b':
+                case 'p':
+                    if (c == 'p' && next == 'h')
+                    {
+                        out = 'F';
+                        ++i;
+                    }
+                    else
+                        out = 'P';
+                    break;
+                case 'f':
+                case 'v':
+                    out = 'F';
+                    break;
+                case 'c':
+                    if (next == 'h')
+                    {
+                        out = 'X';
+                        ++i;
+                    }
+                    else if (next == 'e' || next == 'i' || next == 'y')
+                        out = 'S';
+                    else
+                        out = 'K';
+                    break;
+                case 's':
+                    if (next == 'h')
+                    {
+                        out = 'X';
+                        ++i;
+                    }
+                    else if (next == 'c' && at(word, i + 2) == 'h')
+                    {
+                        out = 'X';
+                        i += 2;
+                    }
+                    else
+                        out = 'S';
+                    break;
+                case 'z':
+                    if (next == 'h')
+                    {
+                        out = 'J';
+                        ++i;
+                    }
+                    else
+                        out = 'S';
+                    break;
+                case 'd':
+                case 't':
+                    if (next == 'h')
+                    {
+                        out = 'T';
+                        ++i;
+                    }
+                    else if (c == 't' && (next == 's' || next == 'z'))
+                    {
+                        out = 'S';
+                        ++i;
+                    }
+                    else if (c == 'd' && next == 'j')
+                    {
+                        out = 'J';
+                        ++i;
+                    }
+                    else if (c == 'd' && next == 'z' && at(word, i + 2) == 'h')
+                    {
+                        out = 'J';
+                        i += 2;
+                    }
+                    else
+                        out = 'T';
+                    break;
+                case 'g':
+                case 'k':
+                case 'q':
+                    // Kh is used for both Arabic kha and ha, e.g. Mukhammad / Muhammad
+                    if (next == 'h')
+                    {
+                        out = c == 'k' ? 'H' : 'K';
+                        ++i;
+                    }
+                    else
+                        out = 'K';
+                    break;
+                case 'j':
+                    out = 'J';
+                    break;
+                case 'x':
+                    if (previous != 'K')
+                        code.append('K');
+                    out = 'S';
+                    break;
+                case 'h':
+                    // Trailing h is silent, e.g. Abdallah / Abdalla
+                    if (i == word.length() - 1)
+                        continue;
+                    out = 'H';
+                    break;
+                case 'l':
+                case 'm':
+                case 'n':
+                case 'r':
+                    out = Character.toUpperCase(c);
+                    break;
+                default:
+                    // Digits and letters without transliteration are kept
+                    out = c;
+            }
+            if (out != previous)
+                code.append(out);
+            previous = out;
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package Screening;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Normal form of names shared by indexing and queries: lower case, without diacritics,
+ * punctuation replaced by single spaces.
+ * <p>
+ * An instance normalizes into its own reusable buffer and records the bounds of the words, once the buffer
+ * has grown to the longest name no call allocates. Instances are not thread safe, {@link #local()} gives
+ * one per thread.
+ */
+public final class NameNormalizer
+{
+    private static final char SEPARATOR = ' ';
+    private static final char MARK = 0;
+
+    /**
+     * Folded form of every character, SEPARATOR for characters which are neither letters nor digits,
+     * MARK for combining marks which are dropped.
+     */
+    private static final char[] FOLDED = new char[Character.MAX_VALUE + 1];
+
+    static
+    {
+        for (int c = 0; c <= Character.MAX_VALUE; ++c)
+            FOLDED[c] = foldSlow((char) c);
+    }
+
+    private static final ThreadLocal<NameNormalizer> LOCAL = new ThreadLocal<NameNormalizer>()
+    {
+        @Override
+        protected NameNormalizer initialValue()
+        {
+            return new NameNormalizer();
+        }
+    };
+
+    private char[] buffer = new char[64];
+    private int length;
+    private int[] wordStarts = new int[8];
+    private int[] wordEnds = new int[8];
+    private int words;
+
+    /**
+     * Folds a single character through canonical decomposition. Only the first character of a decomposition
+     * is kept, which differs from decomposing whole names only where a letter decomposes into several
+     * letters or signs, e.g. Hangul syllables, which stay composed.
+     */
+    private static char foldSlow(char c)
+    {
+        if (Character.getType(c) == Character.NON_SPACING_MARK)
+            return MARK;
+        if (!Character.isLetterOrDigit(c))
+            return SEPARATOR;
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        char base = decomposed.charAt(0);
+        if (Character.getType(base) == Character.NON_SPACING_MARK)
+            return MARK;
+        if (!Character.isLetterOrDigit(base))
+            return SEPARATOR;
+        return Character.toLowerCase(base);
+    }
+
+    /**
+     * Normalizer of the current thread.
+     */
+    public static NameNormalizer local()
+    {
+        return LOCAL.get();
+    }
+
+    public static String normalize(String name)
+    {
+        if (name == null)
+            return "";
+        return local().reset(name).toString();
+    }
+
+    /**
+     * Normalizes name into the buffer of this instance, null is normalized to an empty name.
+     */
+    public NameNormalizer reset(CharSequence name)
+    {
+        length = 0;
+        words = 0;
+        if (name == null)
+            return this;
+        if (buffer.length < name.length())
+            buffer = new char[Math.max(name.length(), buffer.length * 2)];
+
+        for (int i = 0; i < name.length(); ++i)
+        {
+            char c = FOLDED[name.charAt(i)];
+            if (c == MARK)
+                continue;
+            if (c != SEPARATOR)
+            {
+                if (length == 0 || buffer[length - 1] == SEPARATOR)
+                    startWord();
+                buffer[length++] = c;
+            }
+            else if (length > 0 && buffer[length - 1] != SEPARATOR)
+            {
+                wordEnds[words - 1] = length;
+                buffer[length++] = SEPARATOR;
+            }
+        }
+        if (length > 0 && buffer[length - 1] == SEPARATOR)
+            --length;
+        else if (words > 0)
+            wordEnds[words - 1] = length;
+        return this;
+    }
+
+    private void startWord()
+    {
+        if (words == wordStarts.length)
+        {
+            wordStarts = Arrays.copyOf(wordStarts, words * 2);
+            wordEnds = Arrays.copyOf(wordEnds, words * 2);
+        }
+        wordStarts[words++] = length;
+    }
+
+    /**
+     * Normalized characters, valid up to {@link #length()} until the next reset.
+     */
+    public char[] buffer()
+    {
+        return buffer;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public int wordCount()
+    {
+        return words;
+    }
+
+    public int wordStart(int word)
+    {
+        return wordStarts[word];
+    }
+
+    public int wordEnd(int word)
+    {
+        return wordEnds[word];
+    }
+
+    /**
+     * Compares the normalized name with value without building a string.
+     */
+    public boolean contentEquals(CharSequence value)
+    {
+        if (value.length() != length)
+            return false;
+        for (int i = 0; i < length; ++i)
+            if (buffer[i] != value.charAt(i))
+                return false;
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(buffer, 0, length);
+    }
+}
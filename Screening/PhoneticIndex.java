@@ -0,0 +1,203 @@
+package Screening;
+
+import Fetching.ISourceListener;
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index from folded and phonetic keys of names (see {@link NameKeys}) to the names having them.
+ * Keys are computed once when entries are ingested, a query computes only its own keys.
+ */
+public class PhoneticIndex
+{
+    /**
+     * Score of a match found only through the phonetic key is scaled by this factor,
+     * so that it ranks below a folded key match of the same spelling distance.
+     */
+    private static final double PHONETIC_WEIGHT = 0.9;
+
+    private final SanctionListEntry[] entries;
+    private final int[] nameEntries;
+    private final String[] names;
+    private final String[] foldedNames;
+    private final Map<String, int[]> folded;
+    private final Map<String, int[]> phonetic;
+
+    /**
+     * Collects entries together with the keys of their names. Keys of a fetched source are computed
+     * on the worker thread which parsed it, so the builder can be registered as a fetcher listener.
+     * Entries get ids in the order they are added.
+     */
+    public static class Builder implements ISourceListener
+    {
+        private final List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        private final List<Integer> nameEntries = new ArrayList<Integer>();
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> foldedKeys = new ArrayList<String>();
+        private final List<String> phoneticKeys = new ArrayList<String>();
+
+        public Builder add(SanctionListEntry entry)
+        {
+            return addAll(Collections.singletonList(entry));
+        }
+
+        public Builder addAll(Collection<SanctionListEntry> entries)
+        {
+            List<SanctionListEntry> added = new ArrayList<SanctionListEntry>(entries);
+            List<Integer> keyedEntries = new ArrayList<Integer>();
+            List<String> keyedNames = new ArrayList<String>();
+            List<String> keyedFolded = new ArrayList<String>();
+            List<String> keyedPhonetic = new ArrayList<String>();
+            for (int offset = 0; offset < added.size(); ++offset)
+                for (String name : added.get(offset).names)
+                {
+                    String foldedKey = NameKeys.folded(name);
+                    if (foldedKey.length() == 0)
+                        continue;
+                    keyedEntries.add(offset);
+                    keyedNames.add(name);
+                    keyedFolded.add(foldedKey);
+                    keyedPhonetic.add(NameKeys.phonetic(name));
+                }
+
+            synchronized (this)
+            {
+                int first = this.entries.size();
+                this.entries.addAll(added);
+                for (Integer offset : keyedEntries)
+                    nameEntries.add(first + offset);
+                names.addAll(keyedNames);
+                foldedKeys.addAll(keyedFolded);
+                phoneticKeys.addAll(keyedPhonetic);
+            }
+            return this;
+        }
+
+        @Override
+        public void sourceFetched(String name, List<SanctionListEntry> entries)
+        {
+            addAll(entries);
+        }
+
+        public synchronized PhoneticIndex build()
+        {
+            return new PhoneticIndex(this);
+        }
+    }
+
+    public PhoneticIndex(Collection<SanctionListEntry> entries)
+    {
+        this(new Builder().addAll(entries));
+    }
+
+    private PhoneticIndex(Builder builder)
+    {
+        int size = builder.names.size();
+        entries = builder.entries.toArray(new SanctionListEntry[builder.entries.size()]);
+        nameEntries = new int[size];
+        for (int nameId = 0; nameId < size; ++nameId)
+            nameEntries[nameId] = builder.nameEntries.get(nameId);
+        names = builder.names.toArray(new String[size]);
+        foldedNames = builder.foldedKeys.toArray(new String[size]);
+        folded = group(foldedNames);
+        phonetic = group(builder.phoneticKeys.toArray(new String[size]));
+    }
+
+    private static Map<String, int[]> group(String[] keys)
+    {
+        Map<String, int[]> groups = new HashMap<String, int[]>(keys.length * 2);
+        for (int nameId = 0; nameId < keys.length; ++nameId)
+        {
+            if (keys[nameId].length() == 0)
+                continue;
+            int[] ids = groups.get(keys[nameId]);
+            if (ids == null)
+                ids = new int[]{nameId};
+            else
+            {
+                ids = Arrays.copyOf(ids, ids.length + 1);
+                ids[ids.length - 1] = nameId;
+            }
+            groups.put(keys[nameId], ids);
+        }
+        return groups;
+    }
+
+    public int size()
+    {
+        return names.length;
+    }
+
+    public int entryCount()
+    {
+        return entries.length;
+    }
+
+    public SanctionListEntry getEntry(int id)
+    {
+        return entries[id];
+    }
+
+    public int keyCount()
+    {
+        return folded.size() + phonetic.size();
+    }
+
+    /**
+     * Entries having a name with the same folded or phonetic key as name, best score first.
+     * Folded key matches score 1, phonetic ones are scored by edit distance of the folded names.
+     */
+    public List<Match> search(String name)
+    {
+        return search(name, null);
+    }
+
+    /**
+     * Like {@link #search(String)}, restricted to entries whose ids are set in allowed.
+     * A null allowed set does not restrict anything.
+     */
+    public List<Match> search(String name, BitSet allowed)
+    {
+        String foldedKey = NameKeys.folded(name);
+        if (foldedKey.length() == 0)
+            return Collections.emptyList();
+
+        Map<SanctionListEntry, Match> best = new IdentityHashMap<SanctionListEntry, Match>();
+        int[] ids = folded.get(foldedKey);
+        if (ids != null)
+            for (int nameId : ids)
+                if (allowed == null || allowed.get(nameEntries[nameId]))
+                {
+                    SanctionListEntry entry = entries[nameEntries[nameId]];
+                    best.put(entry, new Match(entry, names[nameId], 1.0));
+                }
+
+        ids = phonetic.get(NameKeys.phonetic(name));
+        if (ids != null)
+            for (int nameId : ids)
+            {
+                if (allowed != null && !allowed.get(nameEntries[nameId]))
+                    continue;
+                SanctionListEntry entry = entries[nameEntries[nameId]];
+                String other = foldedNames[nameId];
+                double score = PHONETIC_WEIGHT * (1.0 - (double) NameKeys.distance(foldedKey, other)
+                        / Math.max(foldedKey.length(), other.length()));
+                Match current = best.get(entry);
+                if (current == null || current.score < score)
+                    best.put(entry, new Match(entry, names[nameId], score));
+            }
+
+        List<Match> matches = new ArrayList<Match>(best.values());
+        Collections.sort(matches, Match.BY_SCORE);
+        return matches;
+    }
+}
@@ -0,0 +1,114 @@
+package Screening;
+
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Screens names against a fixed set of entries. Candidates come from the trigram index, the phonetic index and
+ * the fuzzy index, every entry is reported once with its best score. Instances are immutable and safe to share
+ * between threads.
+ * <p>
+ * All indexes are built from one list, so an entry has the same id in each of them and a filter selected
+ * from the attribute index applies directly to the name indexes.
+ */
+public class Screener implements IScreener
+{
+    public static final double DEFAULT_THRESHOLD = 0.6;
+
+    private final TrigramIndex trigrams;
+    private final PhoneticIndex phonetic;
+    private final FuzzyIndex fuzzy;
+    private final AttributeIndex attributes;
+    private final double threshold;
+
+    public Screener(Collection<SanctionListEntry> entries)
+    {
+        this(entries, DEFAULT_THRESHOLD);
+    }
+
+    public Screener(Collection<SanctionListEntry> entries, double threshold)
+    {
+        // Both indexes must see the same instances, lazy collections may decode an entry on every access
+        this(new ArrayList<SanctionListEntry>(entries), threshold);
+    }
+
+    private Screener(List<SanctionListEntry> entries, double threshold)
+    {
+        this.trigrams = new TrigramIndex(entries);
+        this.phonetic = new PhoneticIndex(entries);
+        this.fuzzy = new FuzzyIndex(entries);
+        this.attributes = new AttributeIndex(entries);
+        this.threshold = threshold;
+    }
+
+    @Override
+    public int size()
+    {
+        return trigrams.size();
+    }
+
+    public double getThreshold()
+    {
+        return threshold;
+    }
+
+    public AttributeIndex getAttributes()
+    {
+        return attributes;
+    }
+
+    /**
+     * Matches of name, best score first. Trigram matches and names within {@link FuzzyIndex#DEFAULT_MAX_DISTANCE}
+     * edits must reach the threshold, phonetic key matches are reported regardless of their score.
+     */
+    @Override
+    public List<Match> screen(String name)
+    {
+        return screen(name, (BitSet) null);
+    }
+
+    /**
+     * Matches of name among entries passing filter, best score first.
+     */
+    @Override
+    public List<Match> screen(String name, ScreeningFilter filter)
+    {
+        return screen(name, attributes.select(filter));
+    }
+
+    private List<Match> screen(String name, BitSet allowed)
+    {
+        List<Match> similar = trigrams.search(name, threshold, allowed);
+        List<Match> sounding = phonetic.search(name, allowed);
+        List<Match> close = new ArrayList<Match>();
+        for (Match match : fuzzy.search(name, FuzzyIndex.DEFAULT_MAX_DISTANCE, allowed))
+        {
+            // Matches come best first
+            if (match.score < threshold)
+                break;
+            close.add(match);
+        }
+        if (sounding.isEmpty() && close.isEmpty())
+            return similar;
+
+        Map<SanctionListEntry, Match> best = new IdentityHashMap<SanctionListEntry, Match>();
+        for (List<Match> found : Arrays.asList(similar, sounding, close))
+            for (Match match : found)
+            {
+                Match current = best.get(match.entry);
+                if (current == null || current.score < match.score)
+                    best.put(match.entry, match);
+            }
+        List<Match> matches = new ArrayList<Match>(best.values());
+        Collections.sort(matches, Match.BY_SCORE);
+        return matches;
+    }
+}
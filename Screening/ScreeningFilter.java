@@ -0,0 +1,61 @@
+package Screening;
+
+/**
+ * Restriction of screened entries by year of birth and nationality. Entries without a known date of birth
+ * or nationality pass the corresponding restriction unless unknown values are excluded.
+ */
+public final class ScreeningFilter
+{
+    /**
+     * Open bound of the year range, on either side.
+     */
+    public static final int ANY_YEAR = 0;
+
+    public final int fromYear;
+    public final int toYear;
+    /**
+     * ISO 3166 alpha-2 code, null for any nationality.
+     */
+    public final String nationality;
+    public final boolean includeUnknown;
+
+    public ScreeningFilter(int fromYear, int toYear, String nationality, boolean includeUnknown)
+    {
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        this.nationality = nationality;
+        this.includeUnknown = includeUnknown;
+    }
+
+    public static ScreeningFilter bornIn(int year)
+    {
+        return new ScreeningFilter(year, year, null, true);
+    }
+
+    public static ScreeningFilter nationality(String nationality)
+    {
+        return new ScreeningFilter(ANY_YEAR, ANY_YEAR, CountryCodes.code(nationality), true);
+    }
+
+    public boolean restrictsYear()
+    {
+        return fromYear != ANY_YEAR || toYear != ANY_YEAR;
+    }
+
+    public boolean restrictsNationality()
+    {
+        return nationality != null;
+    }
+
+    private static String year(int year)
+    {
+        return year == ANY_YEAR ? "" : String.valueOf(year);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "born " + (restrictsYear() ? year(fromYear) + "-" + year(toYear) : "any") + ", nationality "
+                + (restrictsNationality() ? nationality : "any") + (includeUnknown ? "" : ", known only");
+    }
+}
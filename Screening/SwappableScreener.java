@@ -0,0 +1,78 @@
+package Screening;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Screener which can be replaced while it is being queried. Indexes of a refreshed list are built
+ * by the caller of {@link #publish(Screener)}, off the query path, and published by a single atomic
+ * reference swap. A query reads the current snapshot once and runs to its end against it, so it sees
+ * either the old or the new entries, never a mix, and it never waits for a refresh.
+ */
+public class SwappableScreener implements IScreener
+{
+    private final AtomicReference<Snapshot> current;
+
+    /**
+     * Immutable screener together with its generation, the first published screener has generation 0.
+     */
+    public static class Snapshot
+    {
+        public final Screener screener;
+        public final long generation;
+        public final long publishedMillis;
+
+        public Snapshot(Screener screener, long generation)
+        {
+            this.screener = screener;
+            this.generation = generation;
+            this.publishedMillis = System.currentTimeMillis();
+        }
+    }
+
+    public SwappableScreener(Screener screener)
+    {
+        current = new AtomicReference<Snapshot>(new Snapshot(screener, 0));
+    }
+
+    public Snapshot snapshot()
+    {
+        return current.get();
+    }
+
+    public Screener getScreener()
+    {
+        return current.get().screener;
+    }
+
+    /**
+     * Replaces the screener, returns the replaced snapshot. Queries already running finish against it.
+     */
+    public Snapshot publish(Screener screener)
+    {
+        while (true)
+        {
+            Snapshot previous = current.get();
+            if (current.compareAndSet(previous, new Snapshot(screener, previous.generation + 1)))
+                return previous;
+        }
+    }
+
+    @Override
+    public List<Match> screen(String name)
+    {
+        return current.get().screener.screen(name);
+    }
+
+    @Override
+    public List<Match> screen(String name, ScreeningFilter filter)
+    {
+        return current.get().screener.screen(name, filter);
+    }
+
+    @Override
+    public int size()
+    {
+        return current.get().screener.size();
+    }
+}
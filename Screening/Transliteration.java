@@ -0,0 +1,68 @@
+package Screening;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Latin spelling of Cyrillic, Greek and Arabic letters and of Latin letters without decomposition.
+ * Input is expected lower case with diacritics already removed, see {@link NameNormalizer}.
+ */
+final class Transliteration
+{
+    private static final Map<Character, String> LETTERS = new HashMap<Character, String>();
+
+    static
+    {
+        // Letters are escaped, the table compiles under any source encoding
+        // Latin letters not decomposed by NFD: sharp s, ae, o with stroke, d with stroke, l with stroke, thorn, oe, dotless i, eth
+        put("\u00df\u00e6\u00f8\u0111\u0142\u00fe\u0153\u0131\u00f0", "ss", "ae", "o", "d", "l", "th", "oe", "i", "d");
+        // Russian, Ukrainian, Belarusian, Bulgarian and Serbian Cyrillic
+        put("\u0430\u0431\u0432\u0433\u0434\u0435\u0451\u0436\u0437\u0438\u0439\u043a\u043b\u043c\u043d\u043e\u043f\u0440\u0441\u0442\u0443\u0444\u0445\u0446\u0447\u0448\u0449\u044a\u044b\u044c\u044d\u044e\u044f\u0456\u0454\u0457\u0491\u045e\u0452\u0458\u0459\u045a\u045b\u045f",
+                "a", "b", "v", "g", "d", "e", "e", "zh", "z", "i", "y", "k", "l", "m", "n", "o", "p", "r", "s", "t",
+                "u", "f", "kh", "ts", "ch", "sh", "shch", "", "y", "", "e", "yu", "ya", "i", "ye", "yi", "g", "u",
+                "dj", "j", "lj", "nj", "c", "dz");
+        put("\u03b1\u03b2\u03b3\u03b4\u03b5\u03b6\u03b7\u03b8\u03b9\u03ba\u03bb\u03bc\u03bd\u03be\u03bf\u03c0\u03c1\u03c3\u03c2\u03c4\u03c5\u03c6\u03c7\u03c8\u03c9",
+                "a", "v", "g", "d", "e", "z", "i", "th", "i", "k", "l", "m", "n", "x", "o", "p", "r", "s", "s", "t",
+                "y", "f", "kh", "ps", "o");
+        // Arabic and Persian, short vowels are not written and their marks are removed by normalization
+        put("\u0627\u0623\u0625\u0622\u0671\u0628\u062a\u062b\u062c\u062d\u062e\u062f\u0630\u0631\u0632\u0633\u0634\u0635\u0636\u0637\u0638\u0639\u063a\u0641\u0642\u0643\u0644\u0645\u0646\u0647\u0648\u064a\u0649\u0629\u0621\u067e\u0686\u0698\u06af\u06a9\u06cc",
+                "a", "a", "i", "a", "a", "b", "t", "th", "j", "h", "kh", "d", "dh", "r", "z", "s", "sh", "s", "d", "t",
+                "z", "", "gh", "f", "q", "k", "l", "m", "n", "h", "w", "y", "a", "a", "", "p", "ch", "zh", "g", "k",
+                "y");
+    }
+
+    private Transliteration()
+    {
+    }
+
+    private static void put(String letters, String... latin)
+    {
+        if (letters.length() != latin.length)
+            throw new IllegalStateException("Transliteration table mismatch: " + letters);
+        for (int i = 0; i < latin.length; ++i)
+            LETTERS.put(letters.charAt(i), latin[i]);
+    }
+
+    /**
+     * Replaces known letters by their Latin spelling, unknown characters are kept.
+     */
+    static String toLatin(String normalized)
+    {
+        StringBuilder out = null;
+        for (int i = 0; i < normalized.length(); ++i)
+        {
+            char c = normalized.charAt(i);
+            String latin = c < 128 ? null : LETTERS.get(c);
+            if (latin != null && out == null)
+                out = new StringBuilder(normalized.length() + 8).append(normalized, 0, i);
+            if (out != null)
+            {
+                if (latin != null)
+                    out.append(latin);
+                else
+                    out.append(c);
+            }
+        }
+        return out == null ? normalized : out.toString();
+    }
+}
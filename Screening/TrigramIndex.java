@@ -0,0 +1,383 @@
+package Screening;
+
+import Parsers.SanctionListEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Inverted index from character trigrams of normalized names to sorted arrays of name ids.
+ * Candidates are names whose trigram Jaccard similarity to the query reaches the threshold.
+ */
+public class TrigramIndex
+{
+    public static final double DEFAULT_SIMILARITY = 0.5;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final SanctionListEntry[] entries;
+    private final int[] nameEntries;
+    private final String[] names;
+    private final int[] nameSizes;
+    private final LongIntHashMap trigramSlots;
+    private final int[][] postings;
+
+    /**
+     * Shared trigram counts indexed by name id, all zero while pooled. Queries running concurrently beyond
+     * the capacity allocate their own arrays, which are dropped afterwards; the pool goes away with the index.
+     */
+    private final BlockingQueue<int[]> counters = new ArrayBlockingQueue<int[]>(2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Best matching names of a query, one per entry, by descending score.
+     */
+    private static class Ranking
+    {
+        final int[] nameIds;
+        final double[] scores;
+
+        Ranking(int[] nameIds, double[] scores)
+        {
+            this.nameIds = nameIds;
+            this.scores = scores;
+        }
+    }
+
+    public TrigramIndex(Collection<SanctionListEntry> entries)
+    {
+        this.entries = entries.toArray(new SanctionListEntry[entries.size()]);
+
+        // First pass assigns trigram slots and sizes the posting lists
+        trigramSlots = new LongIntHashMap(1 << 14);
+        int[] counts = new int[1 << 14];
+        int slots = 0;
+        int names = 0;
+        for (SanctionListEntry entry : this.entries)
+            for (String name : entry.names)
+            {
+                long[] trigrams = trigrams(NameNormalizer.local().reset(name));
+                if (trigrams.length == 0)
+                    continue;
+                ++names;
+                for (long trigram : trigrams)
+                {
+                    int slot = trigramSlots.get(trigram);
+                    if (slot == LongIntHashMap.MISSING)
+                    {
+                        slot = slots++;
+                        trigramSlots.put(trigram, slot);
+                        if (slot == counts.length)
+                            counts = Arrays.copyOf(counts, counts.length * 2);
+                    }
+                    ++counts[slot];
+                }
+            }
+
+        postings = new int[slots][];
+        for (int slot = 0; slot < slots; ++slot)
+            postings[slot] = new int[counts[slot]];
+        Arrays.fill(counts, 0);
+        nameEntries = new int[names];
+        this.names = new String[names];
+        nameSizes = new int[names];
+
+        // Second pass fills the posting lists, name ids ascend so the lists come out sorted
+        int nameId = 0;
+        for (int entryId = 0; entryId < this.entries.length; ++entryId)
+            for (String name : this.entries[entryId].names)
+            {
+                long[] trigrams = trigrams(NameNormalizer.local().reset(name));
+                if (trigrams.length == 0)
+                    continue;
+                for (long trigram : trigrams)
+                {
+                    int slot = trigramSlots.get(trigram);
+                    postings[slot][counts[slot]++] = nameId;
+                }
+                nameEntries[nameId] = entryId;
+                this.names[nameId] = name;
+                nameSizes[nameId] = trigrams.length;
+                ++nameId;
+            }
+    }
+
+    /**
+     * Distinct trigrams of a normalized name padded with a space on both sides,
+     * three characters are packed into one long.
+     */
+    static long[] trigrams(String normalized)
+    {
+        return trigrams(normalized.toCharArray(), normalized.length());
+    }
+
+    static long[] trigrams(NameNormalizer normalized)
+    {
+        return trigrams(normalized.buffer(), normalized.length());
+    }
+
+    private static long[] trigrams(char[] normalized, int length)
+    {
+        if (length == 0)
+            return new long[0];
+        long[] trigrams = new long[length];
+        for (int i = 0; i < trigrams.length; ++i)
+            trigrams[i] = ((long) charAt(normalized, length, i) << 32) | ((long) charAt(normalized, length, i + 1) << 16)
+                    | charAt(normalized, length, i + 2);
+        Arrays.sort(trigrams);
+        int size = 1;
+        for (int i = 1; i < trigrams.length; ++i)
+            if (trigrams[i] != trigrams[size - 1])
+                trigrams[size++] = trigrams[i];
+        return size == trigrams.length ? trigrams : Arrays.copyOf(trigrams, size);
+    }
+
+    private static char charAt(char[] normalized, int length, int paddedIndex)
+    {
+        if (paddedIndex == 0 || paddedIndex == length + 1)
+            return ' ';
+        return normalized[paddedIndex - 1];
+    }
+
+    /**
+     * Trigram Jaccard similarity of two names.
+     */
+    public static double similarity(String first, String second)
+    {
+        long[] a = trigrams(NameNormalizer.local().reset(first));
+        return similarity(a, trigrams(NameNormalizer.local().reset(second)));
+    }
+
+    private static double similarity(long[] a, long[] b)
+    {
+        if (a.length == 0 || b.length == 0)
+            return 0;
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; )
+        {
+            if (a[i] == b[j])
+            {
+                ++shared;
+                ++i;
+                ++j;
+            }
+            else if (a[i] < b[j])
+                ++i;
+            else
+                ++j;
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    public int size()
+    {
+        return entries.length;
+    }
+
+    public int nameCount()
+    {
+        return nameEntries.length;
+    }
+
+    public SanctionListEntry getEntry(int id)
+    {
+        return entries[id];
+    }
+
+    public List<SanctionListEntry> candidates(String name)
+    {
+        return candidates(name, DEFAULT_SIMILARITY);
+    }
+
+    /**
+     * Entries having a name with similarity to name at least minSimilarity, most similar first.
+     */
+    public List<SanctionListEntry> candidates(String name, double minSimilarity)
+    {
+        int[] ids = candidateIds(name, minSimilarity);
+        List<SanctionListEntry> out = new ArrayList<SanctionListEntry>(ids.length);
+        for (int id : ids)
+            out.add(entries[id]);
+        return out;
+    }
+
+    /**
+     * Entries having a name with similarity to name at least minSimilarity, best score first.
+     * Every match reports the most similar name of its entry.
+     */
+    public List<Match> search(String name, double minSimilarity)
+    {
+        return search(name, minSimilarity, null);
+    }
+
+    /**
+     * Like {@link #search(String, double)}, restricted to entries whose ids are set in allowed.
+     * A null allowed set does not restrict anything.
+     */
+    public List<Match> search(String name, double minSimilarity, BitSet allowed)
+    {
+        Ranking ranking = rank(name, minSimilarity, allowed);
+        if (ranking.nameIds.length == 0)
+            return Collections.emptyList();
+        List<Match> matches = new ArrayList<Match>(ranking.nameIds.length);
+        for (int i = 0; i < ranking.nameIds.length; ++i)
+        {
+            int nameId = ranking.nameIds[i];
+            matches.add(new Match(entries[nameEntries[nameId]], names[nameId], ranking.scores[i]));
+        }
+        return matches;
+    }
+
+    /**
+     * Ids of entries having a name with similarity to name at least minSimilarity, most similar first.
+     */
+    public int[] candidateIds(String name, double minSimilarity)
+    {
+        return candidateIds(name, minSimilarity, null);
+    }
+
+    /**
+     * Like {@link #candidateIds(String, double)}, names of entries not set in allowed are skipped
+     * before their trigrams are counted.
+     */
+    public int[] candidateIds(String name, double minSimilarity, BitSet allowed)
+    {
+        int[] nameIds = rank(name, minSimilarity, allowed).nameIds;
+        int[] ids = new int[nameIds.length];
+        for (int i = 0; i < nameIds.length; ++i)
+            ids[i] = nameEntries[nameIds[i]];
+        return ids;
+    }
+
+    private Ranking rank(String name, double minSimilarity, BitSet allowed)
+    {
+        long[] query = trigrams(NameNormalizer.local().reset(name));
+        if (query.length == 0)
+            return new Ranking(EMPTY, new double[0]);
+        int minShared = Math.max(1, (int) Math.ceil(minSimilarity * query.length - 1e-9));
+
+        final int[][] lists = new int[query.length][];
+        for (int i = 0; i < query.length; ++i)
+        {
+            int slot = trigramSlots.get(query[i]);
+            lists[i] = slot == LongIntHashMap.MISSING ? EMPTY : postings[slot];
+        }
+        Arrays.sort(lists, new Comparator<int[]>()
+        {
+            @Override
+            public int compare(int[] o1, int[] o2)
+            {
+                return o1.length - o2.length;
+            }
+        });
+
+        // A name sharing minShared trigrams must appear in one of the query.length - minShared + 1 rarest lists,
+        // the longer lists only add to counts of names found there
+        int probe = query.length - minShared + 1;
+        int[] counts = counters.poll();
+        if (counts == null)
+            counts = new int[nameEntries.length];
+        int[] touched = new int[64];
+        int candidates = 0;
+        for (int i = 0; i < probe; ++i)
+            for (int nameId : lists[i])
+                if ((allowed == null || allowed.get(nameEntries[nameId])) && counts[nameId]++ == 0)
+                {
+                    if (candidates == touched.length)
+                        touched = Arrays.copyOf(touched, candidates * 2);
+                    touched[candidates++] = nameId;
+                }
+
+        for (int i = probe; i < lists.length; ++i)
+        {
+            int[] list = lists[i];
+            if ((long) candidates * (32 - Integer.numberOfLeadingZeros(list.length)) < list.length)
+            {
+                for (int c = 0; c < candidates; ++c)
+                    if (Arrays.binarySearch(list, touched[c]) >= 0)
+                        ++counts[touched[c]];
+            }
+            else
+                for (int nameId : list)
+                    if (counts[nameId] > 0)
+                        ++counts[nameId];
+        }
+
+        int[] matchedNames = new int[16];
+        double[] matchedScores = new double[16];
+        int matched = 0;
+        for (int c = 0; c < candidates; ++c)
+        {
+            int nameId = touched[c];
+            int shared = counts[nameId];
+            counts[nameId] = 0;
+            if (shared < minShared)
+                continue;
+
+            double score = (double) shared / (query.length + nameSizes[nameId] - shared);
+            if (score < minSimilarity)
+                continue;
+            if (matched == matchedNames.length)
+            {
+                matchedNames = Arrays.copyOf(matchedNames, matched * 2);
+                matchedScores = Arrays.copyOf(matchedScores, matched * 2);
+            }
+            matchedNames[matched] = nameId;
+            matchedScores[matched] = score;
+            ++matched;
+        }
+
+        // Every touched count was reset above, an exception before leaves the array to the garbage collector
+        counters.offer(counts);
+        return best(matchedNames, matchedScores, matched);
+    }
+
+    /**
+     * Orders names by descending score, keeping the best name of every entry.
+     */
+    private Ranking best(final int[] nameIds, final double[] scores, int size)
+    {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; ++i)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer o1, Integer o2)
+            {
+                int c = Double.compare(scores[o2], scores[o1]);
+                return c != 0 ? c : nameIds[o1] - nameIds[o2];
+            }
+        });
+
+        int[] outNames = new int[size];
+        double[] outScores = new double[size];
+        int count = 0;
+        // Open addressing set of the entries kept so far, holding entryId + 1 and sized by the matches,
+        // not by the index
+        int[] seen = new int[Integer.highestOneBit(Math.max(size, 1)) << 2];
+        int mask = seen.length - 1;
+        for (Integer i : order)
+        {
+            int entryId = nameEntries[nameIds[i]];
+            int slot = (entryId * 0x9E3779B9) >>> 7 & mask;
+            while (seen[slot] != 0 && seen[slot] != entryId + 1)
+                slot = (slot + 1) & mask;
+            if (seen[slot] != 0)
+                continue;
+            seen[slot] = entryId + 1;
+            outNames[count] = nameIds[i];
+            outScores[count] = scores[i];
+            ++count;
+        }
+        if (count == size)
+            return new Ranking(outNames, outScores);
+        return new Ranking(Arrays.copyOf(outNames, count), Arrays.copyOf(outScores, count));
+    }
+}
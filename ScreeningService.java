@@ -0,0 +1,102 @@
+import Fetching.Configuration;
+import Metrics.IngestMetrics;
+import Screening.CachingScreener;
+import Screening.IScreener;
+import Screening.Screener;
+import Screening.SwappableScreener;
+import Server.ScreeningServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads entries and serves screening requests over HTTP on SERVER_PORT until killed.
+ * <p>
+ * Every REFRESH_INTERVAL seconds (0 disables refreshing) the entries are loaded again when the snapshot
+ * file changed, or always when there is no snapshot. The new indexes are built on a background thread and
+ * swapped in atomically, requests are served from the previous ones in the meantime.
+ * Fetches of the lists are published as JMX MBeans and on /metrics.
+ * <p>
+ * Start with -Dsun.net.httpserver.nodelay=true, see {@link ScreeningServer}.
+ */
+public class ScreeningService
+{
+    public static void main(String[] args)
+    {
+        Properties properties = Configuration.load();
+        IngestMetrics metrics = new IngestMetrics();
+        metrics.registerMBeans();
+        long start = System.nanoTime();
+        Screener screener = new Screener(Fetcher.loadEntries(properties, metrics));
+        System.out.println("Screening index: " + screener.size() + " entries in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        SwappableScreener swappable = new SwappableScreener(screener);
+
+        int port = Integer.parseInt(properties.getProperty("SERVER_PORT").trim());
+        if (!Boolean.getBoolean("sun.net.httpserver.nodelay"))
+            System.out.println("Started without -Dsun.net.httpserver.nodelay=true, small responses are delayed by about 40 ms");
+        try
+        {
+            // Repeated queries are answered from the result cache, 0 disables it
+            int cacheSize = Integer.parseInt(properties.getProperty("SCREEN_CACHE_SIZE").trim());
+            IScreener service = cacheSize > 0 ? new CachingScreener(swappable, cacheSize) : swappable;
+            ScreeningServer server = new ScreeningServer(service, new InetSocketAddress(port));
+            server.setIngestMetrics(metrics);
+            server.start();
+            System.out.println("Listening on port " + server.getPort());
+            scheduleRefresh(properties, swappable, metrics);
+        } catch (IOException e)
+        {
+            System.err.println("IO Exception while starting server on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    private static void scheduleRefresh(final Properties properties, final SwappableScreener swappable, final IngestMetrics metrics)
+    {
+        long interval = Long.parseLong(properties.getProperty("REFRESH_INTERVAL").trim());
+        if (interval <= 0)
+            return;
+        final File snapshot = properties.getProperty("SNAPSHOT_FILE") == null ? null : new File(properties.getProperty("SNAPSHOT_FILE"));
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "index-refresh");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable()
+        {
+            private long lastModified = snapshot == null ? 0 : snapshot.lastModified();
+
+            @Override
+            public void run()
+            {
+                try
+                {
+                    if (snapshot != null && snapshot.exists() && snapshot.lastModified() == lastModified)
+                        return;
+                    long modified = snapshot == null ? 0 : snapshot.lastModified();
+                    long start = System.nanoTime();
+                    Screener screener = new Screener(Fetcher.loadEntries(properties, metrics));
+                    SwappableScreener.Snapshot previous = swappable.publish(screener);
+                    lastModified = modified;
+                    System.out.println("Refreshed screening index: " + screener.size() + " entries (previously " + previous.screener.size()
+                            + ") in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                } catch (RuntimeException e)
+                {
+                    // A failed refresh keeps serving the previous entries
+                    e.printStackTrace();
+                }
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+}
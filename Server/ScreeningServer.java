@@ -0,0 +1,378 @@
+package Server;
+
+import Metrics.IngestMetrics;
+import Metrics.LatencyHistogram;
+import Screening.Match;
+import Screening.CachingScreener;
+import Screening.CountryCodes;
+import Screening.IScreener;
+import Screening.ScreeningFilter;
+import Screening.SwappableScreener;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP endpoint screening names against an in-memory {@link IScreener}.
+ * <ul>
+ * <li>GET /screen?name=... - matches of a single name, optionally restricted by born=1970 or born=1968-1972,
+ * nationality=IR and unknown=false to drop entries without the restricted value</li>
+ * <li>POST /screen/batch - one name per line of the body, matches of every name</li>
+ * <li>GET /stats - request counts, p50 / p99 latencies in microseconds, index generation and result cache statistics</li>
+ * <li>GET /metrics - ingest metrics of the lists in the Prometheus text format, once set by {@link #setIngestMetrics}</li>
+ * </ul>
+ * Requests run on virtual threads when the JVM provides them, otherwise on a fixed pool.
+ * <p>
+ * Start the JVM with -Dsun.net.httpserver.nodelay=true. The JDK server leaves Nagle's algorithm enabled by default,
+ * so every small response waits for the delayed ACK of the client, about 40 ms. The property is JVM-wide
+ * and read once by the JDK, so the server does not set it itself.
+ */
+public class ScreeningServer
+{
+    public static final int MAX_BATCH = 1000;
+
+    private static final int BACKLOG = 256;
+
+    private final IScreener screener;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyHistogram singleLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private volatile IngestMetrics ingestMetrics = null;
+
+    public ScreeningServer(IScreener screener, InetSocketAddress address) throws IOException
+    {
+        this.screener = screener;
+        this.executor = createExecutor();
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/screen", new SingleHandler());
+        server.createContext("/screen/batch", new BatchHandler());
+        server.createContext("/stats", new StatsHandler());
+        server.createContext("/metrics", new MetricsHandler());
+    }
+
+    public void setIngestMetrics(IngestMetrics metrics)
+    {
+        this.ingestMetrics = metrics;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() is looked up reflectively, the code base still targets Java 8.
+     */
+    private static ExecutorService createExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e)
+        {
+            // Virtual threads not available
+        } catch (Exception e)
+        {
+            System.err.println("Virtual threads unavailable: " + e.getMessage());
+        }
+        return Executors.newFixedThreadPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    public void start()
+    {
+        server.start();
+    }
+
+    public void stop()
+    {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyHistogram getSingleLatency()
+    {
+        return singleLatency;
+    }
+
+    public LatencyHistogram getBatchLatency()
+    {
+        return batchLatency;
+    }
+
+    private class SingleHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            long start = System.nanoTime();
+            if (!exactPath(exchange, "/screen"))
+                return;
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET"))
+            {
+                send(exchange, 405, "{\"error\":\"GET required\"}");
+                return;
+            }
+            String name;
+            ScreeningFilter filter;
+            try
+            {
+                name = queryParameter(exchange.getRequestURI().getRawQuery(), "name");
+                filter = filter(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e)
+            {
+                StringBuilder error = new StringBuilder("{\"error\":");
+                appendString(error, e.getMessage());
+                send(exchange, 400, error.append('}').toString());
+                return;
+            }
+            if (name == null || name.trim().length() == 0)
+            {
+                send(exchange, 400, "{\"error\":\"Missing name parameter\"}");
+                return;
+            }
+            StringBuilder out = new StringBuilder();
+            appendMatches(out, filter == null ? screener.screen(name) : screener.screen(name, filter));
+            send(exchange, 200, out.toString());
+            singleLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private class BatchHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            long start = System.nanoTime();
+            if (!exactPath(exchange, "/screen/batch"))
+                return;
+            if (!exchange.getRequestMethod().equalsIgnoreCase("POST"))
+            {
+                send(exchange, 405, "{\"error\":\"POST required\"}");
+                return;
+            }
+            List<String> names = new ArrayList<String>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.trim().length() == 0)
+                    continue;
+                if (names.size() == MAX_BATCH)
+                {
+                    send(exchange, 413, "{\"error\":\"At most " + MAX_BATCH + " names per batch\"}");
+                    return;
+                }
+                names.add(line.trim());
+            }
+
+            StringBuilder out = new StringBuilder("[");
+            for (String name : names)
+            {
+                if (out.length() > 1)
+                    out.append(',');
+                out.append("{\"name\":");
+                appendString(out, name);
+                out.append(",\"matches\":");
+                appendMatches(out, screener.screen(name));
+                out.append('}');
+            }
+            out.append(']');
+            send(exchange, 200, out.toString());
+            batchLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    private class StatsHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            if (!exactPath(exchange, "/stats"))
+                return;
+            StringBuilder out = new StringBuilder();
+            out.append("{\"entries\":").append(screener.size());
+            out.append(",\"screen\":");
+            appendLatency(out, singleLatency);
+            out.append(",\"batch\":");
+            appendLatency(out, batchLatency);
+            SwappableScreener swappable = screener instanceof CachingScreener ? ((CachingScreener) screener).getSource()
+                    : screener instanceof SwappableScreener ? (SwappableScreener) screener : null;
+            if (swappable != null)
+                out.append(",\"generation\":").append(swappable.snapshot().generation);
+            if (screener instanceof CachingScreener)
+            {
+                CachingScreener cache = (CachingScreener) screener;
+                out.append(",\"cache\":{\"size\":").append(cache.getCachedCount())
+                        .append(",\"hits\":").append(cache.getHits())
+                        .append(",\"misses\":").append(cache.getMisses())
+                        .append(",\"evictions\":").append(cache.getEvictions())
+                        .append('}');
+            }
+            out.append('}');
+            send(exchange, 200, out.toString());
+        }
+    }
+
+    private class MetricsHandler implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            if (!exactPath(exchange, "/metrics"))
+                return;
+            IngestMetrics metrics = ingestMetrics;
+            if (metrics == null)
+                send(exchange, 404, "{\"error\":\"metrics are not enabled\"}");
+            else
+                send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", metrics.toPrometheus());
+        }
+    }
+
+    private static void appendLatency(StringBuilder out, LatencyHistogram histogram)
+    {
+        out.append("{\"count\":").append(histogram.getCount())
+                .append(",\"p50_us\":").append(histogram.getPercentile(0.5))
+                .append(",\"p99_us\":").append(histogram.getPercentile(0.99))
+                .append('}');
+    }
+
+    private static void appendMatches(StringBuilder out, List<Match> matches)
+    {
+        out.append('[');
+        for (int i = 0; i < matches.size(); ++i)
+        {
+            Match match = matches.get(i);
+            if (i > 0)
+                out.append(',');
+            out.append("{\"name\":");
+            appendString(out, match.matchedName);
+            out.append(",\"sources\":[");
+            boolean first = true;
+            for (String source : match.getSources())
+            {
+                if (!first)
+                    out.append(',');
+                appendString(out, source);
+                first = false;
+            }
+            out.append("],\"score\":").append(Math.round(match.score * 1000) / 1000.0).append('}');
+        }
+        out.append(']');
+    }
+
+    private static void appendString(StringBuilder out, String value)
+    {
+        out.append('"');
+        for (int i = 0; i < value.length(); ++i)
+        {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                out.append('\\').append(c);
+            else if (c < 0x20)
+                out.append(String.format("\\u%04x", (int) c));
+            else
+                out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * Filter given by the born, nationality and unknown parameters, null when neither born nor nationality is given.
+     */
+    private static ScreeningFilter filter(String query) throws UnsupportedEncodingException
+    {
+        String born = queryParameter(query, "born");
+        String nationality = queryParameter(query, "nationality");
+        if (born == null && nationality == null)
+            return null;
+
+        int fromYear = ScreeningFilter.ANY_YEAR;
+        int toYear = ScreeningFilter.ANY_YEAR;
+        if (born != null)
+        {
+            int dash = born.indexOf('-');
+            try
+            {
+                fromYear = Integer.parseInt(born.substring(0, dash < 0 ? born.length() : dash).trim());
+                toYear = dash < 0 ? fromYear : Integer.parseInt(born.substring(dash + 1).trim());
+            } catch (NumberFormatException e)
+            {
+                throw new IllegalArgumentException("Invalid born parameter: " + born);
+            }
+            if (fromYear > toYear)
+                throw new IllegalArgumentException("Invalid born parameter: " + born);
+        }
+        String code = null;
+        if (nationality != null)
+        {
+            code = CountryCodes.code(nationality);
+            if (code == null)
+                throw new IllegalArgumentException("Unknown nationality: " + nationality);
+        }
+        return new ScreeningFilter(fromYear, toYear, code, !"false".equals(queryParameter(query, "unknown")));
+    }
+
+    /**
+     * Decoded value of the parameter, IllegalArgumentException when it is not valid URL encoding.
+     */
+    private static String queryParameter(String query, String parameter) throws UnsupportedEncodingException
+    {
+        if (query == null)
+            return null;
+        for (String pair : query.split("&"))
+        {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(parameter))
+            {
+                try
+                {
+                    return URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+                } catch (IllegalArgumentException e)
+                {
+                    throw new IllegalArgumentException("Invalid encoding of " + parameter + " parameter");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Contexts match every path with their prefix, anything longer than the context path itself is answered with 404.
+     */
+    private static boolean exactPath(HttpExchange exchange, String path) throws IOException
+    {
+        if (exchange.getRequestURI().getPath().equals(path))
+            return true;
+        send(exchange, 404, "{\"error\":\"Not found\"}");
+        return false;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException
+    {
+        send(exchange, status, "application/json; charset=utf-8", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException
+    {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+}
@@ -0,0 +1,61 @@
+package Storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary snapshot, all numbers are big endian:
+ * <pre>
+ * header   magic, version, entry count, string count, string index offset, record index offset, CRC32
+ * strings  UTF-8 bytes of every distinct string
+ * index    string count + 1 offsets of string starts, the last one is the end of string data
+ * records  per entry seven fields (names, addresses, nationalities, places and dates of birth, sources
+ *          and the list id, none or one), each a varint count followed by varint string ids
+ * index    entry count offsets of records
+ * </pre>
+ * The checksum covers everything after the header.
+ */
+final class SnapshotFormat
+{
+    static final int MAGIC = 0x534C5331; // "SLS1"
+    static final int VERSION = 3;
+    static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 4 + 8;
+    static final int FIELDS = 7;
+
+    private SnapshotFormat()
+    {
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value)
+    {
+        while ((value & ~0x7f) != 0)
+        {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int varIntSize(int value)
+    {
+        int size = 1;
+        while ((value & ~0x7f) != 0)
+        {
+            ++size;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    static int getVarInt(ByteBuffer buffer)
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0)
+                return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
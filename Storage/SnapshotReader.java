@@ -0,0 +1,173 @@
+package Storage;
+
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Memory mapped snapshot written by {@link SnapshotWriter}, records are decoded on access.
+ */
+public class SnapshotReader
+{
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int stringCount;
+    private final int stringIndexOffset;
+    private final int recordIndexOffset;
+    private final String[] strings;
+
+    private SnapshotReader(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+        if (buffer.capacity() < SnapshotFormat.HEADER_SIZE)
+            throw new IOException("Corrupt snapshot: truncated header");
+        if (buffer.getInt(0) != SnapshotFormat.MAGIC)
+            throw new IOException("Not a snapshot file");
+        int version = buffer.getInt(4);
+        if (version != SnapshotFormat.VERSION)
+            throw new IOException("Unsupported snapshot version " + version);
+
+        entryCount = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        stringIndexOffset = buffer.getInt(16);
+        recordIndexOffset = buffer.getInt(20);
+        long expected = buffer.getLong(24);
+
+        if (entryCount < 0 || stringCount < 0
+                || stringIndexOffset < SnapshotFormat.HEADER_SIZE
+                || (long) stringIndexOffset + 4L * (stringCount + 1) > recordIndexOffset
+                || (long) recordIndexOffset + 4L * entryCount != buffer.capacity())
+            throw new IOException("Corrupt snapshot: inconsistent header");
+
+        ByteBuffer body = buffer.duplicate();
+        body.position(SnapshotFormat.HEADER_SIZE);
+        CRC32 checksum = new CRC32();
+        checksum.update(body);
+        if (checksum.getValue() != expected)
+            throw new IOException("Corrupt snapshot: checksum mismatch");
+
+        strings = new String[stringCount];
+    }
+
+    public static SnapshotReader open(File file) throws IOException
+    {
+        RandomAccessFile stream = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = stream.getChannel();
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Corrupt snapshot: file too large");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SnapshotReader(buffer);
+        } finally
+        {
+            stream.close();
+        }
+    }
+
+    public int size()
+    {
+        return entryCount;
+    }
+
+    private String getString(int id)
+    {
+        String value = strings[id];
+        if (value == null)
+        {
+            int start = buffer.getInt(stringIndexOffset + 4 * id);
+            int end = buffer.getInt(stringIndexOffset + 4 * (id + 1));
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.limit(end).position(start);
+            value = UTF8.decode(bytes).toString();
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private void readField(ByteBuffer record, SanctionListEntry.Builder builder, int field)
+    {
+        int count = SnapshotFormat.getVarInt(record);
+        for (int i = 0; i < count; ++i)
+        {
+            String value = getString(SnapshotFormat.getVarInt(record));
+            switch (field)
+            {
+                case 0:
+                    builder.addName(value);
+                    break;
+                case 1:
+                    builder.addAddress(value);
+                    break;
+                case 2:
+                    builder.addNationality(value);
+                    break;
+                case 3:
+                    builder.addPlaceOfBirth(value);
+                    break;
+                case 4:
+                    builder.addDateOfBirth(value);
+                    break;
+                case 5:
+                    builder.addSource(value);
+                    break;
+                default:
+                    builder.setId(value);
+            }
+        }
+    }
+
+    public SanctionListEntry getEntry(int index)
+    {
+        if (index < 0 || index >= entryCount)
+            throw new IndexOutOfBoundsException("Entry " + index + " of " + entryCount);
+
+        ByteBuffer record = buffer.duplicate();
+        record.position(buffer.getInt(recordIndexOffset + 4 * index));
+        SanctionListEntry.Builder builder = new SanctionListEntry.Builder();
+        for (int field = 0; field < SnapshotFormat.FIELDS; ++field)
+            readField(record, builder, field);
+        return builder.build();
+    }
+
+    /**
+     * Lazy list view, entries are decoded on every access.
+     */
+    public List<SanctionListEntry> asList()
+    {
+        return new AbstractList<SanctionListEntry>()
+        {
+            @Override
+            public SanctionListEntry get(int index)
+            {
+                return getEntry(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return entryCount;
+            }
+        };
+    }
+
+    public List<SanctionListEntry> readAll()
+    {
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>(entryCount);
+        for (int i = 0; i < entryCount; ++i)
+            entries.add(getEntry(i));
+        return entries;
+    }
+}
@@ -0,0 +1,139 @@
+package Storage;
+
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+public class SnapshotWriter
+{
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static List<Set<String>> fields(SanctionListEntry entry)
+    {
+        List<Set<String>> fields = new ArrayList<Set<String>>(SnapshotFormat.FIELDS);
+        fields.add(entry.names);
+        fields.add(entry.addresses);
+        fields.add(entry.nationalities);
+        fields.add(entry.placesOfBirth);
+        fields.add(entry.datesOfBirth);
+        fields.add(entry.sources);
+        fields.add(entry.id == null ? Collections.<String>emptySet() : Collections.singleton(entry.id));
+        return fields;
+    }
+
+    /**
+     * Writes entries to file, the previous snapshot is replaced only once the new one is complete.
+     */
+    public static void write(File file, Collection<SanctionListEntry> entries) throws IOException
+    {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<byte[]> strings = new ArrayList<byte[]>();
+        int stringBytes = 0;
+        int recordBytes = 0;
+        for (SanctionListEntry entry : entries)
+        {
+            for (Set<String> field : fields(entry))
+            {
+                recordBytes += SnapshotFormat.varIntSize(field.size());
+                for (String value : field)
+                {
+                    Integer id = ids.get(value);
+                    if (id == null)
+                    {
+                        id = strings.size();
+                        ids.put(value, id);
+                        byte[] bytes = value.getBytes(UTF8);
+                        strings.add(bytes);
+                        stringBytes += bytes.length;
+                    }
+                    recordBytes += SnapshotFormat.varIntSize(id);
+                }
+            }
+        }
+
+        int stringIndexOffset = SnapshotFormat.HEADER_SIZE + stringBytes;
+        int recordsOffset = stringIndexOffset + 4 * (strings.size() + 1);
+        int recordIndexOffset = recordsOffset + recordBytes;
+        long size = (long) recordIndexOffset + 4L * entries.size();
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("Snapshot too large: " + size + " bytes");
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.position(SnapshotFormat.HEADER_SIZE);
+        for (byte[] bytes : strings)
+            buffer.put(bytes);
+
+        int offset = SnapshotFormat.HEADER_SIZE;
+        for (byte[] bytes : strings)
+        {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+
+        int[] recordOffsets = new int[entries.size()];
+        int record = 0;
+        for (SanctionListEntry entry : entries)
+        {
+            recordOffsets[record++] = buffer.position();
+            for (Set<String> field : fields(entry))
+            {
+                SnapshotFormat.putVarInt(buffer, field.size());
+                for (String value : field)
+                    SnapshotFormat.putVarInt(buffer, ids.get(value));
+            }
+        }
+        for (int recordOffset : recordOffsets)
+            buffer.putInt(recordOffset);
+
+        buffer.position(SnapshotFormat.HEADER_SIZE);
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer);
+
+        buffer.position(0);
+        buffer.putInt(SnapshotFormat.MAGIC);
+        buffer.putInt(SnapshotFormat.VERSION);
+        buffer.putInt(entries.size());
+        buffer.putInt(strings.size());
+        buffer.putInt(stringIndexOffset);
+        buffer.putInt(recordIndexOffset);
+        buffer.putLong(checksum.getValue());
+        buffer.position(0);
+
+        File temporary = new File(file.getPath() + ".part");
+        FileOutputStream stream = new FileOutputStream(temporary);
+        try
+        {
+            FileChannel channel = stream.getChannel();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        } finally
+        {
+            stream.close();
+        }
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package Tests;
+
+import Parsers.SanctionListEntry;
+import Screening.AttributeIndex;
+import Screening.ScreeningFilter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Entries selected by year of birth and nationality, with closed ranges, ranges open on either side
+ * and entries without a known value.
+ */
+public class AttributeIndexTest
+{
+    private static String ids(BitSet selected)
+    {
+        return selected == null ? "all" : selected.toString();
+    }
+
+    public static void main(String[] args)
+    {
+        List<SanctionListEntry> entries = Arrays.asList(
+                new SanctionListEntry.Builder("UN").addName("A").addDateOfBirth("1955").addNationality("Syria").build(),
+                new SanctionListEntry.Builder("UN").addName("B").addDateOfBirth("12 Mar 1974").addNationality("Russia").build(),
+                new SanctionListEntry.Builder("UN").addName("C").addDateOfBirth("1961-07-03").addNationality("Iran").build(),
+                new SanctionListEntry.Builder("UN").addName("D").build(),
+                new SanctionListEntry.Builder("UN").addName("E").addDateOfBirth("1990").build());
+        AttributeIndex index = new AttributeIndex(entries);
+
+        equal("all", ids(index.select(null)), "no filter");
+        equal("all", ids(index.select(new ScreeningFilter(ScreeningFilter.ANY_YEAR, ScreeningFilter.ANY_YEAR, null, true))),
+                "filter without restriction");
+        equal("{1, 2, 3}", ids(index.select(new ScreeningFilter(1960, 1975, null, true))), "closed range and unknown");
+        equal("{1, 2}", ids(index.select(new ScreeningFilter(1960, 1975, null, false))), "closed range, known only");
+        equal("{1, 3}", ids(index.select(ScreeningFilter.bornIn(1974))), "single year and unknown");
+        equal("{1, 2, 4}", ids(index.select(new ScreeningFilter(1960, ScreeningFilter.ANY_YEAR, null, false))),
+                "lower bound only");
+        equal("{0, 2}", ids(index.select(new ScreeningFilter(ScreeningFilter.ANY_YEAR, 1970, null, false))),
+                "upper bound only");
+        equal("{0, 1, 2, 4}", ids(index.select(new ScreeningFilter(1700, 2200, null, false))), "range beyond the known years");
+
+        equal("{2, 3, 4}", ids(index.select(ScreeningFilter.nationality("IRN"))), "nationality and unknown");
+        equal("{2}", ids(index.select(new ScreeningFilter(ScreeningFilter.ANY_YEAR, ScreeningFilter.ANY_YEAR, "IR", false))),
+                "nationality, known only");
+        equal("{1}", ids(index.select(new ScreeningFilter(1970, ScreeningFilter.ANY_YEAR, "RU", false))),
+                "lower bound and nationality");
+        check(index.select(new ScreeningFilter(1980, ScreeningFilter.ANY_YEAR, "RU", false)).isEmpty(), "no entry passes");
+        equal("born 1960-, nationality any, known only", new ScreeningFilter(1960, ScreeningFilter.ANY_YEAR, null, false).toString(),
+                "open range described");
+        Checks.exit();
+    }
+}
@@ -0,0 +1,125 @@
+package Tests;
+
+import Fetching.DeltaTracker;
+import Fetching.SourceLoader;
+import Parsers.BIS_Parser.Parser;
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static Tests.Checks.equal;
+
+/**
+ * Chunked parses of a local BIS copy return the entries and skipped rows of the streamed parse, in file order,
+ * for rows with quoted line breaks, doubled and escaped quotes, malformed and empty rows.
+ */
+public class BISParserTest
+{
+    private static final int COLUMNS = 27;
+    /**
+     * Enough rows for the file to be split into a chunk per thread and more.
+     */
+    private static final int ROWS = 12000;
+
+    private static String field(Random random, int row, int column)
+    {
+        switch (random.nextInt(12))
+        {
+            case 0:
+                return "\"Line " + row + "\nnext line " + column + "\"";
+            case 1:
+                return "\"Quoted \"\"" + row + "\"\", with comma\"";
+            case 2:
+                return "\"Escaped \\\"" + row + "\\\" quote\"";
+            case 3:
+                return "";
+            default:
+                return "Value " + row + " " + column + "; Other " + random.nextInt(1000);
+        }
+    }
+
+    private static File generate(Random random) throws IOException
+    {
+        File file = File.createTempFile("bis-", ".csv");
+        file.deleteOnExit();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try
+        {
+            out.write("source,entity_number,type,programs,name\n");
+            for (int row = 0; row < ROWS; ++row)
+            {
+                if (row % 997 == 0)
+                {
+                    out.write("Malformed," + row + ",row\n");
+                    continue;
+                }
+                if (row % 1009 == 0)
+                {
+                    out.write("\n");
+                    continue;
+                }
+                StringBuilder line = new StringBuilder();
+                for (int column = 0; column < COLUMNS; ++column)
+                {
+                    if (column > 0)
+                        line.append(',');
+                    line.append(column == 1 ? Integer.toString(row) : field(random, row, column));
+                }
+                out.write(line.append('\n').toString());
+            }
+        } finally
+        {
+            out.close();
+        }
+        return file;
+    }
+
+    private static List<String> describe(List<SanctionListEntry> entries)
+    {
+        List<String> out = new ArrayList<String>();
+        for (SanctionListEntry entry : entries)
+            out.add(entry.id + " " + DeltaTracker.fingerprint(entry));
+        return out;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File file = generate(new Random(7));
+
+        Parser streamed = new Parser();
+        List<String> expected = describe(SourceLoader.parseStream(new FileInputStream(file), streamed));
+
+        for (int threads = 1; threads <= 4; ++threads)
+        {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try
+            {
+                Parser chunked = new Parser();
+                List<String> actual = describe(SourceLoader.parseFile(file, chunked, pool));
+                equal(expected.size(), actual.size(), "entries on " + threads + " threads");
+                equal(expected, actual, "entries in file order on " + threads + " threads");
+                equal(streamed.getSkippedCount(), chunked.getSkippedCount(), "skipped rows on " + threads + " threads");
+            } finally
+            {
+                pool.shutdown();
+            }
+        }
+
+        File empty = File.createTempFile("bis-", ".csv");
+        empty.deleteOnExit();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        equal(0, SourceLoader.parseFile(empty, new Parser(), pool).size(), "entries of an empty file");
+        pool.shutdown();
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,136 @@
+package Tests;
+
+import Parsers.BOE_Parser.Parser;
+import Parsers.SanctionListEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Rows of a group spread over the input are returned as a single entry per group, both when the rows fit
+ * the row budget and when sorted runs are spilled, spilled runs are deleted once merged.
+ */
+public class BOEParserTest
+{
+    private static final int GROUPS = 3000;
+    private static final int COLUMNS = 29;
+
+    private static void row(StringBuilder out, String name, String groupId)
+    {
+        for (int column = 0; column < COLUMNS; ++column)
+        {
+            if (column > 0)
+                out.append(',');
+            if (column == 0)
+                out.append(name);
+            else if (column == COLUMNS - 1)
+                out.append(groupId);
+        }
+        out.append('\n');
+    }
+
+    private static int runFiles()
+    {
+        String[] files = new File(System.getProperty("java.io.tmpdir")).list();
+        int count = 0;
+        for (String file : files == null ? new String[0] : files)
+            if (file.startsWith("boe-run-"))
+                ++count;
+        return count;
+    }
+
+    private static List<SanctionListEntry> parse(Parser parser, byte[] bytes)
+    {
+        parser.initialize(new ByteArrayInputStream(bytes));
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        for (SanctionListEntry entry = parser.getNextEntry(); entry != null; entry = parser.getNextEntry())
+            entries.add(entry);
+        return entries;
+    }
+
+    private static Map<String, Set<String>> names(List<SanctionListEntry> entries)
+    {
+        Map<String, Set<String>> names = new HashMap<String, Set<String>>();
+        for (SanctionListEntry entry : entries)
+        {
+            Set<String> group = names.get(entry.id);
+            if (group == null)
+                names.put(entry.id, group = new TreeSet<String>());
+            group.addAll(entry.names);
+        }
+        return names;
+    }
+
+    private static boolean ascending(List<SanctionListEntry> entries)
+    {
+        for (int i = 1; i < entries.size(); ++i)
+            if (Integer.parseInt(entries.get(i - 1).id) >= Integer.parseInt(entries.get(i).id))
+                return false;
+        return true;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        // Rows sorted by name as in the HMT list, the rows of every group are far apart
+        StringBuilder csv = new StringBuilder("Last Updated,14/03/2016\nheader\n");
+        Map<String, Set<String>> expected = new HashMap<String, Set<String>>();
+        for (int alias = 0; alias < 2; ++alias)
+        {
+            for (int group = 1; group <= GROUPS; ++group)
+            {
+                row(csv, "NAME" + group + "X" + alias, Integer.toString(group));
+                if (alias == 0)
+                    expected.put(Integer.toString(group), new TreeSet<String>());
+                expected.get(Integer.toString(group)).add("NAME" + group + "X" + alias);
+                if (alias == 0 && group == GROUPS / 2)
+                    row(csv, "MALFORMED", "not a number");
+            }
+        }
+        for (int group = 10; group <= GROUPS; group += 10)
+        {
+            row(csv, "LATE" + group, Integer.toString(group));
+            expected.get(Integer.toString(group)).add("LATE" + group);
+        }
+        byte[] bytes = csv.toString().getBytes("UTF-8");
+
+        int filesBefore = runFiles();
+        Parser parser = new Parser(500);
+        parser.initialize(new ByteArrayInputStream(bytes));
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        SanctionListEntry entry = parser.getNextEntry();
+        check(runFiles() > filesBefore, "runs over the row budget spilled");
+        for (; entry != null; entry = parser.getNextEntry())
+            entries.add(entry);
+
+        equal(GROUPS, entries.size(), "one entry per group");
+        check(ascending(entries), "groups returned once each, by group id");
+        equal(expected, names(entries), "names by group id");
+        equal(1, parser.getSkippedCount(), "skipped malformed rows");
+        equal(filesBefore, runFiles(), "spilled runs deleted once merged");
+
+        List<SanctionListEntry> inMemory = parse(new Parser(), bytes);
+        equal(GROUPS, inMemory.size(), "one entry per group within the row budget");
+        check(ascending(inMemory), "groups within the row budget by group id");
+        equal(expected, names(inMemory), "names by group id within the row budget");
+        equal(filesBefore, runFiles(), "nothing spilled within the row budget");
+
+        // An abandoned parse drops its runs on the next initialize
+        parser.initialize(new ByteArrayInputStream(bytes));
+        parser.getNextEntry();
+        parser.initialize(new ByteArrayInputStream(new byte[0]));
+        equal(filesBefore, runFiles(), "spilled runs of an abandoned parse deleted");
+        check(parser.getNextEntry() == null, "empty input");
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,95 @@
+package Tests;
+
+import Screening.BatchScreening;
+import Screening.IScreener;
+import Screening.Match;
+import Screening.ScreeningFilter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Header rows are not screened and a failing chunk fails the whole batch run.
+ */
+public class BatchScreeningTest
+{
+    /**
+     * Remembers screened names, fails on the name given.
+     */
+    private static class RecordingScreener implements IScreener
+    {
+        private final Set<String> screened = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private final String failing;
+
+        RecordingScreener(String failing)
+        {
+            this.failing = failing;
+        }
+
+        @Override
+        public List<Match> screen(String name)
+        {
+            if (name.equals(failing))
+                throw new IllegalArgumentException("Unexpected name " + name);
+            screened.add(name);
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Match> screen(String name, ScreeningFilter filter)
+        {
+            return screen(name);
+        }
+
+        @Override
+        public int size()
+        {
+            return 0;
+        }
+    }
+
+    private static String customers(int records)
+    {
+        StringBuilder out = new StringBuilder("id,name\n");
+        for (int i = 1; i <= records; ++i)
+            out.append(i).append(",Customer ").append(i).append('\n');
+        return out.toString();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int records = 3 * BatchScreening.CHUNK_SIZE + 7;
+
+        RecordingScreener screener = new RecordingScreener(null);
+        BatchScreening.Result result = new BatchScreening(screener, 2).run(new StringReader(customers(records)), new StringWriter());
+        equal((long) records, result.records, "records without the header");
+        check(!screener.screened.contains("name"), "header is not screened");
+        equal(records, screener.screened.size(), "screened names");
+
+        screener = new RecordingScreener(null);
+        result = new BatchScreening(screener, 2, false).run(new StringReader(customers(records)), new StringWriter());
+        equal((long) records + 1, result.records, "records with the first row screened");
+        check(screener.screened.contains("name"), "first row screened without header");
+
+        boolean failed = false;
+        try
+        {
+            new BatchScreening(new RecordingScreener("Customer 600"), 2).run(new StringReader(customers(records)), new StringWriter());
+        } catch (IllegalStateException e)
+        {
+            failed = true;
+            check(e.getMessage().contains("records 513 to 1024"), "failure names the chunk: " + e.getMessage());
+        }
+        check(failed, "failing chunk fails the run");
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,47 @@
+package Tests;
+
+import java.util.Arrays;
+
+/**
+ * Minimal assertions of the self-checking test programs, every failure is reported and counted,
+ * {@link #exit()} ends the program with status 1 when any check failed.
+ */
+final class Checks
+{
+    private static int failures = 0;
+    private static int passed = 0;
+
+    private Checks()
+    {
+    }
+
+    public static void check(boolean condition, String message)
+    {
+        if (condition)
+            ++passed;
+        else
+        {
+            ++failures;
+            System.err.println("FAILED: " + message);
+        }
+    }
+
+    public static void equal(Object expected, Object actual, String message)
+    {
+        check(expected == null ? actual == null : expected.equals(actual),
+                message + ": expected " + expected + ", got " + actual);
+    }
+
+    public static void equal(int[] expected, int[] actual, String message)
+    {
+        check(Arrays.equals(expected, actual),
+                message + ": expected " + Arrays.toString(expected) + ", got " + Arrays.toString(actual));
+    }
+
+    public static void exit()
+    {
+        System.out.println(passed + " checks passed, " + failures + " failed");
+        if (failures > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,37 @@
+package Tests;
+
+import Screening.CountryCodes;
+
+import static Tests.Checks.equal;
+
+/**
+ * Nationalities and countries as written by the lists.
+ */
+public class CountryCodesTest
+{
+    public static void main(String[] args)
+    {
+        equal("IR", CountryCodes.code("IR"), "alpha-2 code");
+        equal("IR", CountryCodes.code("IRN"), "alpha-3 code");
+        equal("IR", CountryCodes.code("Iran"), "English name");
+        equal("IR", CountryCodes.code("Iran (Islamic Republic of)"), "qualification in parentheses");
+        equal("IR", CountryCodes.code("Iranian"), "demonym");
+        equal("IR", CountryCodes.code("Tehran, Iran"), "place and country");
+        equal("KP", CountryCodes.code("Democratic People's Republic of Korea"), "UN name");
+
+        equal("KP", CountryCodes.code("Korea, North"), "OFAC North Korea");
+        equal("KR", CountryCodes.code("Korea, South"), "OFAC South Korea");
+        equal("CD", CountryCodes.code("Congo, Democratic Republic of the"), "OFAC Democratic Republic of the Congo");
+        equal("CG", CountryCodes.code("Congo, Republic of the"), "OFAC Republic of the Congo");
+        equal("BS", CountryCodes.code("Bahamas, The"), "OFAC Bahamas");
+        equal("FM", CountryCodes.code("Micronesia, Federated States of"), "OFAC Micronesia");
+        equal("KP", CountryCodes.code("Pyongyang, Korea, North"), "place and OFAC country");
+        equal("HK", CountryCodes.code("Hong Kong"), "Hong Kong");
+        equal("MO", CountryCodes.code("Macau"), "Macau");
+        equal("MM", CountryCodes.code("Burma"), "Burma");
+        equal("BA", CountryCodes.code("Bosnia and Herzegovina"), "name with and");
+        equal(null, CountryCodes.code("Atlantis"), "unknown country");
+        equal(null, CountryCodes.code(null), "null");
+        Checks.exit();
+    }
+}
@@ -0,0 +1,32 @@
+package Tests;
+
+import Screening.DatesOfBirth;
+
+import static Tests.Checks.equal;
+
+/**
+ * Dates of birth in the formats of the lists, including year ranges.
+ */
+public class DatesOfBirthTest
+{
+    public static void main(String[] args)
+    {
+        equal(new int[]{19620131}, DatesOfBirth.parse("1962-01-31"), "ISO date");
+        equal(new int[]{19620131}, DatesOfBirth.parse("31/01/1962"), "day first");
+        equal(new int[]{19620131}, DatesOfBirth.parse("31 Jan 1962"), "day and month name");
+        equal(new int[]{19620131}, DatesOfBirth.parse("Jan 31, 1962"), "month name first");
+        equal(new int[]{19620100}, DatesOfBirth.parse("January 1962"), "month and year");
+        equal(new int[]{19620000}, DatesOfBirth.parse("circa 1962"), "year only");
+        equal(new int[]{19620131, 19630000}, DatesOfBirth.parse("31 Jan 1962; 1963"), "two dates");
+
+        equal(new int[]{19600000, 19610000, 19620000}, DatesOfBirth.parse("1960 to 1962"), "range with to");
+        equal(new int[]{19740000, 19750000}, DatesOfBirth.parse("Between 1974 and 1975"), "range with between and");
+        equal(new int[]{19600000, 19610000, 19620000}, DatesOfBirth.parse("1960-1962"), "range with hyphen");
+        equal(new int[]{19600100, 19610000, 19620300}, DatesOfBirth.parse("Jan 1960 to Mar 1962"), "range of months");
+        equal(new int[]{19620000, 19600000}, DatesOfBirth.parse("1962 to 1960"), "reversed range");
+        equal(new int[]{18000000, 20990000}, DatesOfBirth.parse("1800 to 2099"), "too long range");
+        equal(new int[0], DatesOfBirth.parse("unknown"), "no date");
+        equal(new int[0], DatesOfBirth.parse(null), "null");
+        Checks.exit();
+    }
+}
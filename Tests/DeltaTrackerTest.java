@@ -0,0 +1,76 @@
+package Tests;
+
+import Benchmarks.ParserFixtures;
+import Fetching.DeltaTracker;
+import Fetching.SourceLoader;
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Delta of list entries keyed by their list ids, ids assigned by the parsers of the checked-in samples.
+ */
+public class DeltaTrackerTest
+{
+    private static SanctionListEntry entry(String id, String name, String dateOfBirth)
+    {
+        return new SanctionListEntry.Builder("EU").setId(id).addName(name).addDateOfBirth(dateOfBirth).build();
+    }
+
+    private static Set<String> ids(String list, File fixtures) throws IOException
+    {
+        File sample = ParserFixtures.sample(list, fixtures);
+        List<SanctionListEntry> entries = SourceLoader.parseStream(new FileInputStream(sample), SourceLoader.createParser(list + "_Parser"));
+        Set<String> ids = new HashSet<String>();
+        for (SanctionListEntry entry : entries)
+            ids.add(entry.id);
+        return ids;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File directory = Files.createTempDirectory("delta").toFile();
+        File fingerprints = new File(directory, "EU.fingerprints");
+        try
+        {
+            DeltaTracker tracker = new DeltaTracker(directory);
+            DeltaTracker.Changeset changes = tracker.update("EU", Arrays.asList(
+                    entry("1", "Dariush Mehrabani", "1961"), entry("2", "Samir Al-Haddad", "1955"), entry(null, "APICO", null)));
+            equal(3, changes.added.size(), "first load added");
+
+            // Renamed entry keeps its id, the entry without id keeps its names
+            changes = tracker.update("EU", Arrays.asList(
+                    entry("1", "Daryoush Mehrabani", "1961"), entry("2", "Samir Al-Haddad", "1955"), entry(null, "APICO", null)));
+            check(!changes.isEmpty() && changes.added.isEmpty() && changes.removed.isEmpty(), "renamed entry is not added or removed");
+            equal(1, changes.changed.size(), "renamed entry changed");
+            if (changes.changed.size() == 1)
+                equal("1", changes.changed.get(0).id, "id of the renamed entry");
+
+            changes = tracker.update("EU", Arrays.asList(entry("1", "Daryoush Mehrabani", "1961"), entry("3", "Samir Al-Haddad", "1955")));
+            equal(1, changes.added.size(), "new id added");
+            equal(2, changes.removed.size(), "old id and entry without id removed");
+            equal(0, changes.changed.size(), "nothing changed");
+        } finally
+        {
+            if (!fingerprints.delete() || !directory.delete())
+                directory.deleteOnExit();
+        }
+
+        File fixtures = new File(args.length > 0 ? args[0] : ParserFixtures.DIRECTORY);
+        check(ids("EU", fixtures).contains("11020"), "EU entity id");
+        check(ids("UN", fixtures).contains("6908004"), "UN DATAID");
+        check(ids("BOE", fixtures).contains("11020"), "BOE group id");
+        equal(new HashSet<String>(Arrays.asList((String) null)), ids("OFAC", fixtures), "OFAC text list has no ids");
+        Checks.exit();
+    }
+}
@@ -0,0 +1,139 @@
+package Tests;
+
+import Fetching.DownloadCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Conditional requests of the download cache against a local server answering with an ETag,
+ * 304 for a matching If-None-Match and gzip encoded bodies.
+ */
+public class DownloadCacheTest
+{
+    private static final String PAYLOAD = "id,name\n1,Dariush Mehrabani\n2,Samir Al-Haddad\n";
+
+    private static String read(InputStream stream) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) >= 0)
+                out.write(buffer, 0, read);
+        } finally
+        {
+            stream.close();
+        }
+        return out.toString("UTF-8");
+    }
+
+    private static void delete(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files != null)
+            for (File file : files)
+                if (!file.delete())
+                    file.deleteOnExit();
+        if (!directory.delete())
+            directory.deleteOnExit();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        final AtomicReference<String> etag = new AtomicReference<String>("\"v1\"");
+        final AtomicReference<String> payload = new AtomicReference<String>(PAYLOAD);
+        final AtomicReference<String> ifNoneMatch = new AtomicReference<String>();
+        final AtomicInteger notModified = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/list.csv", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+                ifNoneMatch.set(condition);
+                exchange.getResponseHeaders().set("ETag", etag.get());
+                if (etag.get().equals(condition))
+                {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                if (encoding != null && encoding.contains("gzip"))
+                {
+                    exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                    GZIPOutputStream gzip = new GZIPOutputStream(body);
+                    gzip.write(payload.get().getBytes("UTF-8"));
+                    gzip.close();
+                }
+                else
+                    body.write(payload.get().getBytes("UTF-8"));
+                exchange.sendResponseHeaders(200, body.size());
+                OutputStream out = exchange.getResponseBody();
+                body.writeTo(out);
+                out.close();
+            }
+        });
+        server.start();
+
+        File directory = Files.createTempDirectory("download-cache").toFile();
+        try
+        {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/list.csv";
+            DownloadCache cache = new DownloadCache(directory);
+
+            DownloadCache.Download first = cache.open("TEST", url, 5000);
+            check(first != null && first.modified, "first download is modified");
+            equal(PAYLOAD, read(first.stream), "gzip body decoded");
+            equal(null, ifNoneMatch.get(), "first request is unconditional");
+            check(cache.getCachedFile("TEST") != null, "payload cached once read");
+            check(!new File(directory, "TEST.properties.part").exists(), "temporary metadata renamed");
+
+            DownloadCache.Download second = cache.open("TEST", url, 5000);
+            equal("\"v1\"", ifNoneMatch.get(), "cached ETag sent");
+            equal(1, notModified.get(), "server answered 304");
+            check(second != null && !second.modified, "second download is not modified");
+            equal(PAYLOAD, read(second.stream), "cached payload read on 304");
+
+            etag.set("\"v2\"");
+            payload.set(PAYLOAD + "3,Kim Jong Un\n");
+            DownloadCache.Download partial = cache.open("TEST", url, 5000);
+            check(partial != null && partial.modified, "changed payload is modified");
+            partial.stream.read();
+            partial.stream.close();
+            DownloadCache.Download third = cache.open("TEST", url, 5000);
+            equal("\"v1\"", ifNoneMatch.get(), "abandoned download keeps the previous ETag");
+            equal(PAYLOAD + "3,Kim Jong Un\n", read(third.stream), "changed payload read");
+
+            DownloadCache.Download fourth = cache.open("TEST", url, 5000);
+            equal("\"v2\"", ifNoneMatch.get(), "ETag of the changed payload sent");
+            check(fourth != null && !fourth.modified, "changed payload cached");
+            equal(PAYLOAD + "3,Kim Jong Un\n", read(fourth.stream), "changed payload read from cache");
+        } finally
+        {
+            server.stop(0);
+            delete(directory);
+        }
+
+        Checks.exit();
+    }
+}
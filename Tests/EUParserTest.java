@@ -0,0 +1,93 @@
+package Tests;
+
+import Benchmarks.ParserFixtures;
+import Fetching.SourceLoader;
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * EU parser on the checked-in sample of the consolidated list: entity ids, whole names including CDATA and
+ * non-Latin ones, addresses of street, city and country, births with and without a place and citizenships.
+ */
+public class EUParserTest
+{
+    private static Set<String> set(String... values)
+    {
+        return new HashSet<String>(Arrays.asList(values));
+    }
+
+    private static SanctionListEntry find(List<SanctionListEntry> entries, String name)
+    {
+        for (SanctionListEntry entry : entries)
+            if (entry.names.contains(name))
+                return entry;
+        check(false, "entry named " + name);
+        return new SanctionListEntry.Builder().build();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File sample = ParserFixtures.sample("EU", new File(args.length > 0 ? args[0] : ParserFixtures.DIRECTORY));
+        IParser parser = SourceLoader.createParser("EU_Parser");
+        List<SanctionListEntry> entries = SourceLoader.parseStream(new FileInputStream(sample), parser);
+        check(entries != null && entries.size() == 6, "entries of " + sample);
+        equal(0, parser.getSkippedCount(), "skipped entities of the sample");
+
+        SanctionListEntry person = find(entries, "Dariush Mehrabani");
+        equal("11020", person.id, "entity id");
+        equal(set("Dariush Mehrabani", "Daryoush Mehrabani"), person.names, "whole names");
+        equal(set("Ocean Avenue Santa Monica USA"), person.addresses, "street, city and country of an address");
+        equal(set("1961-07-03"), person.datesOfBirth, "date of birth");
+        equal(set("Shiraz IRN"), person.placesOfBirth, "place and country of birth");
+        equal(set("IRN"), person.nationalities, "citizenship");
+        equal(Collections.singleton("EU"), person.sources, "source");
+
+        SanctionListEntry company = find(entries, "Arvand Precision Instruments Company");
+        equal("11021", company.id, "entity id of a company");
+        equal(set("Arvand Precision Instruments Company", "APICO & Partners"), company.names, "name in CDATA");
+        equal(set("No. 14, Azadi Street Tehran IRN"), company.addresses, "address of a company");
+        equal(Collections.<String>emptySet(), company.datesOfBirth, "company without a birth");
+        equal(Collections.<String>emptySet(), company.nationalities, "company without a citizenship");
+
+        SanctionListEntry cyrillic = find(entries, "Yelena Vasilyevna Korobova");
+        equal(set("Yelena Vasilyevna Korobova", "\u0415\u043b\u0435\u043d\u0430 \u0412\u0430\u0441\u0438\u043b\u044c\u0435\u0432\u043d\u0430 \u041a\u043e\u0440\u043e\u0431\u043e\u0432\u0430"),
+                cyrillic.names, "Cyrillic name");
+        equal(set("1974-03-12", "1975"), cyrillic.datesOfBirth, "two births");
+        equal(set("Sverdlovsk RUS"), cyrillic.placesOfBirth, "birth with an empty place adds no place");
+        equal(Collections.<String>emptySet(), cyrillic.addresses, "entity without an address");
+        equal(set("RUS"), cyrillic.nationalities, "citizenship of a person");
+
+        SanctionListEntry arabic = find(entries, "Samir Khalil Al-Haddad");
+        equal(set("Samir Khalil Al-Haddad", "\u0633\u0645\u064a\u0631 \u062e\u0644\u064a\u0644 \u0627\u0644\u062d\u062f\u0627\u062f"),
+                arabic.names, "Arabic name");
+        equal(set("Damascus SYR"), arabic.addresses, "address without a street");
+        equal(set("1955-08-15"), arabic.datesOfBirth, "date of birth");
+        equal(set("Aleppo SYR"), arabic.placesOfBirth, "place of birth");
+
+        SanctionListEntry korean = find(entries, "Kim Chol Su");
+        equal("12803", korean.id, "entity id of a person");
+        equal(set("Beijing CHN"), korean.addresses, "address in another country");
+        equal(set("Pyongyang PRK"), korean.placesOfBirth, "place of birth");
+        equal(set("PRK"), korean.nationalities, "citizenship");
+
+        SanctionListEntry limited = find(entries, "Kestrel Trading Limited");
+        equal(set("Korea Kestrel Trading Corporation", "Kestrel Trading Limited"), limited.names, "names of a company");
+        equal(set("Room 1203, 88 Harbour Road Hong Kong CHN"), limited.addresses, "address of a company");
+        equal(Collections.<String>emptySet(), limited.datesOfBirth, "empty birth adds no date");
+        equal(Collections.<String>emptySet(), limited.placesOfBirth, "empty birth adds no place");
+
+        Checks.exit();
+    }
+}
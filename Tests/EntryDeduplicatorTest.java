@@ -0,0 +1,50 @@
+package Tests;
+
+import Merging.EntryDeduplicator;
+import Parsers.SanctionListEntry;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static Tests.Checks.equal;
+
+/**
+ * Cross-list merges of entries with and without dates of birth and nationalities.
+ */
+public class EntryDeduplicatorTest
+{
+    private static SanctionListEntry entry(String list, String name, String dateOfBirth, String nationality)
+    {
+        return new SanctionListEntry.Builder(list).addName(name).addDateOfBirth(dateOfBirth).addNationality(nationality).build();
+    }
+
+    private static int merged(SanctionListEntry... entries)
+    {
+        List<SanctionListEntry> out = new EntryDeduplicator().deduplicate(Arrays.asList(entries)).entries;
+        return entries.length - out.size();
+    }
+
+    public static void main(String[] args)
+    {
+        equal(1, merged(entry("UN", "Samir Khalil Al-Haddad", "1955-08-15", "Syria"),
+                entry("EU", "AL-HADDAD, Samir Khalil", "15 Aug 1955", "SYR")), "same date and nationality");
+        equal(1, merged(entry("UN", "Samir Khalil Al-Haddad", "1955-08-15", null),
+                entry("BIS", "Samir Khalil Al-Haddad", null, null)), "entry without date of birth");
+        equal(2, merged(entry("UN", "Samir Khalil Al-Haddad", "1955-08-15", null),
+                entry("BIS", "Samir Khalil Al-Haddad", null, null),
+                entry("OFAC", "Samir Khalil Al-Haddad", "1955", null)), "entry without date of birth joins a dated group");
+        equal(1, merged(entry("UN", "Yelena Vasilyevna Korobova", "1974 to 1975", null),
+                entry("EU", "Yelena Vasilyevna Korobova", "1975", null)), "overlapping range of years");
+
+        equal(0, merged(entry("UN", "Samir Khalil Al-Haddad", "1955", null),
+                entry("EU", "Samir Khalil Al-Haddad", "1962", null)), "namesakes born in different years");
+        equal(0, merged(entry("UN", "Samir Khalil Al-Haddad", null, "Syria"),
+                entry("EU", "Samir Khalil Al-Haddad", null, "IRQ")), "namesakes of different nationalities");
+        equal(1, merged(entry("UN", "Samir Khalil Al-Haddad", "1955", "Syria"),
+                entry("BIS", "Samir Khalil Al-Haddad", null, null),
+                entry("EU", "Samir Khalil Al-Haddad", "1962", null)), "group vetoes a namesake born in another year");
+        equal(0, merged(entry("UN", "Samir Khalil Al-Haddad", null, null),
+                entry("UN", "Samir Khalil Al-Haddad", null, null)), "entries of one list");
+        Checks.exit();
+    }
+}
@@ -0,0 +1,152 @@
+package Tests;
+
+import Benchmarks.SyntheticNames;
+import Parsers.SanctionListEntry;
+import Screening.FuzzyIndex;
+import Screening.Match;
+import Screening.NameKeys;
+import Screening.NameNormalizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Fuzzy index against the distance to every name, for queries with insertions, deletions and replacements
+ * anywhere in the name, including its indexed prefix.
+ */
+public class FuzzyIndexTest
+{
+    private static final int ENTRIES = 2000;
+    private static final int QUERIES = 400;
+
+    private static String edit(String name, int edits, Random random)
+    {
+        StringBuilder out = new StringBuilder(name);
+        for (int i = 0; i < edits; ++i)
+        {
+            // Edits near the start change the indexed prefix
+            int position = random.nextBoolean() ? random.nextInt(Math.min(out.length(), 8)) : random.nextInt(out.length());
+            char c = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3))
+            {
+                case 0:
+                    out.insert(position, c);
+                    break;
+                case 1:
+                    if (out.length() > 1)
+                        out.deleteCharAt(position);
+                    break;
+                default:
+                    out.setCharAt(position, c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Best score of every entry having a name within maxDistance of query.
+     */
+    private static Map<SanctionListEntry, Double> scan(List<SanctionListEntry> entries, String query, int maxDistance, BitSet allowed)
+    {
+        String normalized = NameNormalizer.normalize(query);
+        Map<SanctionListEntry, Double> best = new IdentityHashMap<SanctionListEntry, Double>();
+        for (int id = 0; id < entries.size(); ++id)
+        {
+            if (allowed != null && !allowed.get(id))
+                continue;
+            for (String name : entries.get(id).names)
+            {
+                String other = NameNormalizer.normalize(name);
+                int d = NameKeys.distance(normalized, other);
+                if (other.length() == 0 || d > maxDistance)
+                    continue;
+                double score = 1.0 - (double) d / Math.max(normalized.length(), other.length());
+                Double current = best.get(entries.get(id));
+                if (current == null || current < score)
+                    best.put(entries.get(id), score);
+            }
+        }
+        return best;
+    }
+
+    private static Map<SanctionListEntry, Double> scores(List<Match> matches)
+    {
+        Map<SanctionListEntry, Double> scores = new IdentityHashMap<SanctionListEntry, Double>();
+        for (Match match : matches)
+            scores.put(match.entry, match.score);
+        return scores;
+    }
+
+    private static boolean ordered(List<Match> matches)
+    {
+        for (int i = 1; i < matches.size(); ++i)
+            if (matches.get(i - 1).score < matches.get(i).score)
+                return false;
+        return true;
+    }
+
+    public static void main(String[] args)
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        SanctionListEntry.Builder builder = new SanctionListEntry.Builder();
+        for (int i = 0; i < ENTRIES; ++i)
+        {
+            for (int names = 1 + random.nextInt(3); names > 0; --names)
+                builder.addName(random.nextInt(10) == 0 ? SyntheticNames.word(random) : SyntheticNames.name(random));
+            entries.add(builder.build());
+        }
+        FuzzyIndex index = new FuzzyIndex(entries);
+        BitSet even = new BitSet(ENTRIES);
+        for (int id = 0; id < ENTRIES; id += 2)
+            even.set(id);
+
+        int missing = 0;
+        int extra = 0;
+        int matched = 0;
+        boolean sorted = true;
+        for (int q = 0; q < QUERIES; ++q)
+        {
+            String name = entries.get(random.nextInt(ENTRIES)).names.iterator().next();
+            String query = edit(name, random.nextInt(4), random);
+            for (int maxDistance = 0; maxDistance <= FuzzyIndex.DEFAULT_MAX_DISTANCE; ++maxDistance)
+            {
+                BitSet allowed = q % 4 == 0 ? even : null;
+                Map<SanctionListEntry, Double> expected = scan(entries, query, maxDistance, allowed);
+                List<Match> matches = index.search(query, maxDistance, allowed);
+                Map<SanctionListEntry, Double> actual = scores(matches);
+                sorted &= ordered(matches);
+                matched += actual.size();
+                for (Map.Entry<SanctionListEntry, Double> entry : expected.entrySet())
+                    if (!entry.getValue().equals(actual.get(entry.getKey())))
+                        ++missing;
+                for (SanctionListEntry entry : actual.keySet())
+                    if (!expected.containsKey(entry))
+                        ++extra;
+            }
+        }
+        equal(0, missing, "names within the distance missed or scored differently");
+        equal(0, extra, "names beyond the distance or filtered out reported");
+        check(matched > QUERIES, "queries matched " + matched + " entries");
+        check(sorted, "best score first");
+
+        try
+        {
+            index.search("Saddam", FuzzyIndex.DEFAULT_MAX_DISTANCE + 1);
+            check(false, "distance beyond the index rejected");
+        } catch (IllegalArgumentException e)
+        {
+            check(true, "distance beyond the index rejected");
+        }
+        check(index.search("  ", 1).isEmpty(), "empty query");
+
+        Checks.exit();
+    }
+}
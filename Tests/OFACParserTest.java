@@ -0,0 +1,90 @@
+package Tests;
+
+import Benchmarks.ParserFixtures;
+import Fetching.SourceLoader;
+import Parsers.IParser;
+import Parsers.SanctionListEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * OFAC parser on the checked-in sample of the SDN text list: names and aliases, addresses ending at the first
+ * labelled part, dates and places of birth, nationalities and records without a name.
+ */
+public class OFACParserTest
+{
+    private static Set<String> set(String... values)
+    {
+        return new HashSet<String>(Arrays.asList(values));
+    }
+
+    private static SanctionListEntry find(List<SanctionListEntry> entries, String name)
+    {
+        for (SanctionListEntry entry : entries)
+            if (entry.names.contains(name))
+                return entry;
+        check(false, "entry named " + name);
+        return new SanctionListEntry.Builder().build();
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File sample = ParserFixtures.sample("OFAC", new File(args.length > 0 ? args[0] : ParserFixtures.DIRECTORY));
+        IParser parser = SourceLoader.createParser("OFAC_Parser");
+        List<SanctionListEntry> entries = SourceLoader.parseStream(new FileInputStream(sample), parser);
+        check(entries != null && entries.size() == 10, "entries of " + sample + ", the preamble is no entry");
+        equal(0, parser.getSkippedCount(), "skipped records of the sample");
+
+        SanctionListEntry company = find(entries, "AL-RAFIDAIN DUAL TECHNOLOGIES LLC");
+        equal(set("AL-RAFIDAIN DUAL TECHNOLOGIES LLC", "RAFIDAIN DUAL TECH", "ARDT"), company.names, "entity aliases, quotes stripped");
+        equal(set("Karrada District, Baghdad, Iraq", "Office 5, Block 12, Amman, Jordan"), company.addresses, "addresses of an entity");
+        equal(Collections.singleton("OFAC"), company.sources, "source");
+
+        SanctionListEntry website = find(entries, "ARVAND PRECISION INSTRUMENTS COMPANY");
+        equal(set("No. 14, Azadi Street, Tehran, Iran"), website.addresses, "labelled part ends the addresses");
+
+        SanctionListEntry limited = find(entries, "KESTREL TRADING LIMITED");
+        equal(set("Room 1203, 88 Harbour Road, Wan Chai, Hong Kong, China"), limited.addresses, "address after an entity name");
+
+        SanctionListEntry individual = find(entries, "BARAKZAI, Abdul Rahim");
+        equal(set("BARAKZAI, Abdul Rahim", "BARAKZAY, Abdul Rahim", "MULLAH RAHIM"), individual.names, "individual aliases");
+        equal(set("01 Feb 1965", "1963"), individual.datesOfBirth, "dates of birth with alternatives");
+        equal(set("Spin Boldak, Kandahar Province, Afghanistan"), individual.placesOfBirth, "place of birth over two lines");
+        equal(set("Afghanistan", "Pakistan"), individual.nationalities, "nationalities with alternatives");
+        equal(Collections.<String>emptySet(), individual.addresses, "passport is no address");
+
+        SanctionListEntry korean = find(entries, "KIM, Chol Su");
+        equal(set("Korea, North"), korean.nationalities, "inverted country name");
+        equal(set("Pyongyang, Korea, North"), korean.placesOfBirth, "place of birth with commas");
+        equal(set("04 Apr 1968"), korean.datesOfBirth, "date of birth");
+
+        SanctionListEntry resident = find(entries, "MEHRABANI, Dariush");
+        equal(set("MEHRABANI, Dariush", "MEHRABANI, Daryoush"), resident.names, "names of an individual with an address");
+        equal(set("1420 Ocean Avenue, Apt. 6, Santa Monica, CA 90401, United States"), resident.addresses, "address of an individual");
+        equal(set("Shiraz, Iran"), resident.placesOfBirth, "place of birth after an address");
+        equal(set("Iran"), resident.nationalities, "citizenship is no nationality");
+
+        SanctionListEntry program = find(entries, "NOVOSIBIRSK AVIATION PARTS PLANT");
+        equal(set("ul. Polzunova 15, Novosibirsk 630051, Russia"), program.addresses, "program tag over two lines");
+
+        String malformed = new String(Files.readAllBytes(sample.toPath()), "UTF-8") + "\n(a.k.a. NOBODY); DOB 1970 [SDGT].\n";
+        parser = SourceLoader.createParser("OFAC_Parser");
+        entries = SourceLoader.parseStream(new ByteArrayInputStream(malformed.getBytes("UTF-8")), parser);
+        check(entries != null && entries.size() == 10, "record without a name is no entry");
+        equal(1, parser.getSkippedCount(), "skipped record without a name");
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,62 @@
+package Tests;
+
+import Fetching.PipelinedInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Read-ahead streams deliver the source unchanged and return their buffers to the pool once closed,
+ * whether the source was read to its end or abandoned.
+ */
+public class PipelinedInputStreamTest
+{
+    private static final int BUFFERS = 4;
+    private static final int STREAMS = 50;
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        byte[] data = new byte[5 * PipelinedInputStream.BUFFER_SIZE + 123];
+        for (int i = 0; i < data.length; ++i)
+            data[i] = (byte) (i * 31);
+
+        PipelinedInputStream.BufferPool pool = new PipelinedInputStream.BufferPool();
+        byte[] chunk = new byte[1000];
+        for (int s = 0; s < STREAMS; ++s)
+        {
+            PipelinedInputStream stream = new PipelinedInputStream(new ByteArrayInputStream(data), BUFFERS, pool);
+            if (s % 2 == 0)
+            {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int read;
+                while ((read = stream.read(chunk)) >= 0)
+                    out.write(chunk, 0, read);
+                check(Arrays.equals(data, out.toByteArray()), "stream " + s + " delivers the source");
+            }
+            else
+                stream.read(chunk);
+            stream.close();
+            stream.close();
+
+            boolean failed = false;
+            try
+            {
+                stream.read();
+            } catch (IOException e)
+            {
+                failed = true;
+            }
+            check(failed, "read after close fails");
+            // Gives the reader thread of an abandoned stream time to stop and return its buffers
+            Thread.sleep(10);
+        }
+        equal(BUFFERS, pool.getAllocated(), "buffers allocated for " + STREAMS + " sequential streams");
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,174 @@
+package Tests;
+
+import Fetching.ConcurrentFetcher;
+import Fetching.IRefreshListener;
+import Fetching.ISourceListener;
+import Fetching.RefreshScheduler;
+import Parsers.SanctionListEntry;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Refresh scheduling against a stub fetcher: retry delays doubling up to the interval and kept within the jitter,
+ * unchanged payloads keeping the previous entries and completion waiting for every source.
+ */
+public class RefreshSchedulerTest
+{
+    private static final long WAIT_SECONDS = 10;
+
+    /**
+     * Answers the first fetch of a source with an entry named after the source and every later one as not
+     * modified, with an entry that must not be used. Fetches of blocked sources wait for release.
+     */
+    private static class StubFetcher extends ConcurrentFetcher
+    {
+        final Map<String, AtomicInteger> calls = new ConcurrentHashMap<String, AtomicInteger>();
+        final Map<String, Boolean> skipped = new ConcurrentHashMap<String, Boolean>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final String blocked;
+
+        public StubFetcher(String blocked)
+        {
+            super(1, 0);
+            this.blocked = blocked;
+        }
+
+        @Override
+        public List<SourceResult> fetch(Map<String, String> sources, Collection<SanctionListEntry> sink, boolean skipUnmodified)
+        {
+            String name = sources.keySet().iterator().next();
+            if (name.equals(blocked))
+            {
+                try
+                {
+                    release.await();
+                } catch (InterruptedException e)
+                {
+                    return Collections.emptyList();
+                }
+            }
+            calls.putIfAbsent(name, new AtomicInteger());
+            boolean first = calls.get(name).incrementAndGet() == 1;
+            skipped.put(name, skipUnmodified);
+            sink.add(new SanctionListEntry.Builder(name).addName(first ? name : "stale " + name).build());
+            return Collections.singletonList(new SourceResult(name, Status.OK, 1, 0, first));
+        }
+    }
+
+    private static RefreshScheduler scheduler(ConcurrentFetcher fetcher, long interval, long retryMillis, double jitter,
+                                              String... names)
+    {
+        Map<String, String> sources = new LinkedHashMap<String, String>();
+        Map<String, Long> intervals = new LinkedHashMap<String, Long>();
+        for (String name : names)
+        {
+            sources.put(name, "file:///" + name);
+            intervals.put(name, interval);
+        }
+        return new RefreshScheduler(fetcher, sources, intervals, retryMillis, jitter, names.length);
+    }
+
+    private static void retryDelays()
+    {
+        RefreshScheduler exact = scheduler(new ConcurrentFetcher(1, 0), 1000, 100, 0, "EU");
+        long[] delays = new long[7];
+        for (int failed = 1; failed <= delays.length; ++failed)
+            delays[failed - 1] = exact.retryDelay("EU", failed);
+        equal("[100, 200, 400, 800, 1000, 1000, 1000]", Arrays.toString(delays), "retry delay doubles up to the interval");
+        equal(1000L, exact.retryDelay("EU", 64), "retry delay after many failures");
+
+        RefreshScheduler jittered = scheduler(new ConcurrentFetcher(1, 0), 1000, 100, 0.25, "EU");
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < 10000; ++i)
+        {
+            long delay = jittered.retryDelay("EU", 2);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        check(min >= 150 && max <= 250, "jittered retry delay within 25 % of 200, got " + min + " to " + max);
+        check(min < 160 && max > 240, "jitter spread over its range, got " + min + " to " + max);
+        check(jittered.retryDelay("EU", 10) <= 1250, "jittered retry delay capped by the interval");
+    }
+
+    private static void unchangedPayload() throws InterruptedException
+    {
+        StubFetcher fetcher = new StubFetcher(null);
+        RefreshScheduler scheduler = scheduler(fetcher, 20, 20, 0, "UN");
+        final AtomicInteger replaced = new AtomicInteger();
+        final CountDownLatch attempts = new CountDownLatch(3);
+        scheduler.addListener(new ISourceListener()
+        {
+            @Override
+            public void sourceFetched(String name, List<SanctionListEntry> entries)
+            {
+                replaced.incrementAndGet();
+            }
+        });
+        scheduler.addRefreshListener(new IRefreshListener()
+        {
+            @Override
+            public void refreshAttempted(String name, ConcurrentFetcher.SourceResult result)
+            {
+                attempts.countDown();
+            }
+        });
+        scheduler.start();
+        check(attempts.await(WAIT_SECONDS, TimeUnit.SECONDS), "refreshes of an unchanged source");
+        scheduler.stop();
+
+        equal(1, replaced.get(), "listeners called only for the first payload");
+        List<SanctionListEntry> entries = scheduler.getEntries();
+        equal(1, entries.size(), "entries of the source");
+        check(entries.size() == 1 && entries.get(0).names.contains("UN"), "previous entries kept");
+        equal(Boolean.TRUE, fetcher.skipped.get("UN"), "loaded source fetched skipping unmodified payloads");
+    }
+
+    private static void completion() throws InterruptedException
+    {
+        StubFetcher fetcher = new StubFetcher("BIS");
+        RefreshScheduler scheduler = scheduler(fetcher, TimeUnit.HOURS.toMillis(1), 1000, 0, "EU", "BIS");
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final CountDownLatch allLoaded = new CountDownLatch(2);
+        scheduler.addListener(new ISourceListener()
+        {
+            @Override
+            public void sourceFetched(String name, List<SanctionListEntry> entries)
+            {
+                loaded.countDown();
+                allLoaded.countDown();
+            }
+        });
+        check(!scheduler.isComplete(), "nothing loaded before start");
+        scheduler.start();
+        check(loaded.await(WAIT_SECONDS, TimeUnit.SECONDS), "unblocked source loaded");
+        check(!scheduler.isComplete(), "incomplete while a source is still loading");
+        equal(1, scheduler.getEntries().size(), "entries of the loaded source");
+
+        fetcher.release.countDown();
+        check(allLoaded.await(WAIT_SECONDS, TimeUnit.SECONDS), "blocked source loaded");
+        check(scheduler.isComplete(), "complete once every source loaded");
+        equal(2, scheduler.getEntries().size(), "entries of both sources");
+        scheduler.stop();
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        retryDelays();
+        unchangedPayload();
+        completion();
+        Checks.exit();
+    }
+}
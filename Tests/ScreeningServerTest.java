@@ -0,0 +1,63 @@
+package Tests;
+
+import Parsers.SanctionListEntry;
+import Screening.Screener;
+import Server.ScreeningServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+
+import static Tests.Checks.equal;
+
+/**
+ * Status codes of the screening endpoints for valid requests, malformed parameters and unknown paths.
+ */
+public class ScreeningServerTest
+{
+    private static int status(String method, URL url, String body) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null)
+        {
+            connection.setDoOutput(true);
+            OutputStream out = connection.getOutputStream();
+            out.write(body.getBytes("UTF-8"));
+            out.close();
+        }
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        SanctionListEntry entry = new SanctionListEntry.Builder("UN").addName("Saddam Hussein Al-Tikriti").build();
+        ScreeningServer server = new ScreeningServer(new Screener(Arrays.asList(entry)), new InetSocketAddress("localhost", 0));
+        server.start();
+        try
+        {
+            String base = "http://localhost:" + server.getPort();
+            equal(200, status("GET", new URL(base + "/screen?name=Saddam%20Hussein"), null), "single name");
+            equal(400, status("GET", new URL(base + "/screen?name=%zz"), null), "invalid encoding of name");
+            equal(400, status("GET", new URL(base + "/screen?name=Saddam&nationality=%e"), null), "invalid encoding of nationality");
+            equal(400, status("GET", new URL(base + "/screen?born=19x0&name=Saddam"), null), "invalid born");
+            equal(400, status("GET", new URL(base + "/screen"), null), "missing name");
+            equal(404, status("GET", new URL(base + "/screenX?name=Saddam"), null), "longer path of /screen");
+            equal(404, status("GET", new URL(base + "/screen/other?name=Saddam"), null), "sub path of /screen");
+            equal(200, status("POST", new URL(base + "/screen/batch"), "Saddam Hussein\nNobody\n"), "batch");
+            equal(404, status("POST", new URL(base + "/screen/batches"), "Saddam Hussein\n"), "longer path of /screen/batch");
+            equal(200, status("GET", new URL(base + "/stats"), null), "stats");
+            equal(404, status("GET", new URL(base + "/statsX"), null), "longer path of /stats");
+        } finally
+        {
+            server.stop();
+        }
+
+        Checks.exit();
+    }
+}
@@ -0,0 +1,172 @@
+package Tests;
+
+import Benchmarks.SyntheticNames;
+import Metrics.LatencyHistogram;
+import Parsers.SanctionListEntry;
+import Screening.CachingScreener;
+import Screening.IScreener;
+import Screening.Match;
+import Screening.Screener;
+import Screening.SwappableScreener;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static Tests.Checks.equal;
+
+/**
+ * Concurrent readers screening names while the indexes are rebuilt and swapped in repeatedly.
+ * <p>
+ * Every generation of entries has the same names and its own source "GEN&lt;n&gt;". A result mixing
+ * generations, or coming from a generation older than the one published when the query started,
+ * is a torn read. The test fails on any torn read and when the last generation was not published; latencies
+ * and monitor waits of the reader threads, read from the thread MXBean, are only reported.
+ */
+public class SnapshotSwapStressTest
+{
+    private static final int ENTRIES = 5000;
+    private static final int READERS = 4;
+    private static final int GENERATIONS = 10;
+    private static final int CACHE_SIZE = 2000;
+
+    private static List<SanctionListEntry> generation(List<SanctionListEntry> base, long number)
+    {
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>(base.size());
+        for (SanctionListEntry entry : base)
+            entries.add(new SanctionListEntry.Builder("GEN" + number).addAll(entry).build());
+        return entries;
+    }
+
+    private static long generationOf(Match match)
+    {
+        return Long.parseLong(match.getSources().iterator().next().substring(3));
+    }
+
+    private static class Reader extends Thread
+    {
+        private final IScreener screener;
+        private final SwappableScreener source;
+        private final String[] queries;
+        private final AtomicBoolean running;
+        private final LatencyHistogram latency;
+        private final AtomicLong torn;
+        private long queriesRun;
+
+        public Reader(IScreener screener, SwappableScreener source, String[] queries, AtomicBoolean running,
+                      LatencyHistogram latency, AtomicLong torn)
+        {
+            this.screener = screener;
+            this.source = source;
+            this.queries = queries;
+            this.running = running;
+            this.latency = latency;
+            this.torn = torn;
+        }
+
+        @Override
+        public void run()
+        {
+            Random random = new Random(getId());
+            while (running.get())
+            {
+                String query = queries[random.nextInt(queries.length)];
+                long published = source.snapshot().generation;
+                long start = System.nanoTime();
+                List<Match> matches = screener.screen(query);
+                latency.record(System.nanoTime() - start);
+                ++queriesRun;
+                if (matches.isEmpty())
+                    continue;
+                long first = generationOf(matches.get(0));
+                boolean consistent = first >= published;
+                for (Match match : matches)
+                    consistent &= generationOf(match) == first;
+                if (!consistent)
+                    torn.incrementAndGet();
+            }
+        }
+    }
+
+    private static void run(String label, boolean cached, boolean publish, List<SanctionListEntry> base, String[] queries) throws InterruptedException
+    {
+        SwappableScreener source = new SwappableScreener(new Screener(generation(base, 0)));
+        IScreener screener = cached ? new CachingScreener(source, CACHE_SIZE) : source;
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads.isThreadContentionMonitoringSupported())
+            threads.setThreadContentionMonitoringEnabled(true);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong torn = new AtomicLong();
+        Reader[] readers = new Reader[READERS];
+        for (int i = 0; i < READERS; ++i)
+        {
+            readers[i] = new Reader(screener, source, queries, running, latency, torn);
+            readers[i].start();
+        }
+
+        // Indexes of the next generation are built here, on the writer thread, while the readers keep going
+        long buildNanos = 0;
+        for (long number = 1; number <= GENERATIONS; ++number)
+        {
+            long start = System.nanoTime();
+            Screener next = new Screener(generation(base, number));
+            buildNanos += System.nanoTime() - start;
+            if (publish)
+                source.publish(next);
+        }
+        Thread.sleep(200);
+        running.set(false);
+
+        long queriesRun = 0;
+        long blocked = 0;
+        long blockedMillis = 0;
+        for (Reader reader : readers)
+        {
+            reader.join();
+            queriesRun += reader.queriesRun;
+        }
+        for (Reader reader : readers)
+        {
+            ThreadInfo info = threads.getThreadInfo(reader.getId());
+            if (info == null)
+                continue;
+            blocked += info.getBlockedCount();
+            blockedMillis += Math.max(0, info.getBlockedTime());
+        }
+
+        System.out.printf("%s: %d builds, build %d ms/generation, %d queries, p50 %d us, p99 %d us, p99.9 %d us, "
+                        + "torn reads %d, reader monitor waits %d (%d ms), final generation %d%n",
+                label + (publish ? "" : " (built, not published)"), GENERATIONS, buildNanos / GENERATIONS / 1000000, queriesRun, latency.getPercentile(0.5),
+                latency.getPercentile(0.99), latency.getPercentile(0.999), torn.get(), blocked, blockedMillis,
+                source.snapshot().generation);
+        equal(0L, torn.get(), label + " torn reads");
+        equal(publish ? (long) GENERATIONS : 0L, source.snapshot().generation, label + " final generation");
+    }
+
+    public static void main(String[] args) throws InterruptedException
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> base = SyntheticNames.entries(ENTRIES, random);
+        String[] queries = new String[1000];
+        for (int q = 0; q < queries.length; ++q)
+        {
+            String name = base.get(random.nextInt(base.size())).names.iterator().next();
+            queries[q] = random.nextBoolean() ? name : SyntheticNames.misspell(name, random);
+        }
+
+        // The same builds without publishing them separate the cost of building on a shared CPU from the swap
+        run("uncached", false, false, base, queries);
+        run("uncached", false, true, base, queries);
+        run("cached", true, false, base, queries);
+        run("cached", true, true, base, queries);
+        Checks.exit();
+    }
+}
@@ -0,0 +1,104 @@
+package Tests;
+
+import Parsers.SanctionListEntry;
+import Storage.SnapshotReader;
+import Storage.SnapshotWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Entries written to a snapshot and read back keep every field, including their list ids.
+ * Snapshots with a flipped byte, cut short or of another version are rejected.
+ */
+public class SnapshotTest
+{
+    private static List<SanctionListEntry> entries()
+    {
+        return Arrays.asList(
+                new SanctionListEntry.Builder("EU").setId("EU.27.28").addName("Dariush Mehrabani").addName("Dariush Mehrabany")
+                        .addAddress("Tehran, Iran").addNationality("IR").addPlaceOfBirth("Tabriz").addDateOfBirth("1961").build(),
+                new SanctionListEntry.Builder("UN").setId("6908555").addName("Samir Al-Haddad").addDateOfBirth("1955")
+                        .addSource("EU").build(),
+                new SanctionListEntry.Builder("BIS").addName("APICO").addAddress("Tehran, Iran").build());
+    }
+
+    private static String describe(SanctionListEntry entry)
+    {
+        return entry.id + " " + entry.names + " " + entry.addresses + " " + entry.nationalities + " " + entry.placesOfBirth
+                + " " + entry.datesOfBirth + " " + entry.sources;
+    }
+
+    /**
+     * Opens a copy of bytes, returns the message of the rejection or null when the copy was accepted.
+     */
+    private static String rejection(File directory, byte[] bytes) throws IOException
+    {
+        File copy = new File(directory, "damaged.snapshot");
+        Files.write(copy.toPath(), bytes);
+        try
+        {
+            SnapshotReader.open(copy);
+            return null;
+        } catch (IOException e)
+        {
+            return e.getMessage();
+        } finally
+        {
+            if (!copy.delete())
+                copy.deleteOnExit();
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File directory = Files.createTempDirectory("snapshot").toFile();
+        File file = new File(directory, "entries.snapshot");
+        try
+        {
+            List<SanctionListEntry> written = entries();
+            SnapshotWriter.write(file, written);
+            check(!new File(file.getPath() + ".part").exists(), "temporary snapshot renamed");
+
+            SnapshotReader reader = SnapshotReader.open(file);
+            equal(written.size(), reader.size(), "entry count");
+            List<SanctionListEntry> read = new ArrayList<SanctionListEntry>(reader.readAll());
+            for (int i = 0; i < written.size(); ++i)
+                equal(describe(written.get(i)), describe(read.get(i)), "entry " + i);
+            equal("EU.27.28", read.get(0).id, "list id kept");
+            equal(null, read.get(2).id, "entry without id");
+            equal(describe(written.get(1)), describe(reader.asList().get(1)), "lazy view");
+
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            byte[] flipped = bytes.clone();
+            // First byte after the header is string data, covered only by the checksum
+            flipped[32] ^= 0x01;
+            equal("Corrupt snapshot: checksum mismatch", rejection(directory, flipped), "flipped byte");
+            flipped = bytes.clone();
+            flipped[bytes.length - 1] ^= 0x01;
+            equal("Corrupt snapshot: checksum mismatch", rejection(directory, flipped), "flipped byte of the record index");
+            equal("Corrupt snapshot: inconsistent header", rejection(directory, Arrays.copyOf(bytes, bytes.length - 4)),
+                    "truncated records");
+            equal("Corrupt snapshot: truncated header", rejection(directory, Arrays.copyOf(bytes, 20)), "truncated header");
+            byte[] version = bytes.clone();
+            version[7] = (byte) (version[7] - 1);
+            check(rejection(directory, version).startsWith("Unsupported snapshot version"), "previous version");
+            version[7] = (byte) (version[7] + 2);
+            check(rejection(directory, version).startsWith("Unsupported snapshot version"), "next version");
+            equal(null, rejection(directory, bytes), "intact copy accepted");
+        } finally
+        {
+            if (!file.delete() || !directory.delete())
+                directory.deleteOnExit();
+        }
+
+        Checks.exit();
+    }
+}
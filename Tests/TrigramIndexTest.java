@@ -0,0 +1,113 @@
+package Tests;
+
+import Benchmarks.SyntheticNames;
+import Parsers.SanctionListEntry;
+import Screening.Match;
+import Screening.TrigramIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * Trigram index against a scan of every name, single-threaded and with more concurrent queries
+ * than pooled counter arrays.
+ */
+public class TrigramIndexTest
+{
+    private static final int ENTRIES = 2000;
+    private static final int QUERIES = 500;
+    private static final double SIMILARITY = 0.4;
+
+    /**
+     * Best similarity of the names of entry to query.
+     */
+    private static double best(SanctionListEntry entry, String query)
+    {
+        double best = 0;
+        for (String name : entry.names)
+            best = Math.max(best, TrigramIndex.similarity(query, name));
+        return best;
+    }
+
+    private static String describe(List<Match> matches)
+    {
+        StringBuilder out = new StringBuilder();
+        for (Match match : matches)
+            out.append(match.entry.names).append('/').append(match.matchedName).append('/').append(match.score).append(' ');
+        return out.toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException
+    {
+        Random random = new Random(42);
+        List<SanctionListEntry> entries = new ArrayList<SanctionListEntry>();
+        SanctionListEntry.Builder builder = new SanctionListEntry.Builder();
+        for (int i = 0; i < ENTRIES; ++i)
+        {
+            for (int names = 1 + random.nextInt(3); names > 0; --names)
+                builder.addName(SyntheticNames.name(random));
+            entries.add(builder.build());
+        }
+        final TrigramIndex index = new TrigramIndex(entries);
+        final String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; ++i)
+            queries[i] = SyntheticNames.misspell(entries.get(random.nextInt(ENTRIES)).names.iterator().next(), random);
+
+        String[] expected = new String[QUERIES];
+        for (int q = 0; q < QUERIES; ++q)
+        {
+            List<Match> matches = index.search(queries[q], SIMILARITY);
+            int[] ids = index.candidateIds(queries[q], SIMILARITY);
+            int found = 0;
+            for (SanctionListEntry entry : entries)
+                if (best(entry, queries[q]) >= SIMILARITY)
+                    ++found;
+            equal(found, matches.size(), "matches of " + queries[q]);
+            equal(ids.length, matches.size(), "candidates of " + queries[q]);
+            for (int i = 0; i < matches.size() && i < ids.length; ++i)
+            {
+                Match match = matches.get(i);
+                check(match.entry == index.getEntry(ids[i]), "candidate order of " + queries[q]);
+                check(match.entry.names.contains(match.matchedName), "matched name of " + queries[q]);
+                equal(best(match.entry, queries[q]), match.score, "score of " + queries[q]);
+                equal(TrigramIndex.similarity(queries[q], match.matchedName), match.score, "matched name score of " + queries[q]);
+                check(i == 0 || matches.get(i - 1).score >= match.score, "order of " + queries[q]);
+            }
+            expected[q] = describe(matches);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4 * Runtime.getRuntime().availableProcessors() + 4);
+        try
+        {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int round = 0; round < 4; ++round)
+                for (int q = 0; q < QUERIES; ++q)
+                {
+                    final String query = queries[q];
+                    results.add(executor.submit(new Callable<String>()
+                    {
+                        @Override
+                        public String call()
+                        {
+                            return describe(index.search(query, SIMILARITY));
+                        }
+                    }));
+                }
+            for (int i = 0; i < results.size(); ++i)
+                equal(expected[i % QUERIES], results.get(i).get(), "concurrent search of " + queries[i % QUERIES]);
+        } finally
+        {
+            executor.shutdown();
+        }
+        Checks.exit();
+    }
+}
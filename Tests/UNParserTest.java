@@ -0,0 +1,51 @@
+package Tests;
+
+import Benchmarks.ParserFixtures;
+import Fetching.SourceLoader;
+import Parsers.SanctionListEntry;
+import Screening.DatesOfBirth;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static Tests.Checks.check;
+import static Tests.Checks.equal;
+
+/**
+ * UN parser on the checked-in sample of the consolidated list.
+ */
+public class UNParserTest
+{
+    private static SanctionListEntry find(List<SanctionListEntry> entries, String name)
+    {
+        for (SanctionListEntry entry : entries)
+            if (entry.names.contains(name))
+                return entry;
+        return null;
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        File sample = ParserFixtures.sample("UN", new File(args.length > 0 ? args[0] : ParserFixtures.DIRECTORY));
+        List<SanctionListEntry> entries = SourceLoader.parseStream(new FileInputStream(sample), SourceLoader.createParser("UN_Parser"));
+        check(entries != null && entries.size() == 7, "entries of " + sample);
+
+        SanctionListEntry exact = find(entries, "KIM CHOL SU");
+        check(exact != null, "individual with an exact date");
+        if (exact != null)
+            equal(Collections.singleton("1968-04-04"), exact.datesOfBirth, "exact date of birth");
+
+        SanctionListEntry between = find(entries, "YELENA VASILYEVNA KOROBOVA");
+        check(between != null, "individual with a range of years");
+        if (between != null)
+        {
+            equal(Collections.singleton("1974 to 1975"), between.datesOfBirth, "range of years");
+            equal(new int[]{19740000, 19750000}, DatesOfBirth.parse(between.datesOfBirth.iterator().next()), "parsed range of years");
+            check(between.names.contains("Elena Korobova"), "alias");
+        }
+        Checks.exit();
+    }
+}